@@ -0,0 +1,69 @@
+package com.akos.database.jmh;
+
+import com.akos.database.entities.Gender;
+import com.akos.database.entities.TaskEntity;
+import com.akos.database.entities.TaskState;
+import com.akos.database.entities.TaskType;
+import com.akos.database.entities.UserEntity;
+import com.akos.database.entities.UserRank;
+import com.akos.database.entities.WorkingStatus;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Deterministic test data of the benchmarks, every value is derived from the index or a fixed seed,
+ * so two runs of the same commit measure the same objects and rows.
+ */
+final class BenchmarkData {
+
+    /**
+     * The seed of every random value used by the benchmarks.
+     */
+    static final long SEED = 42L;
+
+    private BenchmarkData() {
+    }
+
+    static TaskEntity task(long id) {
+        Random random = new Random(SEED + id);
+        return TaskEntity.builder()
+                .id(id)
+                .name("Task " + id)
+                .description("Description for task " + id)
+                .workTimePerWeekPerPerson(1L + random.nextInt(40))
+                .type(pick(TaskType.values(), random))
+                .deadLine(LocalDate.of(2024, 1, 1).plusDays(random.nextInt(365)))
+                .state(pick(TaskState.values(), random))
+                .weeksNeeded(1L + random.nextInt(20))
+                .personsNeeded(1L + random.nextInt(10))
+                .version(0L)
+                .build();
+    }
+
+    static UserEntity user(long id, int taskCount) {
+        Random random = new Random(SEED + id);
+        Set<TaskEntity> tasks = new HashSet<>();
+        for (long taskId = 1; taskId <= taskCount; taskId++) {
+            tasks.add(task(taskId));
+        }
+        return UserEntity.builder()
+                .id(id)
+                .firstName("First " + id)
+                .familyName("Family " + id)
+                .workHoursPerWeek((long) random.nextInt(60))
+                .rank(pick(UserRank.values(), random))
+                .birthDate(LocalDate.of(1960, 1, 1).plusDays(random.nextInt(15000)))
+                .gender(pick(Gender.values(), random))
+                .workingStatus(pick(WorkingStatus.values(), random))
+                .version(0L)
+                .tasks(tasks)
+                .build();
+    }
+
+    static <E> E pick(E[] values, Random random) {
+        return values[random.nextInt(values.length)];
+    }
+}
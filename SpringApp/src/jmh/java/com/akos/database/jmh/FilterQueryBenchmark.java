@@ -0,0 +1,144 @@
+package com.akos.database.jmh;
+
+import com.akos.database.SpringAppApplication;
+import com.akos.database.entities.TaskEntity;
+import com.akos.database.entities.TaskState;
+import com.akos.database.entities.TaskType;
+import com.akos.database.entities.UserEntity;
+import com.akos.database.entities.UserRank;
+import com.akos.database.repositories.TaskRepository;
+import com.akos.database.repositories.UserRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the filter queries of the list endpoints against an in-memory H2 database,
+ * migrated by Flyway and seeded with deterministic rows before the measurement.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class FilterQueryBenchmark {
+    private static final int PAGE_SIZE = 20;
+    private static final int BATCH_SIZE = 1000;
+
+    @Param({"10000", "100000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private TaskRepository taskRepository;
+    private UserRepository userRepository;
+    private Pageable middlePage;
+
+    @Setup
+    public void startApplicationAndSeedDatabase() {
+        context = new SpringApplicationBuilder(SpringAppApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url="
+                                + "jdbc:h2:mem:jmh;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.jpa.properties.hibernate.generate_statistics=false",
+                        "--spring.docker.compose.enabled=false",
+                        "--app.reactive.enabled=false",
+                        "--logging.level.root=WARN");
+        taskRepository = context.getBean(TaskRepository.class);
+        userRepository = context.getBean(UserRepository.class);
+        middlePage = PageRequest.of(rows / PAGE_SIZE / 20, PAGE_SIZE);
+        seed(context.getBean(JdbcTemplate.class));
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate) {
+        List<Object[]> tasks = new ArrayList<>(BATCH_SIZE);
+        List<Object[]> users = new ArrayList<>(BATCH_SIZE);
+        for (long id = 1; id <= rows; id++) {
+            TaskEntity task = BenchmarkData.task(id);
+            tasks.add(new Object[]{id, task.getName(), task.getDescription(), task.getWorkTimePerWeekPerPerson(),
+                    task.getType().name(), Date.valueOf(task.getDeadLine()), task.getState().name(),
+                    task.getWeeksNeeded(), task.getPersonsNeeded()});
+            UserEntity user = BenchmarkData.user(id, 0);
+            users.add(new Object[]{id, user.getFirstName(), user.getFamilyName(), user.getWorkHoursPerWeek(),
+                    user.getRank().name(), Date.valueOf(user.getBirthDate()), user.getGender().name(),
+                    user.getWorkingStatus().name()});
+            if (tasks.size() == BATCH_SIZE || id == rows) {
+                jdbcTemplate.batchUpdate("INSERT INTO tasks (id, name, description, "
+                        + "worktime_in_hours_per_week_per_person, type, deadline, state, weeks_needed, persons_need) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", tasks);
+                jdbcTemplate.batchUpdate("INSERT INTO users (id, first_name, family_name, workhours_per_week, rank, "
+                        + "birthdate, gender, working_status) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", users);
+                tasks.clear();
+                users.clear();
+            }
+        }
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @TearDown
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<TaskEntity> availableTasksPage() {
+        return taskRepository.findByStateIn(EnumSet.of(TaskState.IN_PROGRESS, TaskState.NOT_STARTED), middlePage);
+    }
+
+    @Benchmark
+    public Page<TaskEntity> tasksOfTypePage() {
+        return taskRepository.findTaskTypeLikeThis(TaskType.TESTING, middlePage);
+    }
+
+    @Benchmark
+    public Window<TaskEntity> tasksOfTypeFirstKeysetWindow() {
+        return taskRepository.findByType(
+                TaskType.TESTING, ScrollPosition.keyset(), Limit.of(PAGE_SIZE), Sort.by("id"));
+    }
+
+    @Benchmark
+    public Page<UserEntity> activeUsersPage() {
+        return userRepository.findUsersWhoAreActivelyWorking(middlePage);
+    }
+
+    @Benchmark
+    public Page<UserEntity> usersWithRankPage() {
+        return userRepository.findUsersWithThisTypeOfRank(UserRank.WORKER, middlePage);
+    }
+
+    @Benchmark
+    public Page<UserEntity> usersWorkingLessThanPage() {
+        return userRepository.findUsersWithLessWeeklyWorkHours(20L, middlePage);
+    }
+}
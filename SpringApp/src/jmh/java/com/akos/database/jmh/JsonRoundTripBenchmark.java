@@ -0,0 +1,79 @@
+package com.akos.database.jmh;
+
+import com.akos.database.configuration.JacksonConfig;
+import com.akos.database.dtos.TaskDto;
+import com.akos.database.dtos.UserDto;
+import com.akos.database.mappers.TaskMapper;
+import com.akos.database.mappers.TaskMapperImpl;
+import com.akos.database.mappers.UserMapperImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures writing a DTO to JSON and reading it back, the dates go through
+ * the LocalDateSerializer and LocalDateDeserializer of the DTOs.
+ * The properties are accessed either by reflection, as by a plain ObjectMapper, or by the accessors
+ * generated by the Blackbird module, as by the ObjectMapper of the application.
+ * Run it with {@code -prof gc} to see the bytes allocated per operation as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class JsonRoundTripBenchmark {
+
+    private final TaskMapper taskMapper = new TaskMapperImpl();
+
+    @Param({"reflection", "blackbird"})
+    private String accessors;
+
+    private ObjectMapper objectMapper;
+    private TaskDto task;
+
+    @State(Scope.Benchmark)
+    public static class User {
+        @Param({"0", "10", "1000"})
+        private int tasksPerUser;
+
+        private UserDto dto;
+
+        @Setup
+        public void createDto() {
+            dto = new UserMapperImpl(new TaskMapperImpl()).toDto(BenchmarkData.user(1L, tasksPerUser));
+        }
+    }
+
+    @Setup
+    public void createObjectMapperAndTaskDto() {
+        objectMapper = new ObjectMapper();
+        if (accessors.equals("blackbird")) {
+            objectMapper.registerModule(new JacksonConfig().blackbirdModule());
+        }
+        task = taskMapper.toDto(BenchmarkData.task(1L));
+    }
+
+    @Benchmark
+    public TaskDto taskRoundTrip() throws IOException {
+        return objectMapper.readValue(objectMapper.writeValueAsBytes(task), TaskDto.class);
+    }
+
+    @Benchmark
+    public UserDto userRoundTrip(User user) throws IOException {
+        return objectMapper.readValue(objectMapper.writeValueAsBytes(user.dto), UserDto.class);
+    }
+}
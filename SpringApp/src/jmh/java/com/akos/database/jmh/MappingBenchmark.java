@@ -0,0 +1,95 @@
+package com.akos.database.jmh;
+
+import com.akos.database.dtos.TaskDto;
+import com.akos.database.dtos.UserDto;
+import com.akos.database.entities.TaskEntity;
+import com.akos.database.entities.UserEntity;
+import com.akos.database.mappers.TaskMapper;
+import com.akos.database.mappers.TaskMapperImpl;
+import com.akos.database.mappers.UserMapper;
+import com.akos.database.mappers.UserMapperImpl;
+import org.modelmapper.Conditions;
+import org.modelmapper.ModelMapper;
+import org.modelmapper.convention.MatchingStrategies;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the generated mappers from entities to DTOs, the users with growing task sets.
+ * The reflective ModelMapper configuration the generated mappers replaced is measured as the baseline.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class MappingBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Mappers {
+        private final TaskMapper taskMapper = new TaskMapperImpl();
+        private final UserMapper userMapper = new UserMapperImpl(taskMapper);
+        private final ModelMapper modelMapper = createModelMapper();
+
+        private static ModelMapper createModelMapper() {
+            ModelMapper modelMapper = new ModelMapper();
+            modelMapper.getConfiguration().setMatchingStrategy(MatchingStrategies.LOOSE);
+            modelMapper.getConfiguration().setPropertyCondition(Conditions.isNotNull());
+            return modelMapper;
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Task {
+        private TaskEntity entity;
+
+        @Setup
+        public void createEntity() {
+            entity = BenchmarkData.task(1L);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class User {
+        @Param({"0", "10", "1000"})
+        private int tasksPerUser;
+
+        private UserEntity entity;
+
+        @Setup
+        public void createEntity() {
+            entity = BenchmarkData.user(1L, tasksPerUser);
+        }
+    }
+
+    @Benchmark
+    public TaskDto taskToDto(Mappers mappers, Task task) {
+        return mappers.taskMapper.toDto(task.entity);
+    }
+
+    @Benchmark
+    public UserDto userToDto(Mappers mappers, User user) {
+        return mappers.userMapper.toDto(user.entity);
+    }
+
+    @Benchmark
+    public TaskDto taskToDtoWithModelMapper(Mappers mappers, Task task) {
+        return mappers.modelMapper.map(task.entity, TaskDto.class);
+    }
+
+    @Benchmark
+    public UserDto userToDtoWithModelMapper(Mappers mappers, User user) {
+        return mappers.modelMapper.map(user.entity, UserDto.class);
+    }
+}
@@ -0,0 +1,84 @@
+package com.akos.database.jmh;
+
+import com.akos.database.configuration.JacksonConfig;
+import com.akos.database.dtos.UserDto;
+import com.akos.database.mappers.TaskMapperImpl;
+import com.akos.database.mappers.UserMapper;
+import com.akos.database.mappers.UserMapperImpl;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures encoding and decoding a page of users with their tasks in the wire formats of the API:
+ * JSON, CBOR and Smile, with the same modules and date serializers as the application.
+ * The size of the encoded page of every format is printed before the measurement.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class WireFormatBenchmark {
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    @Param({"0", "10"})
+    private int tasksPerUser;
+
+    private ObjectMapper objectMapper;
+    private JavaType pageType;
+    private List<UserDto> page;
+    private byte[] encodedPage;
+
+    @Setup
+    public void createPage() throws IOException {
+        JsonFactory factory = switch (format) {
+            case "cbor" -> new CBORFactory();
+            case "smile" -> new SmileFactory();
+            default -> new JsonFactory();
+        };
+        objectMapper = new ObjectMapper(factory).registerModule(new JacksonConfig().blackbirdModule());
+        pageType = objectMapper.getTypeFactory().constructCollectionType(List.class, UserDto.class);
+
+        UserMapper userMapper = new UserMapperImpl(new TaskMapperImpl());
+        page = new ArrayList<>(PAGE_SIZE);
+        for (long id = 1; id <= PAGE_SIZE; id++) {
+            page.add(userMapper.toDto(BenchmarkData.user(id, tasksPerUser)));
+        }
+        encodedPage = objectMapper.writeValueAsBytes(page);
+        System.out.printf("%n%s page of %d users with %d tasks each: %d bytes%n",
+                format, PAGE_SIZE, tasksPerUser, encodedPage.length);
+    }
+
+    @Benchmark
+    public byte[] encodePage() throws IOException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public List<UserDto> decodePage() throws IOException {
+        return objectMapper.readValue(encodedPage, pageType);
+    }
+}
@@ -2,8 +2,10 @@ package com.akos.database;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
 
-@SpringBootApplication
+// The reactive reads run without transactions, a second transaction manager would make @Transactional ambiguous.
+@SpringBootApplication(exclude = R2dbcTransactionManagerAutoConfiguration.class)
 public class SpringAppApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,103 @@
+package com.akos.database.configuration;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * DataSource which lets at most a fixed number of connections be open at the same time.
+ * A connection takes a permit of a fair semaphore before it is requested from the target and gives it back when it
+ * is closed, so the callers beyond the limit wait in arrival order on the semaphore. Waiting on a semaphore does
+ * not pin a virtual thread, so thousands of waiting requests only cost their parked virtual threads.
+ */
+public class ConnectionLimitingDataSource extends DelegatingDataSource {
+
+    private final Semaphore permits;
+    private final long timeoutNanos;
+
+    /**
+     * @param targetDataSource The DataSource the connections are requested from.
+     * @param maxConnections   The maximum number of connections open at the same time.
+     * @param timeout          How long a caller waits for a permit before the request fails.
+     */
+    public ConnectionLimitingDataSource(DataSource targetDataSource, int maxConnections, Duration timeout) {
+        super(targetDataSource);
+        this.permits = new Semaphore(maxConnections, true);
+        this.timeoutNanos = timeout.toNanos();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquirePermit();
+        try {
+            return releasingOnClose(obtainTargetDataSource().getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquirePermit();
+        try {
+            return releasingOnClose(obtainTargetDataSource().getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * @return The number of connections which can still be opened without waiting.
+     */
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    private void acquirePermit() throws SQLException {
+        try {
+            if (!permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS)) {
+                throw new SQLTransientConnectionException("No connection became available within "
+                        + Duration.ofNanos(timeoutNanos).toMillis() + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a connection", e);
+        }
+    }
+
+    /**
+     * Wraps the connection so that its first close gives the permit back.
+     */
+    private Connection releasingOnClose(Connection connection) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if ("close".equals(method.getName()) && method.getParameterCount() == 0
+                            && released.compareAndSet(false, true)) {
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        } finally {
+                            permits.release();
+                        }
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+}
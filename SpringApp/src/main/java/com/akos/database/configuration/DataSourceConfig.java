@@ -0,0 +1,112 @@
+package com.akos.database.configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+
+/**
+ * Configuration class for routing read-only transactions to a read replica.
+ * It is active only when {@code app.datasource.replica.url} is set, otherwise the auto-configured
+ * DataSource of {@code spring.datasource} is used for everything.
+ * The read-your-writes markers of the clients are bound to their requests by a {@link ReadYourWritesInterceptor}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.replica", name = "url")
+@EnableConfigurationProperties(ReplicaDataSourceProperties.class)
+public class DataSourceConfig implements WebMvcConfigurer {
+
+    private final ObjectProvider<ReadYourWrites> readYourWrites;
+
+    public DataSourceConfig(ObjectProvider<ReadYourWrites> readYourWrites) {
+        this.readYourWrites = readYourWrites;
+    }
+
+    /**
+     * Creates the connection pool of the primary database from the {@code spring.datasource} properties.
+     *
+     * @param properties The properties of the primary database.
+     * @return The pool of the primary database.
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+    }
+
+    /**
+     * Creates the connection pool of the replica, its connections are read-only.
+     *
+     * @param properties The properties of the replica.
+     * @return The pool of the replica.
+     */
+    @Bean
+    @ConfigurationProperties("app.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(ReplicaDataSourceProperties properties) {
+        HikariDataSource replica = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(properties.getUrl())
+                .username(properties.getUsername())
+                .password(properties.getPassword())
+                .build();
+        replica.setPoolName("replica");
+        replica.setReadOnly(true);
+        return replica;
+    }
+
+    /**
+     * Creates the read-your-writes markers of the writers. The clock is the system clock unless a Clock bean is given.
+     *
+     * @param properties The properties of the replica.
+     * @param clock      The Clock bean, if there is one.
+     * @return The read-your-writes markers.
+     */
+    @Bean
+    public ReadYourWrites readYourWrites(ReplicaDataSourceProperties properties, ObjectProvider<Clock> clock) {
+        return new ReadYourWrites(clock.getIfAvailable(Clock::systemUTC), properties.getReadYourWritesWindow());
+    }
+
+    /**
+     * Creates the DataSource used by JPA, Flyway and JDBC, which routes every transaction to one of the pools.
+     * In the virtual-thread mode both pools are gated by their own semaphore.
+     *
+     * @param primaryDataSource The pool of the primary database.
+     * @param replicaDataSource The pool of the replica.
+     * @param readYourWrites    The read-your-writes markers of the writers.
+     * @param environment       The environment telling whether virtual threads are enabled.
+     * @return The routing DataSource.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, HikariDataSource replicaDataSource,
+                                 ReadYourWrites readYourWrites, Environment environment) {
+        boolean virtualThreads = Threading.VIRTUAL.isActive(environment);
+        ReadWriteRoutingDataSource routingDataSource = new ReadWriteRoutingDataSource(
+                virtualThreads ? VirtualThreadsConfig.limitConnections(primaryDataSource) : primaryDataSource,
+                virtualThreads ? VirtualThreadsConfig.limitConnections(replicaDataSource) : replicaDataSource,
+                readYourWrites);
+        routingDataSource.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ReadYourWritesInterceptor(readYourWrites.getObject()));
+    }
+}
@@ -0,0 +1,50 @@
+package com.akos.database.configuration;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class for the caches of the DTOs returned by the services.
+ * The caches are bounded Caffeine caches, only the caches named here exist. They are read through the DtoCache
+ * and evicted through the DtoCacheEvictor of the services, which defers the evictions to the commit.
+ */
+@Configuration
+@EnableConfigurationProperties(DtoCacheProperties.class)
+public class DtoCacheConfig {
+
+    /**
+     * Cache of the task DTOs by task ID.
+     */
+    public static final String TASKS_CACHE = "tasks";
+
+    /**
+     * Cache of the user DTOs by user ID.
+     */
+    public static final String USERS_CACHE = "users";
+
+    /**
+     * Creates the cache manager of the DTO caches.
+     *
+     * @param properties The sizes and the time to live of the caches.
+     * @return The cache manager of the DTO caches.
+     */
+    @Bean
+    public CacheManager cacheManager(DtoCacheProperties properties) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(TASKS_CACHE, Caffeine.newBuilder()
+                .maximumSize(properties.getMaxTasks())
+                .expireAfterWrite(properties.getTimeToLive())
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(USERS_CACHE, Caffeine.newBuilder()
+                .maximumSize(properties.getMaxUsers())
+                .expireAfterWrite(properties.getTimeToLive())
+                .recordStats()
+                .build());
+        return cacheManager;
+    }
+}
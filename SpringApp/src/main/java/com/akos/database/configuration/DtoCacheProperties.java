@@ -0,0 +1,29 @@
+package com.akos.database.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties of the caches of task and user DTOs, bound from {@code app.cache.dto}.
+ */
+@Data
+@ConfigurationProperties("app.cache.dto")
+public class DtoCacheProperties {
+
+    /**
+     * Maximum number of task DTOs kept in the cache.
+     */
+    private long maxTasks = 10_000;
+
+    /**
+     * Maximum number of user DTOs kept in the cache.
+     */
+    private long maxUsers = 10_000;
+
+    /**
+     * How long a DTO is kept after it was written.
+     */
+    private Duration timeToLive = Duration.ofMinutes(5);
+}
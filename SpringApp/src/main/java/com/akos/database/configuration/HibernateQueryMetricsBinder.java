@@ -0,0 +1,96 @@
+package com.akos.database.configuration;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Publishes the executions, the execution time and the returned rows of the HQL queries of the Hibernate statistics,
+ * tagged with the name of the query. A query only appears in the statistics after its first execution, so the new
+ * queries are registered by {@link #registerNewQueries()}, which is called after every request.
+ * The text of a query can be long and the dynamic queries have many variants, so the tag is a short name made of
+ * the entity, the kind and a hash of the text, and at most {@value #MAX_QUERIES} queries are published.
+ * Needs {@code hibernate.generate_statistics}, otherwise no query is recorded.
+ */
+public class HibernateQueryMetricsBinder implements MeterBinder {
+
+    static final int MAX_QUERIES = 200;
+    private static final Pattern ENTITY = Pattern.compile("\\b(?:from|update|into)\\s+([\\w.$]+)",
+            Pattern.CASE_INSENSITIVE);
+
+    private final Statistics statistics;
+    private final Set<String> registeredQueries = ConcurrentHashMap.newKeySet();
+    private volatile MeterRegistry meterRegistry;
+
+    public HibernateQueryMetricsBinder(Statistics statistics) {
+        this.statistics = statistics;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.meterRegistry = registry;
+        registerNewQueries();
+    }
+
+    /**
+     * Registers the meters of the queries which were executed since the last call.
+     */
+    public void registerNewQueries() {
+        MeterRegistry registry = meterRegistry;
+        if (registry == null || !statistics.isStatisticsEnabled() || registeredQueries.size() >= MAX_QUERIES) {
+            return;
+        }
+        for (String query : statistics.getQueries()) {
+            if (!registeredQueries.contains(query)) {
+                register(registry, query);
+            }
+        }
+    }
+
+    /**
+     * Names a query by the entity it reads or writes, its kind and the first 8 hex digits of the MD5 hash of its text,
+     * like {@code TaskEntity.select.1a2b3c4d}.
+     *
+     * @param query The HQL text of the query.
+     * @return The name of the query.
+     */
+    static String nameOf(String query) {
+        String text = query.strip();
+        Matcher entity = ENTITY.matcher(text);
+        String entityName = entity.find() ? entity.group(1).substring(entity.group(1).lastIndexOf('.') + 1) : "query";
+        int endOfKind = text.indexOf(' ');
+        String kind = (endOfKind < 0 ? text : text.substring(0, endOfKind)).toLowerCase();
+        String hash = DigestUtils.md5DigestAsHex(text.getBytes(StandardCharsets.UTF_8)).substring(0, 8);
+        return entityName + "." + kind + "." + hash;
+    }
+
+    private synchronized void register(MeterRegistry registry, String query) {
+        if (registeredQueries.size() >= MAX_QUERIES || !registeredQueries.add(query)) {
+            return;
+        }
+        QueryStatistics queryStatistics = statistics.getQueryStatistics(query);
+        String name = nameOf(query);
+        FunctionTimer.builder("hibernate.query.execution", queryStatistics,
+                        QueryStatistics::getExecutionCount, QueryStatistics::getExecutionTotalTime,
+                        TimeUnit.MILLISECONDS)
+                .description("Executions of the query")
+                .tag("query", name)
+                .register(registry);
+        FunctionCounter.builder("hibernate.query.rows", queryStatistics,
+                        QueryStatistics::getExecutionRowCount)
+                .description("Rows returned by the query")
+                .tag("query", name)
+                .register(registry);
+    }
+}
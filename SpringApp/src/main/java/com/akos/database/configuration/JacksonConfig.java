@@ -0,0 +1,61 @@
+package com.akos.database.configuration;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Configuration class for the ObjectMapper of the application, which reads and writes the DTOs
+ * of the blocking and the reactive API.
+ * <p>
+ * Besides JSON, the controllers read and write the binary CBOR ({@code application/cbor}) and Smile
+ * ({@code application/x-jackson-smile}) encodings, chosen by the {@code Accept} and {@code Content-Type} headers.
+ * Both are built by the same builder as the JSON ObjectMapper, so they use the same modules and the same
+ * serializers of the DTOs, like the ISO dates. JSON stays the default when any type is accepted.
+ * The responses with an ETag vary by {@code Accept}, and their ETag tells the encoding of the body.
+ */
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * Creates the module replacing the reflective getters, setters and constructors of the ObjectMapper
+     * with accessors generated at runtime, which the JIT can inline like direct calls.
+     * Spring Boot registers every Module bean in the ObjectMapper it creates.
+     *
+     * @return The Blackbird module.
+     */
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+
+    /**
+     * Creates the converter of the CBOR requests and responses.
+     * It replaces the default CBOR converter of Spring MVC, which would not use the modules of the application.
+     *
+     * @param builder The builder of the ObjectMapper of the application.
+     * @return The CBOR converter.
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    /**
+     * Creates the converter of the Smile requests and responses.
+     * It replaces the default Smile converter of Spring MVC, which would not use the modules of the application.
+     *
+     * @param builder The builder of the ObjectMapper of the application.
+     * @return The Smile converter.
+     */
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
@@ -0,0 +1,14 @@
+package com.akos.database.configuration;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class for the asynchronous bulk jobs.
+ * The JobService owns the executor of the jobs, it is not a bean, so it does not replace
+ * the task executor of Spring MVC.
+ */
+@Configuration
+@EnableConfigurationProperties(JobProperties.class)
+public class JobConfig {
+}
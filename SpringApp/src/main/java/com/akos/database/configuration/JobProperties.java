@@ -0,0 +1,40 @@
+package com.akos.database.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Configuration properties of the asynchronous bulk jobs, bound from {@code app.jobs}.
+ */
+@Data
+@ConfigurationProperties("app.jobs")
+public class JobProperties {
+
+    /**
+     * Number of jobs run at the same time.
+     */
+    private int threads = 2;
+
+    /**
+     * Maximum number of submitted jobs waiting for a thread, further jobs are rejected.
+     */
+    private int queueCapacity = 100;
+
+    /**
+     * Number of items processed in one transaction.
+     */
+    private int chunkSize = 500;
+
+    /**
+     * Directory keeping the input of the imports until their job is finished.
+     */
+    private Path directory = Path.of(System.getProperty("java.io.tmpdir"), "springapp-jobs");
+
+    /**
+     * How long the running jobs may finish their current chunk when the application is stopped.
+     */
+    private Duration shutdownTimeout = Duration.ofSeconds(10);
+}
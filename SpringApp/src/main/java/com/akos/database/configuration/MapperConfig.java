@@ -1,33 +1,17 @@
 package com.akos.database.configuration;
 
-import org.modelmapper.ModelMapper;
-import org.modelmapper.convention.MatchingStrategies;
-import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Configuration;
+import org.mapstruct.InjectionStrategy;
+import org.mapstruct.MappingConstants;
+import org.mapstruct.ReportingPolicy;
 
 /**
- * Configuration class for setting up a ModelMapper bean.
- * This class provides configuration for creating and customizing the ModelMapper instance.
+ * Shared configuration of the generated mappers.
+ * The mapper implementations are generated at compile time as Spring beans with constructor injection,
+ * and a target property which is neither mapped nor ignored fails the build.
  */
-@Configuration
-public class MapperConfig {
-
-    /**
-     * Creates and configures a ModelMapper bean.
-     * The ModelMapper bean is configured with a LOOSE matching strategy.
-     *
-     * @return A configured ModelMapper instance.
-     */
-    @Bean
-    public ModelMapper modelMapper() {
-        // Create a new ModelMapper instance
-        ModelMapper modelMapper = new ModelMapper();
-
-        // Set the matching strategy to LOOSE
-        modelMapper.getConfiguration().setMatchingStrategy(MatchingStrategies.LOOSE);
-
-        // Return the configured ModelMapper instance
-        return modelMapper;
-    }
+@org.mapstruct.MapperConfig(
+        componentModel = MappingConstants.ComponentModel.SPRING,
+        injectionStrategy = InjectionStrategy.CONSTRUCTOR,
+        unmappedTargetPolicy = ReportingPolicy.ERROR)
+public interface MapperConfig {
 }
-
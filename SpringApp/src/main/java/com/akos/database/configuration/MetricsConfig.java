@@ -0,0 +1,85 @@
+package com.akos.database.configuration;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Configuration class for the application metrics published on the actuator endpoints.
+ * Besides the auto-configured request, Hibernate statistics and connection pool metrics, it times the methods
+ * annotated with {@code @Timed}, publishes the statistics of every HQL query and counts the SQL statements
+ * issued per request.
+ */
+@Configuration
+public class MetricsConfig implements WebMvcConfigurer {
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final ObjectProvider<SqlStatementCounter> sqlStatementCounter;
+    private final ObjectProvider<HibernateQueryMetricsBinder> hibernateQueryMetrics;
+
+    public MetricsConfig(ObjectProvider<MeterRegistry> meterRegistry,
+                         ObjectProvider<SqlStatementCounter> sqlStatementCounter,
+                         ObjectProvider<HibernateQueryMetricsBinder> hibernateQueryMetrics) {
+        this.meterRegistry = meterRegistry;
+        this.sqlStatementCounter = sqlStatementCounter;
+        this.hibernateQueryMetrics = hibernateQueryMetrics;
+    }
+
+    /**
+     * Creates the aspect recording the methods and classes annotated with {@code @Timed}.
+     *
+     * @param meterRegistry The registry of the timers.
+     * @return The aspect.
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    /**
+     * Creates the binder of the per-query metrics of the Hibernate statistics.
+     *
+     * @param entityManagerFactory The JPA EntityManagerFactory.
+     * @return The binder of the query metrics.
+     */
+    @Bean
+    public HibernateQueryMetricsBinder hibernateQueryMetrics(EntityManagerFactory entityManagerFactory) {
+        return new HibernateQueryMetricsBinder(entityManagerFactory.unwrap(SessionFactory.class).getStatistics());
+    }
+
+    /**
+     * Creates the counter of the SQL statements issued by Hibernate.
+     *
+     * @return The statement counter.
+     */
+    @Bean
+    public SqlStatementCounter sqlStatementCounter() {
+        return new SqlStatementCounter();
+    }
+
+    /**
+     * Registers the statement counter as the statement inspector of Hibernate.
+     *
+     * @param sqlStatementCounter The statement counter.
+     * @return The customizer of the Hibernate properties.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatementCounterCustomizer(SqlStatementCounter sqlStatementCounter) {
+        return hibernateProperties -> hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR,
+                sqlStatementCounter);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new SqlStatementMetricsInterceptor(sqlStatementCounter.getObject(),
+                hibernateQueryMetrics.getObject(), meterRegistry.getObject()));
+    }
+}
@@ -0,0 +1,47 @@
+package com.akos.database.configuration;
+
+import org.springframework.boot.web.server.WebServer;
+import org.springframework.context.SmartLifecycle;
+
+/**
+ * The Reactor Netty server of the non-blocking read API, running next to the Tomcat server of the application.
+ * It is started after the other beans and stopped before them, like the web server of the application.
+ */
+public class ReactiveReadServer implements SmartLifecycle {
+
+    private final WebServer webServer;
+    private volatile boolean running;
+
+    /**
+     * Constructs a ReactiveReadServer.
+     *
+     * @param webServer The Netty server, not started yet.
+     */
+    public ReactiveReadServer(WebServer webServer) {
+        this.webServer = webServer;
+    }
+
+    @Override
+    public void start() {
+        webServer.start();
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        webServer.stop();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * @return The port the server listens on, the actual one when it was configured as 0.
+     */
+    public int getPort() {
+        return webServer.getPort();
+    }
+}
@@ -0,0 +1,43 @@
+package com.akos.database.configuration;
+
+import com.akos.database.controllers.ReactiveReadRoutes;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+
+/**
+ * Configuration class for the non-blocking read API.
+ * The application stays a servlet application, the reactive routes are served by a separate Reactor Netty server,
+ * which writes a response only as fast as the client reads it and requests the next elements accordingly.
+ * The reads use the R2DBC connection pool configured by {@code spring.r2dbc}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.reactive", name = "enabled", matchIfMissing = true)
+@EnableConfigurationProperties(ReactiveServerProperties.class)
+public class ReactiveServerConfig {
+
+    /**
+     * Creates the Netty server of the read API, the DTOs are written with the ObjectMapper of the application.
+     *
+     * @param routes       The routes of the read API.
+     * @param objectMapper The ObjectMapper of the application.
+     * @param properties   The port of the server.
+     * @return The server, started with the application context.
+     */
+    @Bean
+    public ReactiveReadServer reactiveReadServer(ReactiveReadRoutes routes, ObjectMapper objectMapper,
+                                                 ReactiveServerProperties properties) {
+        HandlerStrategies strategies = HandlerStrategies.builder()
+                .codecs(codecs -> codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper)))
+                .build();
+        NettyReactiveWebServerFactory serverFactory = new NettyReactiveWebServerFactory(properties.getPort());
+        return new ReactiveReadServer(
+                serverFactory.getWebServer(RouterFunctions.toHttpHandler(routes.routes(), strategies)));
+    }
+}
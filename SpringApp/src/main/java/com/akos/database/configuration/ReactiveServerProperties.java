@@ -0,0 +1,22 @@
+package com.akos.database.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties of the reactive read server, bound from {@code app.reactive}.
+ */
+@Data
+@ConfigurationProperties("app.reactive")
+public class ReactiveServerProperties {
+
+    /**
+     * Whether the non-blocking read API is served.
+     */
+    private boolean enabled = true;
+
+    /**
+     * The port of the non-blocking read API, 0 picks a free port.
+     */
+    private int port = 8085;
+}
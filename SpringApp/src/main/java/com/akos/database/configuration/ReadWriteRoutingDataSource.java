@@ -0,0 +1,63 @@
+package com.akos.database.configuration;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * DataSource routing read-only transactions to the replica and everything else to the primary.
+ * The transaction is known only after it has begun, so this DataSource has to be wrapped
+ * in a LazyConnectionDataSourceProxy, which fetches the connection at the first statement.
+ * <p>
+ * After a read-write transaction is committed, the reads of the same writer stay on the primary for the
+ * read-your-writes window, until the replica has caught up with the write, see {@link ReadYourWrites}.
+ * The reads which fill a shared cache are served by the primary as well.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    /**
+     * The keys of the target DataSources.
+     */
+    enum Route {
+        PRIMARY,
+        REPLICA
+    }
+
+    private final ReadYourWrites readYourWrites;
+
+    /**
+     * Constructs a ReadWriteRoutingDataSource.
+     *
+     * @param primary              The DataSource of the primary database, used for writes.
+     * @param replica              The DataSource of the replica, used for read-only transactions.
+     * @param readYourWrites The read-your-writes markers of the writers.
+     */
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReadYourWrites readYourWrites) {
+        this.readYourWrites = readYourWrites;
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            registerWriteCommit();
+            return Route.PRIMARY;
+        }
+        return readYourWrites.isWithinWindow() || readYourWrites.isPrimaryRequired() ? Route.PRIMARY : Route.REPLICA;
+    }
+
+    private void registerWriteCommit() {
+        if (!readYourWrites.getWindow().isZero() && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    readYourWrites.registerCommit();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.akos.database.configuration;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Read-your-writes marker of the writer served by the current thread: the instant until which its reads stay on
+ * the primary. A request carries the marker of its client in a cookie, see {@link ReadYourWritesInterceptor},
+ * on the other threads, like the job workers, the writer is the thread itself.
+ * So a write only keeps the reads of its own writer on the primary, the other clients keep reading the replica.
+ */
+public class ReadYourWrites {
+
+    private final Clock clock;
+    private final Duration window;
+    private final ThreadLocal<Instant> primaryUntil = new ThreadLocal<>();
+    private final ThreadLocal<Consumer<Instant>> commitListener = new ThreadLocal<>();
+    private final ThreadLocal<Boolean> primaryRequired = new ThreadLocal<>();
+
+    /**
+     * Constructs a ReadYourWrites.
+     *
+     * @param clock  The clock telling when a write was committed.
+     * @param window How long the reads of a writer stay on the primary after its write was committed.
+     */
+    public ReadYourWrites(Clock clock, Duration window) {
+        this.clock = clock;
+        this.window = window;
+    }
+
+    /**
+     * @return How long the reads of a writer stay on the primary after its write was committed.
+     */
+    public Duration getWindow() {
+        return window;
+    }
+
+    /**
+     * Tells whether the reads of the current writer have to be served by the primary.
+     *
+     * @return True while the window of the last committed write of the writer is open.
+     */
+    public boolean isWithinWindow() {
+        Instant until = primaryUntil.get();
+        return until != null && clock.instant().isBefore(until);
+    }
+
+    /**
+     * Tells whether the current thread runs reads which have to be served by the primary whatever its window.
+     *
+     * @return True within {@link #onPrimary(Supplier)}.
+     */
+    public boolean isPrimaryRequired() {
+        return primaryRequired.get() != null;
+    }
+
+    /**
+     * Runs reads which must not see the lag of the replica, like the loads of a cache shared by every client.
+     * A read-only transaction is served by the primary if it fetches its connection within these reads.
+     *
+     * @param reads The reads.
+     * @param <T>   The type of the result.
+     * @return The result of the reads.
+     */
+    public <T> T onPrimary(Supplier<T> reads) {
+        if (isPrimaryRequired()) {
+            return reads.get();
+        }
+        primaryRequired.set(Boolean.TRUE);
+        try {
+            return reads.get();
+        } finally {
+            primaryRequired.remove();
+        }
+    }
+
+    /**
+     * Opens the window of the current writer, called after one of its read-write transactions was committed.
+     */
+    public void registerCommit() {
+        if (window.isZero()) {
+            return;
+        }
+        Instant until = clock.instant().plus(window);
+        primaryUntil.set(until);
+        Consumer<Instant> listener = commitListener.get();
+        if (listener != null) {
+            listener.accept(until);
+        }
+    }
+
+    /**
+     * Makes the current thread serve a writer until {@link #unbind()} is called.
+     * A marker further in the future than a whole window was not issued by this application and is ignored.
+     *
+     * @param until    The instant until which the reads of the writer stay on the primary, or null if unknown.
+     * @param onCommit Receives the new marker of the writer when one of its writes is committed.
+     */
+    public void bind(Instant until, Consumer<Instant> onCommit) {
+        if (until != null && until.isAfter(clock.instant().plus(window))) {
+            until = null;
+        }
+        primaryUntil.set(until);
+        commitListener.set(onCommit);
+    }
+
+    /**
+     * Forgets the writer served by the current thread.
+     */
+    public void unbind() {
+        primaryUntil.remove();
+        commitListener.remove();
+    }
+}
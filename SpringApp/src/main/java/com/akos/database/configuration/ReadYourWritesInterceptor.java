@@ -0,0 +1,69 @@
+package com.akos.database.configuration;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.util.WebUtils;
+
+import java.time.Instant;
+
+/**
+ * Binds the read-your-writes marker of the client to the thread handling its request. The marker travels in the
+ * {@value #COOKIE_NAME} cookie, holding the epoch milliseconds until which the reads of the client stay on the
+ * primary. It is set on the response of every request whose write is committed before the response is sent.
+ */
+public class ReadYourWritesInterceptor implements AsyncHandlerInterceptor {
+
+    static final String COOKIE_NAME = "read-your-writes-until";
+
+    private final ReadYourWrites readYourWrites;
+
+    public ReadYourWritesInterceptor(ReadYourWrites readYourWrites) {
+        this.readYourWrites = readYourWrites;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        readYourWrites.bind(readMarker(request), until -> writeMarker(response, until));
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        readYourWrites.unbind();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        readYourWrites.unbind();
+    }
+
+    private static Instant readMarker(HttpServletRequest request) {
+        Cookie cookie = WebUtils.getCookie(request, COOKIE_NAME);
+        if (cookie == null) {
+            return null;
+        }
+        try {
+            return Instant.ofEpochMilli(Long.parseLong(cookie.getValue()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private void writeMarker(HttpServletResponse response, Instant until) {
+        if (response.isCommitted()) {
+            return;
+        }
+        ResponseCookie cookie = ResponseCookie.from(COOKIE_NAME, String.valueOf(until.toEpochMilli()))
+                .path("/")
+                .httpOnly(true)
+                .maxAge(readYourWrites.getWindow().plusMillis(999).toSeconds())
+                .build();
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+    }
+}
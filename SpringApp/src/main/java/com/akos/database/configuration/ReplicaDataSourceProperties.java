@@ -0,0 +1,36 @@
+package com.akos.database.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties of the read replica, bound from {@code app.datasource.replica}.
+ * The pool of the replica can be tuned under {@code app.datasource.replica.hikari}.
+ */
+@Data
+@ConfigurationProperties("app.datasource.replica")
+public class ReplicaDataSourceProperties {
+
+    /**
+     * JDBC URL of the replica. Read-only transactions are routed to the replica only when it is set.
+     */
+    private String url;
+
+    /**
+     * Login username of the replica.
+     */
+    private String username;
+
+    /**
+     * Login password of the replica.
+     */
+    private String password;
+
+    /**
+     * How long the read-only transactions of a client keep using the primary after one of its writes was committed.
+     * It should cover the replication lag, so a client reads back its own writes. Zero turns it off.
+     */
+    private Duration readYourWritesWindow = Duration.ofSeconds(1);
+}
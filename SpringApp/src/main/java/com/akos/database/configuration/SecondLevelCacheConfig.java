@@ -0,0 +1,77 @@
+package com.akos.database.configuration;
+
+import com.akos.database.entities.TaskEntity;
+import com.akos.database.entities.UserEntity;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import java.util.OptionalLong;
+
+/**
+ * Configuration class for the regions of the Hibernate second-level cache.
+ * Every region is a bounded, local Caffeine cache, Hibernate fails on startup if a cached entity
+ * or collection has no region configured here.
+ */
+@Configuration
+@EnableConfigurationProperties(SecondLevelCacheProperties.class)
+public class SecondLevelCacheConfig {
+
+    /**
+     * Region of the tasks.
+     */
+    public static final String TASK_REGION = TaskEntity.class.getName();
+
+    /**
+     * Region of the users.
+     */
+    public static final String USER_REGION = UserEntity.class.getName();
+
+    /**
+     * Region of the task IDs of the users, the USERS_TASKS association.
+     */
+    public static final String USER_TASKS_REGION = UserEntity.class.getName() + ".tasks";
+
+    /**
+     * Creates the cache manager holding the regions.
+     * A new caching provider is used, so every application context gets its own cache manager.
+     *
+     * @param properties The sizes and the time to live of the regions.
+     * @return The cache manager of the second-level cache.
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager secondLevelCacheManager(SecondLevelCacheProperties properties) {
+        CacheManager cacheManager = new CaffeineCachingProvider().getCacheManager();
+        createRegion(cacheManager, TASK_REGION, properties.getMaxTasks(), properties);
+        createRegion(cacheManager, USER_REGION, properties.getMaxUsers(), properties);
+        createRegion(cacheManager, USER_TASKS_REGION, properties.getMaxUserTasks(), properties);
+        return cacheManager;
+    }
+
+    /**
+     * Hands the cache manager over to Hibernate.
+     *
+     * @param secondLevelCacheManager The cache manager of the second-level cache.
+     * @return The customizer of the Hibernate properties.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager secondLevelCacheManager) {
+        return hibernateProperties -> hibernateProperties.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+    }
+
+    private static void createRegion(CacheManager cacheManager, String region, long maximumSize,
+                                     SecondLevelCacheProperties properties) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maximumSize));
+        configuration.setExpireAfterWrite(OptionalLong.of(properties.getTimeToLive().toNanos()));
+        // Hibernate stores immutable entries, copying them on every read and write would only cost time
+        configuration.setStoreByValue(false);
+        configuration.setStatisticsEnabled(true);
+        cacheManager.createCache(region, configuration);
+    }
+}
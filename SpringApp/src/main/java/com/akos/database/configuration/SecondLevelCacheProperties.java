@@ -0,0 +1,35 @@
+package com.akos.database.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties of the Hibernate second-level cache, bound from {@code app.cache.second-level}.
+ */
+@Data
+@ConfigurationProperties("app.cache.second-level")
+public class SecondLevelCacheProperties {
+
+    /**
+     * Maximum number of tasks kept in the cache.
+     */
+    private long maxTasks = 10_000;
+
+    /**
+     * Maximum number of users kept in the cache.
+     */
+    private long maxUsers = 10_000;
+
+    /**
+     * Maximum number of task collections of users kept in the cache.
+     */
+    private long maxUserTasks = 10_000;
+
+    /**
+     * How long an entry is kept after it was written. It bounds how long another instance
+     * of the application, which does not see the writes of this one, may serve stale data.
+     */
+    private Duration timeToLive = Duration.ofMinutes(10);
+}
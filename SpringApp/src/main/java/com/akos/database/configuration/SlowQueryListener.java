@@ -0,0 +1,127 @@
+package com.akos.database.configuration;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Hands the statements running longer than the threshold over to the slow-query log.
+ * Runs on the thread executing the statement, so it only collects what the log needs: the SQL, the bound
+ * parameters and the outermost service method on the stack. Formatting, EXPLAIN and writing happen on the
+ * thread of the log. The same statement is logged at most {@code maxPerStatement} times per sampling window.
+ */
+final class SlowQueryListener implements QueryExecutionListener {
+
+    private static final String SERVICES_PACKAGE = "com.akos.database.services.";
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+    private static final int MAX_SAMPLED_STATEMENTS = 10_000;
+    private static final Comparator<ParameterSetOperation> BY_PARAMETER_INDEX = Comparator.comparingInt(
+            operation -> operation.getArgs()[0] instanceof Number index ? index.intValue() : Integer.MAX_VALUE);
+
+    private final SlowQueryLog slowQueryLog;
+    private final DataSource explainDataSource;
+    private final long thresholdMillis;
+    private final long samplingWindowNanos;
+    private final int maxPerStatement;
+    private final Map<String, Sample> samples = new ConcurrentHashMap<>();
+
+    /**
+     * @param slowQueryLog The log the slow statements are handed over to.
+     * @param properties   The threshold and the sampling of the log.
+     * @param dataSource   The DataSource before proxying, used to run EXPLAIN if it is enabled.
+     */
+    SlowQueryListener(SlowQueryLog slowQueryLog, SlowQueryLogProperties properties, DataSource dataSource) {
+        this.slowQueryLog = slowQueryLog;
+        this.explainDataSource = properties.isExplain() ? dataSource : null;
+        this.thresholdMillis = properties.getThreshold().toMillis();
+        this.samplingWindowNanos = properties.getSamplingWindow().toNanos();
+        this.maxPerStatement = properties.getMaxPerStatement();
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (execInfo.getElapsedTime() < thresholdMillis || queryInfoList.isEmpty()) {
+            return;
+        }
+        String sql = queryInfoList.size() == 1
+                ? queryInfoList.get(0).getQuery()
+                : queryInfoList.stream().map(QueryInfo::getQuery).collect(Collectors.joining("; "));
+        long suppressed = sample(sql);
+        if (suppressed < 0) {
+            return;
+        }
+        slowQueryLog.submit(new SlowQueryLog.SlowQuery(sql, parameters(queryInfoList),
+                execInfo.isBatch() ? execInfo.getBatchSize() : 0, execInfo.getElapsedTime(), execInfo.isSuccess(),
+                originatingServiceMethod(), suppressed, explainDataSource));
+    }
+
+    /**
+     * @return The number of occurrences suppressed since the statement was last logged,
+     * or -1 if this occurrence is suppressed as well.
+     */
+    private long sample(String sql) {
+        if (samples.size() > MAX_SAMPLED_STATEMENTS) {
+            samples.clear();
+        }
+        return samples.computeIfAbsent(sql, key -> new Sample()).admit(System.nanoTime());
+    }
+
+    /**
+     * The parameters of the first parameter set, ordered by index. A batch is logged with its first row.
+     */
+    private static List<ParameterSetOperation> parameters(List<QueryInfo> queryInfoList) {
+        if (queryInfoList.size() != 1 || queryInfoList.get(0).getParametersList().isEmpty()) {
+            return List.of();
+        }
+        List<ParameterSetOperation> parameters = new ArrayList<>(queryInfoList.get(0).getParametersList().get(0));
+        parameters.sort(BY_PARAMETER_INDEX);
+        return parameters;
+    }
+
+    /**
+     * The outermost method of a service on the stack, skipping the Spring proxies, e.g. {@code TaskService.findById}.
+     */
+    private static String originatingServiceMethod() {
+        return STACK_WALKER.walk(frames -> frames
+                .filter(frame -> frame.getClassName().startsWith(SERVICES_PACKAGE)
+                        && !frame.getClassName().contains("$$"))
+                .reduce((inner, outer) -> outer)
+                .map(frame -> frame.getClassName().substring(SERVICES_PACKAGE.length()) + "." + frame.getMethodName())
+                .orElse("-"));
+    }
+
+    private final class Sample {
+
+        private long windowStart;
+        private int logged;
+        private long suppressed;
+
+        synchronized long admit(long now) {
+            if (logged == 0 || now - windowStart >= samplingWindowNanos) {
+                windowStart = now;
+                logged = 0;
+            }
+            if (logged < maxPerStatement) {
+                logged++;
+                long suppressedBefore = suppressed;
+                suppressed = 0;
+                return suppressedBefore;
+            }
+            suppressed++;
+            return -1;
+        }
+    }
+}
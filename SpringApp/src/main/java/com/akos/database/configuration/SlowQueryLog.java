@@ -0,0 +1,157 @@
+package com.akos.database.configuration;
+
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.temporal.Temporal;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes the slow statements reported by {@link SlowQueryListener} as warnings of this logger.
+ * The statements are queued and written by a single background thread, so neither formatting, nor EXPLAIN,
+ * nor the appenders of the logger ever block the thread running the statement. When the queue is full the
+ * statement is dropped, and the number of dropped statements is reported with the next written one.
+ */
+public class SlowQueryLog implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SlowQueryLog.class);
+
+    private final int maxParameterLength;
+    private final ThreadPoolExecutor writer;
+    private final AtomicLong dropped = new AtomicLong();
+
+    public SlowQueryLog(SlowQueryLogProperties properties) {
+        this.maxParameterLength = properties.getMaxParameterLength();
+        this.writer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "slow-query-log");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, executor) -> dropped.incrementAndGet());
+    }
+
+    /**
+     * Queues a slow statement for writing, or drops it if the queue is full.
+     *
+     * @param slowQuery The slow statement.
+     */
+    void submit(SlowQuery slowQuery) {
+        writer.execute(() -> write(slowQuery));
+    }
+
+    /**
+     * Writes the statements still queued, waiting at most five seconds.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        writer.shutdown();
+        writer.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    private void write(SlowQuery slowQuery) {
+        StringBuilder message = new StringBuilder()
+                .append("Slow statement took ").append(slowQuery.elapsedMillis()).append(" ms")
+                .append(" in ").append(slowQuery.origin())
+                .append(slowQuery.success() ? "" : " and failed")
+                .append(": ").append(slowQuery.sql());
+        if (!slowQuery.parameters().isEmpty()) {
+            message.append(" | parameters ").append(formatParameters(slowQuery.parameters()));
+        }
+        if (slowQuery.batchSize() > 0) {
+            message.append(" | batch of ").append(slowQuery.batchSize());
+        }
+        if (slowQuery.suppressed() > 0) {
+            message.append(" | ").append(slowQuery.suppressed()).append(" earlier occurrences not logged");
+        }
+        long droppedBefore = dropped.getAndSet(0);
+        if (droppedBefore > 0) {
+            message.append(" | ").append(droppedBefore).append(" slow statements dropped, the queue was full");
+        }
+        if (slowQuery.explainDataSource() != null && slowQuery.batchSize() == 0 && isQuery(slowQuery.sql())) {
+            message.append(System.lineSeparator()).append(explain(slowQuery));
+        }
+        LOGGER.warn(message.toString());
+    }
+
+    private String formatParameters(List<ParameterSetOperation> parameters) {
+        StringBuilder formatted = new StringBuilder("[");
+        for (ParameterSetOperation parameter : parameters) {
+            Object[] args = parameter.getArgs();
+            if (formatted.length() > 1) {
+                formatted.append(", ");
+            }
+            formatted.append(args[0]).append('=');
+            if (ParameterSetOperation.isSetNullParameterOperation(parameter) || args.length < 2 || args[1] == null) {
+                formatted.append("null");
+            } else if (args[1] instanceof byte[] bytes) {
+                formatted.append('<').append(bytes.length).append(" bytes>");
+            } else if (args[1] instanceof CharSequence || args[1] instanceof Date
+                    || args[1] instanceof Temporal) {
+                formatted.append('\'').append(truncate(args[1].toString())).append('\'');
+            } else {
+                formatted.append(truncate(args[1].toString()));
+            }
+        }
+        return formatted.append(']').toString();
+    }
+
+    private String truncate(String value) {
+        return value.length() <= maxParameterLength ? value : value.substring(0, maxParameterLength) + "...";
+    }
+
+    private static boolean isQuery(String sql) {
+        String statement = sql.stripLeading();
+        return statement.regionMatches(true, 0, "select", 0, 6) || statement.regionMatches(true, 0, "with", 0, 4);
+    }
+
+    /**
+     * Runs EXPLAIN for the statement on its own connection, binding the parameters with the same setters.
+     */
+    private static String explain(SlowQuery slowQuery) {
+        try (Connection connection = slowQuery.explainDataSource().getConnection();
+             PreparedStatement explain = connection.prepareStatement("EXPLAIN " + slowQuery.sql())) {
+            for (ParameterSetOperation parameter : slowQuery.parameters()) {
+                parameter.getMethod().invoke(explain, parameter.getArgs());
+            }
+            StringBuilder plan = new StringBuilder("plan:");
+            try (ResultSet resultSet = explain.executeQuery()) {
+                while (resultSet.next()) {
+                    plan.append(System.lineSeparator()).append(resultSet.getString(1));
+                }
+            }
+            return plan.toString();
+        } catch (SQLException | IllegalAccessException | InvocationTargetException e) {
+            return "plan: EXPLAIN failed: " + e.getMessage();
+        }
+    }
+
+    /**
+     * A statement which ran longer than the threshold.
+     *
+     * @param sql               The SQL of the statement, the statements of a batch are joined with semicolons.
+     * @param parameters        The bound parameters ordered by index, of the first row of a batch.
+     * @param batchSize         The number of rows of a batch, 0 if the statement was not batched.
+     * @param elapsedMillis     The execution time.
+     * @param success           Whether the statement succeeded.
+     * @param origin            The service method which issued the statement, {@code -} if it is unknown.
+     * @param suppressed        The number of occurrences not logged since the last logged one.
+     * @param explainDataSource The DataSource to run EXPLAIN on, null if EXPLAIN is disabled.
+     */
+    record SlowQuery(String sql, List<ParameterSetOperation> parameters, int batchSize, long elapsedMillis,
+                     boolean success, String origin, long suppressed, DataSource explainDataSource) {
+    }
+}
@@ -0,0 +1,59 @@
+package com.akos.database.configuration;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Configuration class for the slow-query log.
+ * The DataSource used by JPA, Flyway and JDBC is wrapped into a proxy timing every statement,
+ * the connection pools behind it are left untouched.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.slow-query-log", name = "enabled", matchIfMissing = true)
+@EnableConfigurationProperties(SlowQueryLogProperties.class)
+public class SlowQueryLogConfig {
+
+    private static final String DATA_SOURCE_BEAN = "dataSource";
+
+    /**
+     * Creates the log writing the slow statements on its own thread.
+     *
+     * @param properties The threshold, the sampling and the queue of the log.
+     * @return The slow-query log.
+     */
+    @Bean(destroyMethod = "close")
+    public SlowQueryLog slowQueryLog(SlowQueryLogProperties properties) {
+        return new SlowQueryLog(properties);
+    }
+
+    /**
+     * Wraps the {@code dataSource} bean into a proxy reporting its slow statements to the slow-query log.
+     * Static, as post-processors are created before the other beans of the configuration.
+     *
+     * @param slowQueryLog The slow-query log.
+     * @param properties   The properties of the slow-query log.
+     * @return The post-processor of the DataSource.
+     */
+    @Bean
+    public static BeanPostProcessor slowQueryLogDataSourceProxy(ObjectProvider<SlowQueryLog> slowQueryLog,
+                                                               ObjectProvider<SlowQueryLogProperties> properties) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || !DATA_SOURCE_BEAN.equals(beanName)) {
+                    return bean;
+                }
+                return ProxyDataSourceBuilder.create(beanName, dataSource)
+                        .listener(new SlowQueryListener(slowQueryLog.getObject(), properties.getObject(), dataSource))
+                        .build();
+            }
+        };
+    }
+}
@@ -0,0 +1,50 @@
+package com.akos.database.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties of the slow-query log, bound from {@code app.slow-query-log}.
+ */
+@Data
+@ConfigurationProperties("app.slow-query-log")
+public class SlowQueryLogProperties {
+
+    /**
+     * Whether the statements of the DataSource are timed and the slow ones are logged.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Statements running at least this long are logged.
+     */
+    private Duration threshold = Duration.ofMillis(200);
+
+    /**
+     * Whether the execution plan of a slow SELECT statement is captured with EXPLAIN and logged with it.
+     */
+    private boolean explain = false;
+
+    /**
+     * How many times the same statement is logged at most within a sampling window,
+     * further occurrences are only counted and reported with the next logged one.
+     */
+    private int maxPerStatement = 10;
+
+    /**
+     * Length of the sampling window of a statement.
+     */
+    private Duration samplingWindow = Duration.ofMinutes(1);
+
+    /**
+     * Maximum number of slow statements waiting to be written, further statements are dropped.
+     */
+    private int queueCapacity = 1_000;
+
+    /**
+     * Bound parameter values longer than this are truncated in the log.
+     */
+    private int maxParameterLength = 100;
+}
@@ -0,0 +1,39 @@
+package com.akos.database.configuration;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread while counting is started.
+ * Statements run by JdbcTemplate directly are not seen by Hibernate and are not counted.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private final ThreadLocal<int[]> count = new ThreadLocal<>();
+
+    /**
+     * Starts counting the statements of the current thread from zero.
+     */
+    public void start() {
+        count.set(new int[1]);
+    }
+
+    /**
+     * Stops counting on the current thread.
+     *
+     * @return The number of statements since {@link #start()}, or -1 if counting was not started.
+     */
+    public int stop() {
+        int[] statements = count.get();
+        count.remove();
+        return statements == null ? -1 : statements[0];
+    }
+
+    @Override
+    public String inspect(String sql) {
+        int[] statements = count.get();
+        if (statements != null) {
+            statements[0]++;
+        }
+        return sql;
+    }
+}
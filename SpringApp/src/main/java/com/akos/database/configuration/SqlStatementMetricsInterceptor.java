@@ -0,0 +1,63 @@
+package com.akos.database.configuration;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Records the number of SQL statements Hibernate issued while handling a request, per method and URI template,
+ * as the {@code http.server.requests.sql} distribution summary.
+ * The statements of a streamed response body run on another thread after the handler returned and are not counted.
+ * After every request the queries which ran for the first time get their meters registered.
+ */
+public class SqlStatementMetricsInterceptor implements AsyncHandlerInterceptor {
+
+    static final String METRIC_NAME = "http.server.requests.sql";
+    private static final double[] STATEMENT_BUCKETS = {1, 2, 5, 10, 20, 50, 100};
+
+    private final SqlStatementCounter sqlStatementCounter;
+    private final HibernateQueryMetricsBinder hibernateQueryMetrics;
+    private final MeterRegistry meterRegistry;
+
+    public SqlStatementMetricsInterceptor(SqlStatementCounter sqlStatementCounter,
+                                          HibernateQueryMetricsBinder hibernateQueryMetrics,
+                                          MeterRegistry meterRegistry) {
+        this.sqlStatementCounter = sqlStatementCounter;
+        this.hibernateQueryMetrics = hibernateQueryMetrics;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        sqlStatementCounter.start();
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        sqlStatementCounter.stop();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        hibernateQueryMetrics.registerNewQueries();
+        int statements = sqlStatementCounter.stop();
+        if (statements < 0) {
+            return;
+        }
+        Object uri = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        DistributionSummary.builder(METRIC_NAME)
+                .description("SQL statements issued by Hibernate per request")
+                .baseUnit("statements")
+                .tag("method", request.getMethod())
+                .tag("uri", uri == null ? "UNKNOWN" : uri.toString())
+                .serviceLevelObjectives(STATEMENT_BUCKETS)
+                .register(meterRegistry)
+                .record(statements);
+    }
+}
@@ -0,0 +1,72 @@
+package com.akos.database.configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.PriorityOrdered;
+
+import java.time.Duration;
+
+/**
+ * Configuration class for the virtual-thread mode, active when {@code spring.threads.virtual.enabled} is set
+ * and the application runs on Java 21 or newer. Tomcat then serves every request, service calls included, on a
+ * virtual thread of its own, so the number of requests in progress is no longer capped by the size of the Tomcat
+ * thread pool. The connection pools become the limit instead: each pool is gated by a semaphore with as many
+ * permits as the pool has connections, see {@link ConnectionLimitingDataSource}.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadsConfig {
+
+    private static final String DATA_SOURCE_BEAN = "dataSource";
+
+    /**
+     * Gates the auto-configured connection pool. The pools of the read replica routing are gated by
+     * {@link DataSourceConfig} itself, as they are injected there by their type.
+     * Static, as post-processors are created before the other beans of the configuration.
+     *
+     * @return The post-processor of the DataSource.
+     */
+    @Bean
+    public static ConnectionLimitingPostProcessor connectionLimitingDataSource() {
+        return new ConnectionLimitingPostProcessor();
+    }
+
+    /**
+     * Gates a connection pool with as many permits as it has connections. A caller waits for a permit
+     * as long as it would wait for a connection of the pool.
+     *
+     * @param pool The connection pool.
+     * @return The gated pool.
+     */
+    static ConnectionLimitingDataSource limitConnections(HikariDataSource pool) {
+        return new ConnectionLimitingDataSource(pool, pool.getMaximumPoolSize(),
+                Duration.ofMillis(pool.getConnectionTimeout()));
+    }
+
+    /**
+     * Post-processor gating the {@code dataSource} bean when it is a connection pool. It runs before every
+     * post-processor which is not {@link PriorityOrdered}, so it still sees the pool itself when another one,
+     * like the proxy of the slow-query log, wraps the DataSource too. The declared type of the bean method tells
+     * the bean factory about the order before the post-processor is created.
+     */
+    static final class ConnectionLimitingPostProcessor implements BeanPostProcessor, PriorityOrdered {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof HikariDataSource pool && DATA_SOURCE_BEAN.equals(beanName)) {
+                return limitConnections(pool);
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.akos.database.controllers;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Helper class converting between the version tags of the services and the entity tags of HTTP.
+ * <p>
+ * A DTO is written as JSON, CBOR or Smile depending on the Accept header, and a strong entity tag must differ
+ * between the representations. The tag of JSON is the bare version tag, the tags of the binary encodings carry
+ * the name of the encoding after the version tag.
+ */
+final class EntityTags {
+
+    /**
+     * The binary encodings of the DTOs with the suffixes of their entity tags, JSON has no suffix.
+     */
+    private static final Map<MediaType, String> BINARY_ENCODINGS = Map.of(
+            MediaType.APPLICATION_CBOR, "cbor",
+            new MediaType("application", "x-jackson-smile"), "smile");
+    private static final char ENCODING_SEPARATOR = '-';
+
+    private EntityTags() {
+    }
+
+    /**
+     * Converts a version tag into a strong entity tag.
+     *
+     * @param versionTag The version tag of a task or user.
+     * @return The quoted entity tag.
+     */
+    static String of(String versionTag) {
+        return "\"" + versionTag + "\"";
+    }
+
+    /**
+     * Converts a version tag into the strong entity tag of the representation chosen by an Accept header.
+     *
+     * @param versionTag The version tag of a task or user.
+     * @param accept     The value of the Accept header, may be null.
+     * @return The quoted entity tag of the representation.
+     */
+    static String of(String versionTag, String accept) {
+        String encoding = BINARY_ENCODINGS.get(representationOf(accept));
+        return encoding == null ? of(versionTag) : of(versionTag + ENCODING_SEPARATOR + encoding);
+    }
+
+    /**
+     * Extracts the expected version tag from an If-Match header.
+     * If-Match uses the strong comparison, so a weak entity tag is kept as it is and never matches.
+     * The tag of any representation matches its version.
+     *
+     * @param ifMatch The value of the If-Match header, may be null.
+     * @return The expected version tag, or null if the header is missing or matches any version.
+     */
+    static String versionTagOf(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String entityTag = ifMatch.trim();
+        if (entityTag.length() >= 2 && entityTag.startsWith("\"") && entityTag.endsWith("\"")) {
+            String versionTag = entityTag.substring(1, entityTag.length() - 1);
+            for (String encoding : BINARY_ENCODINGS.values()) {
+                if (versionTag.endsWith(ENCODING_SEPARATOR + encoding)) {
+                    return versionTag.substring(0, versionTag.length() - encoding.length() - 1);
+                }
+            }
+            return versionTag;
+        }
+        return entityTag;
+    }
+
+    /**
+     * Tells which representation is written for an Accept header, like the message converters choose it:
+     * the most specific and preferred accepted type wins, and JSON is written when any type is accepted.
+     */
+    private static MediaType representationOf(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return MediaType.APPLICATION_JSON;
+        }
+        List<MediaType> acceptedTypes;
+        try {
+            acceptedTypes = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (InvalidMediaTypeException e) {
+            return MediaType.APPLICATION_JSON;
+        }
+        MimeTypeUtils.sortBySpecificity(acceptedTypes);
+        for (MediaType acceptedType : acceptedTypes) {
+            if (acceptedType.getQualityValue() == 0) {
+                continue;
+            }
+            if (acceptedType.includes(MediaType.APPLICATION_JSON)) {
+                return MediaType.APPLICATION_JSON;
+            }
+            for (MediaType encoding : BINARY_ENCODINGS.keySet()) {
+                if (acceptedType.includes(encoding)) {
+                    return encoding;
+                }
+            }
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+}
@@ -0,0 +1,110 @@
+package com.akos.database.controllers;
+
+import com.akos.database.dtos.JobDto;
+import com.akos.database.entities.TaskState;
+import com.akos.database.services.JobService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.NoSuchElementException;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Controller class for the asynchronous bulk jobs.
+ * A submitted job is answered with 202 Accepted and the location of the job, which is polled for its progress.
+ * A job is answered with 503 Service Unavailable when too many jobs are already waiting.
+ */
+@RestController
+@RequestMapping("/jobs")
+public class JobController {
+
+    private final JobService jobService;
+
+    /**
+     * Constructs a new JobController with the specified JobService.
+     *
+     * @param jobService The JobService used for submitting and polling the jobs.
+     */
+    public JobController(JobService jobService) {
+        this.jobService = jobService;
+    }
+
+    /**
+     * Retrieves a job with its progress, counts and errors.
+     *
+     * @param id The ID of the job.
+     * @return ResponseEntity containing the JobDto or an error response.
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<JobDto> getJob(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(jobService.findById(id));
+        } catch (NoSuchElementException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Job not found", e);
+        }
+    }
+
+    /**
+     * Submits a job changing the state of every task with a state.
+     *
+     * @param state       The current TaskState of the tasks to change.
+     * @param targetState The new TaskState of the tasks.
+     * @return ResponseEntity containing the queued JobDto or an error response.
+     */
+    @PostMapping("/taskStateChange")
+    public ResponseEntity<JobDto> changeTaskStates(@RequestParam TaskState state, @RequestParam TaskState targetState) {
+        try {
+            return accepted(jobService.submitTaskStateChange(state, targetState));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid state change", e);
+        } catch (RejectedExecutionException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many jobs are waiting", e);
+        }
+    }
+
+    /**
+     * Submits a job deleting every task with a state, e.g. the COMPLETED tasks.
+     *
+     * @param state The TaskState of the tasks to delete.
+     * @return ResponseEntity containing the queued JobDto or an error response.
+     */
+    @PostMapping("/taskDeletion")
+    public ResponseEntity<JobDto> deleteTasks(@RequestParam TaskState state) {
+        try {
+            return accepted(jobService.submitTaskDeletion(state));
+        } catch (RejectedExecutionException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many jobs are waiting", e);
+        }
+    }
+
+    /**
+     * Submits a job importing users from an NDJSON stream, one user per line.
+     * The lines which cannot be imported are counted and listed in the errors of the job.
+     *
+     * @param body The NDJSON request body containing the users.
+     * @return ResponseEntity containing the queued JobDto or an error response.
+     */
+    @PostMapping(value = "/userImport", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<JobDto> importUsers(InputStream body) {
+        try {
+            return accepted(jobService.submitUserImport(body));
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unable to read the imported users", e);
+        } catch (RejectedExecutionException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many jobs are waiting", e);
+        }
+    }
+
+    private static ResponseEntity<JobDto> accepted(JobDto jobDto) {
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentContextPath()
+                        .path("/jobs/{id}").buildAndExpand(jobDto.getId()).toUri())
+                .body(jobDto);
+    }
+}
@@ -0,0 +1,90 @@
+package com.akos.database.controllers;
+
+import com.akos.database.dtos.TaskDto;
+import com.akos.database.dtos.UserDto;
+import com.akos.database.entities.TaskType;
+import com.akos.database.entities.UserRank;
+import com.akos.database.services.ReactiveReadService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Routes of the non-blocking read API, served by the reactive server on its own port.
+ * The paths are the same as the list endpoints of TaskController and UserController, but the lists are not paged:
+ * every matching task or user is streamed in ID order as NDJSON, or as a JSON array when only JSON is accepted.
+ * The next rows are read from the database only as fast as the client reads the response.
+ * The optional limit parameter caps the number of streamed elements.
+ */
+@Component
+public class ReactiveReadRoutes {
+
+    private final ReactiveReadService readService;
+
+    /**
+     * Constructs ReactiveReadRoutes.
+     *
+     * @param readService The ReactiveReadService streaming the tasks and users.
+     */
+    public ReactiveReadRoutes(ReactiveReadService readService) {
+        this.readService = readService;
+    }
+
+    /**
+     * Builds the routes of the list endpoints.
+     *
+     * @return The RouterFunction of the read API.
+     */
+    public RouterFunction<ServerResponse> routes() {
+        return RouterFunctions.route()
+                .GET("/tasks", request -> stream(request, readService.findAllTasks(), TaskDto.class))
+                .GET("/tasks/availableTasks", request ->
+                        stream(request, readService.findAvailableTasks(), TaskDto.class))
+                .GET("/tasks/taskType/{taskType}", request -> stream(request,
+                        readService.findTaskType(pathVariable(request, "taskType", TaskType.class)), TaskDto.class))
+                .GET("/users/availableUsers", request ->
+                        stream(request, readService.findAvailableUsers(), UserDto.class))
+                .GET("/users/usersRank/{rank}", request -> stream(request,
+                        readService.findUsersWithRank(pathVariable(request, "rank", UserRank.class)), UserDto.class))
+                .build();
+    }
+
+    private static <T> Mono<ServerResponse> stream(ServerRequest request, Flux<T> elements, Class<T> elementClass) {
+        Flux<T> limited = request.queryParam("limit").map(limit -> elements.take(parseLimit(limit))).orElse(elements);
+        return ServerResponse.ok().contentType(mediaType(request)).body(limited, elementClass);
+    }
+
+    private static MediaType mediaType(ServerRequest request) {
+        boolean jsonOnly = request.headers().accept().stream()
+                .anyMatch(accepted -> accepted.equalsTypeAndSubtype(MediaType.APPLICATION_JSON))
+                && request.headers().accept().stream().noneMatch(MediaType.APPLICATION_NDJSON::isCompatibleWith);
+        return jsonOnly ? MediaType.APPLICATION_JSON : MediaType.APPLICATION_NDJSON;
+    }
+
+    private static long parseLimit(String limit) {
+        try {
+            long parsed = Long.parseLong(limit);
+            if (parsed > 0) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid limit", e);
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid limit");
+    }
+
+    private static <E extends Enum<E>> E pathVariable(ServerRequest request, String name, Class<E> enumClass) {
+        try {
+            return Enum.valueOf(enumClass, request.pathVariable(name));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid " + name, e);
+        }
+    }
+}
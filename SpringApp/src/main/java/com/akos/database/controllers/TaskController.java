@@ -1,15 +1,35 @@
 package com.akos.database.controllers;
 
+import com.akos.database.dtos.CursorPageDto;
+import com.akos.database.dtos.DeletionReportDto;
 import com.akos.database.dtos.TaskDto;
+import com.akos.database.entities.TaskState;
 import com.akos.database.entities.TaskType;
+import com.akos.database.services.ExportFormat;
+import com.akos.database.services.ExportService;
 import com.akos.database.services.TaskService;
-import org.springframework.data.domain.Page;
+import com.akos.database.services.Versioned;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 
 /**
@@ -21,43 +41,149 @@ import java.util.NoSuchElementException;
 public class TaskController {
 
     private final TaskService taskService;
+    private final ObjectMapper objectMapper;
+    private final ExportService exportService;
 
     /**
      * Constructs a new TaskController with the specified TaskService.
      *
-     * @param taskService The TaskService used for handling task-related operations.
+     * @param taskService   The TaskService used for handling task-related operations.
+     * @param objectMapper  The ObjectMapper used for reading streamed request bodies.
+     * @param exportService The ExportService used for exporting all tasks.
      */
-    public TaskController(TaskService taskService) {
+    public TaskController(TaskService taskService, ObjectMapper objectMapper, ExportService exportService) {
         this.taskService = taskService;
+        this.objectMapper = objectMapper;
+        this.exportService = exportService;
     }
 
     /**
      * Retrieves all tasks with pagination support.
      *
-     * @param pageable The pageable information for retrieving tasks.
-     * @return ResponseEntity containing a Page of TaskDto or an error response.
+     * @param pageable  The pageable information for retrieving tasks.
+     * @param withTotal Whether the tasks should be counted, false returns a Slice without the total.
+     * @return ResponseEntity containing a Page or Slice of TaskDto or an error response.
      */
     @GetMapping
-    public ResponseEntity<Page<TaskDto>> getAllTasks(Pageable pageable) {
+    public ResponseEntity<Slice<TaskDto>> getAllTasks(
+            Pageable pageable, @RequestParam(defaultValue = "true") boolean withTotal) {
         try {
-            Page<TaskDto> tasks = taskService.findAll(pageable);
+            Slice<TaskDto> tasks = withTotal ? taskService.findAll(pageable) : taskService.findAllSlice(pageable);
             return ResponseEntity.ok(tasks);
         } catch (Exception e) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Unable to find tasks", e);
         }
     }
 
+    /**
+     * Retrieves only the requested fields of all tasks with pagination, used when the fields parameter is present.
+     * Only the columns of the fields are read from the database. The fields cannot be combined with the cursor.
+     *
+     * @param fields    The comma separated names of the fields, as in TaskDto.
+     * @param pageable  The pageable information for retrieving tasks.
+     * @param withTotal Whether the tasks should be counted, false returns a Slice without the total.
+     * @return ResponseEntity containing a Page or Slice of the selected fields or an error response.
+     */
+    @GetMapping(params = {"fields", "!after"})
+    public ResponseEntity<Slice<Map<String, Object>>> getAllTasksFields(
+            @RequestParam List<String> fields, Pageable pageable,
+            @RequestParam(defaultValue = "true") boolean withTotal) {
+        try {
+            Slice<Map<String, Object>> tasks = withTotal
+                    ? taskService.findAllFields(fields, pageable)
+                    : taskService.findAllFieldsSlice(fields, pageable);
+            return ResponseEntity.ok(tasks);
+        } catch (InvalidDataAccessApiUsageException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid fields", e);
+        } catch (Exception e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Unable to find tasks", e);
+        }
+    }
+
+    /**
+     * Rejects the fields combined with the cursor, as the keyset pages always hold whole tasks.
+     *
+     * @return Never returns, the request is answered with 400 Bad Request.
+     */
+    @GetMapping(params = {"fields", "after"})
+    public ResponseEntity<Void> getAllTasksFieldsAfter() {
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The fields cannot be combined with the cursor");
+    }
+
+    /**
+     * Retrieves all tasks with keyset pagination, used instead of the page number when the after parameter is present.
+     *
+     * @param after    The cursor of the last task of the previous page, empty for the first page.
+     * @param pageable The size and sort of the page, the page number is ignored.
+     * @return ResponseEntity containing a CursorPageDto of TaskDto or an error response.
+     */
+    @GetMapping(params = "after")
+    public ResponseEntity<CursorPageDto<TaskDto>> getAllTasksAfter(@RequestParam String after, Pageable pageable) {
+        try {
+            CursorPageDto<TaskDto> tasks = taskService.findAll(after, pageable);
+            return ResponseEntity.ok(tasks);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor", e);
+        } catch (Exception e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Unable to find tasks", e);
+        }
+    }
+
+    /**
+     * Exports all tasks in ID order, streamed without pagination.
+     * The format is chosen by the Accept header, NDJSON unless CSV is preferred.
+     *
+     * @param accept The Accept header of the request.
+     * @return ResponseEntity containing the streamed tasks.
+     */
+    @GetMapping(value = "/export", produces = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+    public ResponseEntity<StreamingResponseBody> exportTasks(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        ExportFormat format = ExportFormat.fromAccept(accept);
+        StreamingResponseBody body = output -> exportService.exportTasks(output, format);
+        return ResponseEntity.ok().contentType(format.getMediaType()).body(body);
+    }
+
     /**
      * Retrieves a task by its ID.
+     * The response carries the version of the task as ETag, taken from the same read as the body, so a cached
+     * DTO is always served with its own version. When it matches If-None-Match, 304 Not Modified is returned.
+     * The ETag differs between the JSON, CBOR and Smile representations, and the response varies by Accept.
      *
-     * @param id The ID of the task to retrieve.
-     * @return ResponseEntity containing a TaskDto or an error response.
+     * @param id         The ID of the task to retrieve.
+     * @param webRequest The request, used to check the If-None-Match header and to read the Accept header.
+     * @return ResponseEntity containing a TaskDto, 304 Not Modified or an error response.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<TaskDto> getTaskById(@PathVariable Long id) {
+    public ResponseEntity<TaskDto> getTaskById(@PathVariable Long id, WebRequest webRequest) {
+        try {
+            Versioned<TaskDto> task = taskService.findVersionedById(id);
+            String eTag = EntityTags.of(task.versionTag(), webRequest.getHeader(HttpHeaders.ACCEPT));
+            if (webRequest.checkNotModified(eTag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).varyBy(HttpHeaders.ACCEPT).build();
+            }
+            return ResponseEntity.ok().eTag(eTag).varyBy(HttpHeaders.ACCEPT).body(task.value());
+        } catch (Exception e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Task not found", e);
+        }
+    }
+
+    /**
+     * Retrieves only the requested fields of a task by its ID, used when the fields parameter is present.
+     * Only the columns of the fields are read from the database. The response has no ETag, as the version of the
+     * task is not among the fields.
+     *
+     * @param id     The ID of the task to retrieve.
+     * @param fields The comma separated names of the fields, as in TaskDto.
+     * @return ResponseEntity containing the selected fields or an error response.
+     */
+    @GetMapping(value = "/{id}", params = "fields")
+    public ResponseEntity<Map<String, Object>> getTaskFieldsById(
+            @PathVariable Long id, @RequestParam List<String> fields) {
         try {
-            TaskDto taskDto = taskService.findById(id);
-            return ResponseEntity.ok(taskDto);
+            return ResponseEntity.ok(taskService.findFieldsById(id, fields));
+        } catch (InvalidDataAccessApiUsageException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid fields", e);
         } catch (Exception e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Task not found", e);
         }
@@ -79,6 +205,23 @@ public class TaskController {
         }
     }
 
+    /**
+     * Creates many tasks in one request.
+     * The body is either a JSON array or an NDJSON stream of tasks, it is read one task at a time.
+     *
+     * @param body The request body containing the tasks to be created.
+     * @return ResponseEntity containing the IDs of the created tasks or an error response.
+     */
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<List<Long>> createTasks(InputStream body) {
+        try (MappingIterator<TaskDto> taskDtos = objectMapper.readerFor(TaskDto.class).readValues(body)) {
+            List<Long> ids = taskService.saveAll(taskDtos);
+            return new ResponseEntity<>(ids, HttpStatus.CREATED);
+        } catch (IOException | RuntimeJsonMappingException | DataIntegrityViolationException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid Task data", e);
+        }
+    }
+
     /**
      * Deletes a task by its ID.
      *
@@ -95,18 +238,50 @@ public class TaskController {
         }
     }
 
+    /**
+     * Deletes the tasks with the specified IDs, the IDs which are not found are ignored.
+     *
+     * @param ids The IDs of the tasks to delete.
+     * @return ResponseEntity containing the number of deleted tasks.
+     */
+    @DeleteMapping(params = "ids")
+    public ResponseEntity<DeletionReportDto> deleteTasks(@RequestParam List<Long> ids) {
+        int deletedTasks = taskService.deleteByIds(ids);
+        return ResponseEntity.ok(new DeletionReportDto(deletedTasks));
+    }
+
+    /**
+     * Deletes the tasks with the specified state.
+     *
+     * @param state The TaskState of the tasks to delete.
+     * @return ResponseEntity containing the number of deleted tasks.
+     */
+    @DeleteMapping(params = "state")
+    public ResponseEntity<DeletionReportDto> deleteTasksWithState(@RequestParam TaskState state) {
+        int deletedTasks = taskService.deleteByState(state);
+        return ResponseEntity.ok(new DeletionReportDto(deletedTasks));
+    }
+
     /**
      * Updates a task by its ID.
      *
      * @param id      The ID of the task to update.
      * @param taskDto The TaskDto representing the updated task data.
+     * @param ifMatch The ETag the task must have, the task is not updated and 412 is returned otherwise.
+     * @param accept  The Accept header, telling the representation whose ETag is returned.
      * @return ResponseEntity containing the updated TaskDto or an error response.
      */
     @PutMapping("/{id}")
-    public ResponseEntity<TaskDto> updateTask(@PathVariable Long id, @RequestBody TaskDto taskDto) {
+    public ResponseEntity<TaskDto> updateTask(
+            @PathVariable Long id, @RequestBody TaskDto taskDto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         try {
-            TaskDto updatedTaskDto = taskService.update(id, taskDto);
-            return ResponseEntity.ok(updatedTaskDto);
+            Versioned<TaskDto> updatedTask = taskService.update(id, taskDto, EntityTags.versionTagOf(ifMatch));
+            return ResponseEntity.ok().eTag(EntityTags.of(updatedTask.versionTag(), accept)).varyBy(HttpHeaders.ACCEPT)
+                    .body(updatedTask.value());
+        } catch (OptimisticLockingFailureException e) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "Task has been modified", e);
         } catch (NoSuchElementException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Task not found", e);
         } catch (IllegalArgumentException e) {
@@ -119,13 +294,21 @@ public class TaskController {
      *
      * @param id      The ID of the task to partially update.
      * @param taskDto The TaskDto representing the partially updated task data.
+     * @param ifMatch The ETag the task must have, the task is not updated and 412 is returned otherwise.
+     * @param accept  The Accept header, telling the representation whose ETag is returned.
      * @return ResponseEntity containing the partially updated TaskDto or an error response.
      */
     @PatchMapping("/{id}")
-    public ResponseEntity<TaskDto> partialUpdateTask(@PathVariable Long id, @RequestBody TaskDto taskDto) {
+    public ResponseEntity<TaskDto> partialUpdateTask(
+            @PathVariable Long id, @RequestBody TaskDto taskDto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         try {
-            TaskDto updatedTaskDto = taskService.partialUpdate(id, taskDto);
-            return ResponseEntity.ok(updatedTaskDto);
+            Versioned<TaskDto> updatedTask = taskService.partialUpdate(id, taskDto, EntityTags.versionTagOf(ifMatch));
+            return ResponseEntity.ok().eTag(EntityTags.of(updatedTask.versionTag(), accept)).varyBy(HttpHeaders.ACCEPT)
+                    .body(updatedTask.value());
+        } catch (OptimisticLockingFailureException e) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "Task has been modified", e);
         } catch (NoSuchElementException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Task not found", e);
         } catch (IllegalArgumentException e) {
@@ -136,34 +319,91 @@ public class TaskController {
     /**
      * Retrieves all available tasks with pagination support.
      *
-     * @param pageable The pageable information for retrieving tasks.
-     * @return ResponseEntity containing a Page of TaskDto or an error response.
+     * @param pageable  The pageable information for retrieving tasks.
+     * @param withTotal Whether the tasks should be counted, false returns a Slice without the total.
+     * @return ResponseEntity containing a Page or Slice of TaskDto or an error response.
      */
     @GetMapping("/availableTasks")
-    public ResponseEntity<Page<TaskDto>> getAllAvailableTasks(Pageable pageable) {
+    public ResponseEntity<Slice<TaskDto>> getAllAvailableTasks(
+            Pageable pageable, @RequestParam(defaultValue = "true") boolean withTotal) {
         try {
-            Page<TaskDto> tasks = taskService.findAvailableTasks(pageable);
+            Slice<TaskDto> tasks = withTotal
+                    ? taskService.findAvailableTasks(pageable)
+                    : taskService.findAvailableTasksSlice(pageable);
             return ResponseEntity.ok(tasks);
         } catch (Exception e) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Unable to find tasks", e);
         }
     }
 
+    /**
+     * Retrieves all available tasks with keyset pagination, used when the after parameter is present.
+     *
+     * @param after    The cursor of the last task of the previous page, empty for the first page.
+     * @param pageable The size and sort of the page, the page number is ignored.
+     * @return ResponseEntity containing a CursorPageDto of TaskDto or an error response.
+     */
+    @GetMapping(value = "/availableTasks", params = {"after", "!fields"})
+    public ResponseEntity<CursorPageDto<TaskDto>> getAllAvailableTasksAfter(@RequestParam String after, Pageable pageable) {
+        try {
+            CursorPageDto<TaskDto> tasks = taskService.findAvailableTasks(after, pageable);
+            return ResponseEntity.ok(tasks);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor", e);
+        } catch (Exception e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Unable to find tasks", e);
+        }
+    }
+
     /**
      * Retrieves all available tasks of a specific type with pagination support.
      *
-     * @param pageable The pageable information for retrieving tasks.
-     * @param taskType The TaskType representing the type of tasks to retrieve.
-     * @return ResponseEntity containing a Page of TaskDto or an error response.
+     * @param pageable  The pageable information for retrieving tasks.
+     * @param taskType  The TaskType representing the type of tasks to retrieve.
+     * @param withTotal Whether the tasks should be counted, false returns a Slice without the total.
+     * @return ResponseEntity containing a Page or Slice of TaskDto or an error response.
      */
     @GetMapping("/taskType/{taskType}")
-    public ResponseEntity<Page<TaskDto>> getAllAvailableTasks(Pageable pageable, @PathVariable TaskType taskType) {
+    public ResponseEntity<Slice<TaskDto>> getAllAvailableTasks(
+            Pageable pageable, @PathVariable TaskType taskType, @RequestParam(defaultValue = "true") boolean withTotal) {
         try {
-            Page<TaskDto> tasks = taskService.findTaskType(pageable, taskType);
+            Slice<TaskDto> tasks = withTotal
+                    ? taskService.findTaskType(pageable, taskType)
+                    : taskService.findTaskTypeSlice(pageable, taskType);
             return ResponseEntity.ok(tasks);
         } catch (Exception e) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Unable to find tasks", e);
         }
     }
-}
 
+    /**
+     * Retrieves all tasks of a specific type with keyset pagination, used when the after parameter is present.
+     *
+     * @param after    The cursor of the last task of the previous page, empty for the first page.
+     * @param pageable The size and sort of the page, the page number is ignored.
+     * @param taskType The TaskType representing the type of tasks to retrieve.
+     * @return ResponseEntity containing a CursorPageDto of TaskDto or an error response.
+     */
+    @GetMapping(value = "/taskType/{taskType}", params = {"after", "!fields"})
+    public ResponseEntity<CursorPageDto<TaskDto>> getTasksOfTypeAfter(
+            @RequestParam String after, Pageable pageable, @PathVariable TaskType taskType) {
+        try {
+            CursorPageDto<TaskDto> tasks = taskService.findTaskType(after, pageable, taskType);
+            return ResponseEntity.ok(tasks);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor", e);
+        } catch (Exception e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Unable to find tasks", e);
+        }
+    }
+
+    /**
+     * Rejects the fields on the filtered lists, the fields are only selected from all tasks or from one task.
+     *
+     * @return Never returns, the request is answered with 400 Bad Request.
+     */
+    @GetMapping(value = {"/availableTasks", "/taskType/{taskType}"}, params = "fields")
+    public ResponseEntity<Void> getFilteredTasksFields() {
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The fields cannot be selected from a filtered list");
+    }
+}
@@ -1,15 +1,33 @@
 package com.akos.database.controllers;
 
+import com.akos.database.dtos.AssignmentReportDto;
+import com.akos.database.dtos.CursorPageDto;
+import com.akos.database.dtos.ImportReportDto;
+import com.akos.database.dtos.TaskAssignmentDto;
 import com.akos.database.dtos.UserDto;
 import com.akos.database.entities.UserRank;
+import com.akos.database.services.ExportFormat;
+import com.akos.database.services.ExportService;
+import com.akos.database.services.UserImportService;
 import com.akos.database.services.UserService;
-import org.springframework.data.domain.Page;
+import com.akos.database.services.Versioned;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 
 /**
@@ -21,43 +39,149 @@ import java.util.NoSuchElementException;
 public class UserController {
 
     private final UserService userService;
+    private final UserImportService userImportService;
+    private final ExportService exportService;
 
     /**
      * Constructs a new UserController with the specified UserService.
      *
-     * @param userService The UserService used for handling user-related operations.
+     * @param userService       The UserService used for handling user-related operations.
+     * @param userImportService The UserImportService used for importing many users.
+     * @param exportService     The ExportService used for exporting all users.
      */
-    public UserController(UserService userService) {
+    public UserController(UserService userService, UserImportService userImportService, ExportService exportService) {
         this.userService = userService;
+        this.userImportService = userImportService;
+        this.exportService = exportService;
     }
 
     /**
      * Retrieves all users with pagination support.
      *
-     * @param pageable The pageable information for retrieving users.
-     * @return ResponseEntity containing a Page of UserDto or an error response.
+     * @param pageable  The pageable information for retrieving users.
+     * @param withTotal Whether the users should be counted, false returns a Slice without the total.
+     * @return ResponseEntity containing a Page or Slice of UserDto or an error response.
      */
     @GetMapping
-    public ResponseEntity<Page<UserDto>> getAllUsers(Pageable pageable) {
+    public ResponseEntity<Slice<UserDto>> getAllUsers(
+            Pageable pageable, @RequestParam(defaultValue = "true") boolean withTotal) {
         try {
-            Page<UserDto> users = userService.findAll(pageable);
+            Slice<UserDto> users = withTotal ? userService.findAll(pageable) : userService.findAllSlice(pageable);
             return ResponseEntity.ok(users);
         } catch (Exception e) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Unable to find users", e);
         }
     }
 
+    /**
+     * Retrieves only the requested fields of all users with pagination, used when the fields parameter is present.
+     * Only the columns of the fields are read from the database. The fields cannot be combined with the cursor.
+     *
+     * @param fields    The comma separated names of the fields, as in UserDto.
+     * @param pageable  The pageable information for retrieving users.
+     * @param withTotal Whether the users should be counted, false returns a Slice without the total.
+     * @return ResponseEntity containing a Page or Slice of the selected fields or an error response.
+     */
+    @GetMapping(params = {"fields", "!after"})
+    public ResponseEntity<Slice<Map<String, Object>>> getAllUsersFields(
+            @RequestParam List<String> fields, Pageable pageable,
+            @RequestParam(defaultValue = "true") boolean withTotal) {
+        try {
+            Slice<Map<String, Object>> users = withTotal
+                    ? userService.findAllFields(fields, pageable)
+                    : userService.findAllFieldsSlice(fields, pageable);
+            return ResponseEntity.ok(users);
+        } catch (InvalidDataAccessApiUsageException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid fields", e);
+        } catch (Exception e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Unable to find users", e);
+        }
+    }
+
+    /**
+     * Rejects the fields combined with the cursor, as the keyset pages always hold whole users.
+     *
+     * @return Never returns, the request is answered with 400 Bad Request.
+     */
+    @GetMapping(params = {"fields", "after"})
+    public ResponseEntity<Void> getAllUsersFieldsAfter() {
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The fields cannot be combined with the cursor");
+    }
+
+    /**
+     * Retrieves all users with keyset pagination, used instead of the page number when the after parameter is present.
+     *
+     * @param after    The cursor of the last user of the previous page, empty for the first page.
+     * @param pageable The size and sort of the page, the page number is ignored.
+     * @return ResponseEntity containing a CursorPageDto of UserDto or an error response.
+     */
+    @GetMapping(params = "after")
+    public ResponseEntity<CursorPageDto<UserDto>> getAllUsersAfter(@RequestParam String after, Pageable pageable) {
+        try {
+            CursorPageDto<UserDto> users = userService.findAll(after, pageable);
+            return ResponseEntity.ok(users);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor", e);
+        } catch (Exception e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Unable to find users", e);
+        }
+    }
+
+    /**
+     * Exports all users in ID order, streamed without pagination.
+     * The format is chosen by the Accept header, NDJSON unless CSV is preferred.
+     *
+     * @param accept The Accept header of the request.
+     * @return ResponseEntity containing the streamed users.
+     */
+    @GetMapping(value = "/export", produces = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        ExportFormat format = ExportFormat.fromAccept(accept);
+        StreamingResponseBody body = output -> exportService.exportUsers(output, format);
+        return ResponseEntity.ok().contentType(format.getMediaType()).body(body);
+    }
+
     /**
      * Retrieves a user by their ID.
+     * The ETag of the response changes with the user and with any of their tasks, it is taken from the same read
+     * as the body. When it matches If-None-Match, 304 Not Modified is returned.
+     * The ETag differs between the JSON, CBOR and Smile representations, and the response varies by Accept.
      *
-     * @param id The ID of the user to retrieve.
-     * @return ResponseEntity containing a UserDto or an error response.
+     * @param id         The ID of the user to retrieve.
+     * @param webRequest The request, used to check the If-None-Match header and to read the Accept header.
+     * @return ResponseEntity containing a UserDto, 304 Not Modified or an error response.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<UserDto> getUserById(@PathVariable Long id) {
+    public ResponseEntity<UserDto> getUserById(@PathVariable Long id, WebRequest webRequest) {
         try {
-            UserDto userDto = userService.findById(id);
-            return ResponseEntity.ok(userDto);
+            Versioned<UserDto> user = userService.findVersionedById(id);
+            String eTag = EntityTags.of(user.versionTag(), webRequest.getHeader(HttpHeaders.ACCEPT));
+            if (webRequest.checkNotModified(eTag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).varyBy(HttpHeaders.ACCEPT).build();
+            }
+            return ResponseEntity.ok().eTag(eTag).varyBy(HttpHeaders.ACCEPT).body(user.value());
+        } catch (Exception e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found", e);
+        }
+    }
+
+    /**
+     * Retrieves only the requested fields of a user by their ID, used when the fields parameter is present.
+     * Only the columns of the fields are read from the database. The response has no ETag, as the version of the
+     * user is not among the fields.
+     *
+     * @param id     The ID of the user to retrieve.
+     * @param fields The comma separated names of the fields, as in UserDto.
+     * @return ResponseEntity containing the selected fields or an error response.
+     */
+    @GetMapping(value = "/{id}", params = "fields")
+    public ResponseEntity<Map<String, Object>> getUserFieldsById(
+            @PathVariable Long id, @RequestParam List<String> fields) {
+        try {
+            return ResponseEntity.ok(userService.findFieldsById(id, fields));
+        } catch (InvalidDataAccessApiUsageException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid fields", e);
         } catch (Exception e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found", e);
         }
@@ -79,6 +203,23 @@ public class UserController {
         }
     }
 
+    /**
+     * Imports users from an NDJSON stream, one user per line.
+     * The body is read as a stream, the lines which cannot be imported are listed in the returned report.
+     *
+     * @param body The NDJSON request body containing the users.
+     * @return ResponseEntity containing the ImportReportDto or an error response.
+     */
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ImportReportDto> importUsers(InputStream body) {
+        try {
+            ImportReportDto report = userImportService.importUsers(body);
+            return ResponseEntity.ok(report);
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unable to read the imported users", e);
+        }
+    }
+
     /**
      * Deletes a user by their ID.
      *
@@ -100,13 +241,21 @@ public class UserController {
      *
      * @param id      The ID of the user to update.
      * @param userDto The UserDto representing the updated user data.
+     * @param ifMatch The ETag the user must have, the user is not updated and 412 is returned otherwise.
+     * @param accept  The Accept header, telling the representation whose ETag is returned.
      * @return ResponseEntity containing the updated UserDto or an error response.
      */
     @PutMapping("/{id}")
-    public ResponseEntity<UserDto> updateUser(@PathVariable Long id, @RequestBody UserDto userDto) {
+    public ResponseEntity<UserDto> updateUser(
+            @PathVariable Long id, @RequestBody UserDto userDto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         try {
-            UserDto updatedUserDto = userService.update(id, userDto);
-            return ResponseEntity.ok(updatedUserDto);
+            Versioned<UserDto> updatedUser = userService.update(id, userDto, EntityTags.versionTagOf(ifMatch));
+            return ResponseEntity.ok().eTag(EntityTags.of(updatedUser.versionTag(), accept)).varyBy(HttpHeaders.ACCEPT)
+                    .body(updatedUser.value());
+        } catch (OptimisticLockingFailureException e) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "User has been modified", e);
         } catch (NoSuchElementException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found", e);
         } catch (IllegalArgumentException e) {
@@ -119,13 +268,21 @@ public class UserController {
      *
      * @param id      The ID of the user to partially update.
      * @param userDto The UserDto representing the partially updated user data.
+     * @param ifMatch The ETag the user must have, the user is not updated and 412 is returned otherwise.
+     * @param accept  The Accept header, telling the representation whose ETag is returned.
      * @return ResponseEntity containing the partially updated UserDto or an error response.
      */
     @PatchMapping("/{id}")
-    public ResponseEntity<UserDto> partialUpdateUser(@PathVariable Long id, @RequestBody UserDto userDto) {
+    public ResponseEntity<UserDto> partialUpdateUser(
+            @PathVariable Long id, @RequestBody UserDto userDto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         try {
-            UserDto updatedUserDto = userService.partialUpdate(id, userDto);
-            return ResponseEntity.ok(updatedUserDto);
+            Versioned<UserDto> updatedUser = userService.partialUpdate(id, userDto, EntityTags.versionTagOf(ifMatch));
+            return ResponseEntity.ok().eTag(EntityTags.of(updatedUser.versionTag(), accept)).varyBy(HttpHeaders.ACCEPT)
+                    .body(updatedUser.value());
+        } catch (OptimisticLockingFailureException e) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "User has been modified", e);
         } catch (NoSuchElementException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found", e);
         } catch (IllegalArgumentException e) {
@@ -152,55 +309,152 @@ public class UserController {
         }
     }
 
+    /**
+     * Assigns many tasks to users in one transaction.
+     *
+     * @param assignments The pairs of users and tasks.
+     * @return ResponseEntity containing the AssignmentReportDto or an error response.
+     */
+    @PatchMapping("/assignments")
+    public ResponseEntity<AssignmentReportDto> assignTasks(@RequestBody List<TaskAssignmentDto> assignments) {
+        try {
+            AssignmentReportDto report = userService.assignTasks(assignments);
+            return ResponseEntity.ok(report);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid assignments", e);
+        }
+    }
+
     /**
      * Retrieves all available users with pagination support.
      *
-     * @param pageable The pageable information for retrieving users.
-     * @return ResponseEntity containing a Page of UserDto or an error response.
+     * @param pageable  The pageable information for retrieving users.
+     * @param withTotal Whether the users should be counted, false returns a Slice without the total.
+     * @return ResponseEntity containing a Page or Slice of UserDto or an error response.
      */
     @GetMapping("/availableUsers")
-    public ResponseEntity<Page<UserDto>> getAvailableUsers(Pageable pageable) {
+    public ResponseEntity<Slice<UserDto>> getAvailableUsers(
+            Pageable pageable, @RequestParam(defaultValue = "true") boolean withTotal) {
         try {
-            Page<UserDto> users = userService.findAvailableUsers(pageable);
+            Slice<UserDto> users = withTotal
+                    ? userService.findAvailableUsers(pageable)
+                    : userService.findAvailableUsersSlice(pageable);
             return ResponseEntity.ok(users);
         } catch (Exception e) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Unable to find users", e);
         }
     }
 
+    /**
+     * Retrieves all available users with keyset pagination, used when the after parameter is present.
+     *
+     * @param after    The cursor of the last user of the previous page, empty for the first page.
+     * @param pageable The size and sort of the page, the page number is ignored.
+     * @return ResponseEntity containing a CursorPageDto of UserDto or an error response.
+     */
+    @GetMapping(value = "/availableUsers", params = {"after", "!fields"})
+    public ResponseEntity<CursorPageDto<UserDto>> getAvailableUsersAfter(@RequestParam String after, Pageable pageable) {
+        try {
+            CursorPageDto<UserDto> users = userService.findAvailableUsers(after, pageable);
+            return ResponseEntity.ok(users);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor", e);
+        } catch (Exception e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Unable to find users", e);
+        }
+    }
+
     /**
      * Retrieves users with a specific rank and pagination support.
      *
-     * @param pageable The pageable information for retrieving users.
-     * @param rank     The UserRank representing the rank of users to retrieve.
-     * @return ResponseEntity containing a Page of UserDto or an error response.
+     * @param pageable  The pageable information for retrieving users.
+     * @param rank      The UserRank representing the rank of users to retrieve.
+     * @param withTotal Whether the users should be counted, false returns a Slice without the total.
+     * @return ResponseEntity containing a Page or Slice of UserDto or an error response.
      */
     @GetMapping("/usersRank/{rank}")
-    public ResponseEntity<Page<UserDto>> getUsersWithLessThanWeeklyWorkHours(
-            Pageable pageable, @PathVariable UserRank rank) {
+    public ResponseEntity<Slice<UserDto>> getUsersWithLessThanWeeklyWorkHours(
+            Pageable pageable, @PathVariable UserRank rank, @RequestParam(defaultValue = "true") boolean withTotal) {
         try {
-            Page<UserDto> users = userService.findUsersWithRank(pageable, rank);
+            Slice<UserDto> users = withTotal
+                    ? userService.findUsersWithRank(pageable, rank)
+                    : userService.findUsersWithRankSlice(pageable, rank);
             return ResponseEntity.ok(users);
         } catch (Exception e) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Unable to find users", e);
         }
     }
 
+    /**
+     * Retrieves users with a specific rank with keyset pagination, used when the after parameter is present.
+     *
+     * @param after    The cursor of the last user of the previous page, empty for the first page.
+     * @param pageable The size and sort of the page, the page number is ignored.
+     * @param rank     The UserRank representing the rank of users to retrieve.
+     * @return ResponseEntity containing a CursorPageDto of UserDto or an error response.
+     */
+    @GetMapping(value = "/usersRank/{rank}", params = {"after", "!fields"})
+    public ResponseEntity<CursorPageDto<UserDto>> getUsersWithRankAfter(
+            @RequestParam String after, Pageable pageable, @PathVariable UserRank rank) {
+        try {
+            CursorPageDto<UserDto> users = userService.findUsersWithRank(after, pageable, rank);
+            return ResponseEntity.ok(users);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor", e);
+        } catch (Exception e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Unable to find users", e);
+        }
+    }
+
     /**
      * Retrieves users with weekly work hours less than a specified value and pagination support.
      *
-     * @param pageable The pageable information for retrieving users.
-     * @param hours    The maximum weekly work hours allowed.
-     * @return ResponseEntity containing a Page of UserDto or an error response.
+     * @param pageable  The pageable information for retrieving users.
+     * @param hours     The maximum weekly work hours allowed.
+     * @param withTotal Whether the users should be counted, false returns a Slice without the total.
+     * @return ResponseEntity containing a Page or Slice of UserDto or an error response.
      */
     @GetMapping("/workingLessThan/{hours}")
-    public ResponseEntity<Page<UserDto>> getUsersWithLessThanWeeklyWorkHours(
-            Pageable pageable, @PathVariable Long hours) {
+    public ResponseEntity<Slice<UserDto>> getUsersWithLessThanWeeklyWorkHours(
+            Pageable pageable, @PathVariable Long hours, @RequestParam(defaultValue = "true") boolean withTotal) {
+        try {
+            Slice<UserDto> users = withTotal
+                    ? userService.findUsersWithLessWeeklyWorkHours(pageable, hours)
+                    : userService.findUsersWithLessWeeklyWorkHoursSlice(pageable, hours);
+            return ResponseEntity.ok(users);
+        } catch (Exception e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Unable to find users", e);
+        }
+    }
+
+    /**
+     * Retrieves users with weekly work hours less than a specified value with keyset pagination, used when the after parameter is present.
+     *
+     * @param after    The cursor of the last user of the previous page, empty for the first page.
+     * @param pageable The size and sort of the page, the page number is ignored.
+     * @param hours    The maximum weekly work hours allowed.
+     * @return ResponseEntity containing a CursorPageDto of UserDto or an error response.
+     */
+    @GetMapping(value = "/workingLessThan/{hours}", params = {"after", "!fields"})
+    public ResponseEntity<CursorPageDto<UserDto>> getUsersWithLessThanWeeklyWorkHoursAfter(
+            @RequestParam String after, Pageable pageable, @PathVariable Long hours) {
         try {
-            Page<UserDto> users = userService.findUsersWithLessWeeklyWorkHours(pageable, hours);
+            CursorPageDto<UserDto> users = userService.findUsersWithLessWeeklyWorkHours(after, pageable, hours);
             return ResponseEntity.ok(users);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor", e);
         } catch (Exception e) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Unable to find users", e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Rejects the fields on the filtered lists, the fields are only selected from all users or from one user.
+     *
+     * @return Never returns, the request is answered with 400 Bad Request.
+     */
+    @GetMapping(value = {"/availableUsers", "/usersRank/{rank}", "/workingLessThan/{hours}"}, params = "fields")
+    public ResponseEntity<Void> getFilteredUsersFields() {
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The fields cannot be selected from a filtered list");
+    }
+}
@@ -0,0 +1,31 @@
+package com.akos.database.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) summarizing the result of a bulk task assignment.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AssignmentReportDto {
+
+    /**
+     * The number of tasks which were assigned.
+     */
+    private long assigned;
+
+    /**
+     * The assignments which were not made because the task was already assigned to the user,
+     * the user or the task does not exist, or the task has already been completed.
+     */
+    @Builder.Default
+    private List<TaskAssignmentDto> notAssigned = new ArrayList<>();
+}
@@ -0,0 +1,40 @@
+package com.akos.database.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) for one page of a keyset paginated list.
+ *
+ * @param <T> The type of the elements of the page.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageDto<T> {
+
+    /**
+     * The elements of the page.
+     */
+    private List<T> content;
+
+    /**
+     * The number of elements on the page.
+     */
+    private int size;
+
+    /**
+     * Whether there are more elements after this page.
+     */
+    private boolean hasNext;
+
+    /**
+     * The opaque cursor which has to be passed as the after parameter to get the next page, null on the last page.
+     */
+    private String next;
+}
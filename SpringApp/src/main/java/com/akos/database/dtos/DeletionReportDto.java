@@ -0,0 +1,21 @@
+package com.akos.database.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object (DTO) summarizing the result of a bulk delete.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeletionReportDto {
+
+    /**
+     * The number of records which were deleted.
+     */
+    private long deleted;
+}
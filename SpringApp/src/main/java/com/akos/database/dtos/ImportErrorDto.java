@@ -0,0 +1,26 @@
+package com.akos.database.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object (DTO) describing why one record of an import failed.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportErrorDto {
+
+    /**
+     * The line number of the record in the imported file, starting from 1.
+     */
+    private long line;
+
+    /**
+     * The reason of the failure.
+     */
+    private String message;
+}
@@ -0,0 +1,35 @@
+package com.akos.database.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) summarizing the result of an import.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportReportDto {
+
+    /**
+     * The number of records which were saved.
+     */
+    private long imported;
+
+    /**
+     * The number of records which could not be saved.
+     */
+    private long failed;
+
+    /**
+     * The errors of the failed records, only the first few errors are kept.
+     */
+    @Builder.Default
+    private List<ImportErrorDto> errors = new ArrayList<>();
+}
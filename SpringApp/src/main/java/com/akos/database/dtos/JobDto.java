@@ -0,0 +1,89 @@
+package com.akos.database.dtos;
+
+import com.akos.database.entities.JobStatus;
+import com.akos.database.entities.JobType;
+import com.akos.database.entities.TaskState;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) representing an asynchronous bulk job and its progress.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobDto {
+
+    /**
+     * Unique identifier for the job.
+     */
+    private Long id;
+
+    /**
+     * The kind of work done by the job.
+     */
+    private JobType type;
+
+    /**
+     * The current state of the job.
+     */
+    private JobStatus status;
+
+    /**
+     * The state of the tasks the job works on, for the jobs of tasks.
+     */
+    private TaskState taskState;
+
+    /**
+     * The new state of the tasks, for the state changes.
+     */
+    private TaskState targetState;
+
+    /**
+     * The number of items to be processed, null while it is not known.
+     */
+    private Long total;
+
+    /**
+     * The number of items processed so far.
+     */
+    private long processed;
+
+    /**
+     * The number of items processed successfully.
+     */
+    private long succeeded;
+
+    /**
+     * The number of items which could not be processed.
+     */
+    private long failed;
+
+    /**
+     * The errors of the failed items, only the first few errors are kept.
+     */
+    @Builder.Default
+    private List<JobErrorDto> errors = new ArrayList<>();
+
+    /**
+     * When the job was submitted.
+     */
+    private Instant createdAt;
+
+    /**
+     * When the job was started, or last resumed.
+     */
+    private Instant startedAt;
+
+    /**
+     * When the job was finished.
+     */
+    private Instant finishedAt;
+}
@@ -0,0 +1,26 @@
+package com.akos.database.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object (DTO) describing why an item of a job failed.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobErrorDto {
+
+    /**
+     * The item which failed, a task ID or the line number of an imported user, null if the whole job failed.
+     */
+    private Long item;
+
+    /**
+     * The reason of the failure.
+     */
+    private String message;
+}
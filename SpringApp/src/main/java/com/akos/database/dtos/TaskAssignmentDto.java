@@ -0,0 +1,26 @@
+package com.akos.database.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object (DTO) representing the assignment of a task to a user.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskAssignmentDto {
+
+    /**
+     * The ID of the user.
+     */
+    private Long userId;
+
+    /**
+     * The ID of the task to be assigned to the user.
+     */
+    private Long taskId;
+}
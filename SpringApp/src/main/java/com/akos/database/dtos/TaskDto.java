@@ -17,7 +17,7 @@ import java.time.LocalDate;
  * Data Transfer Object (DTO) for tasks.
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class TaskDto {
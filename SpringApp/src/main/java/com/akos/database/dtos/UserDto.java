@@ -19,7 +19,7 @@ import java.util.Set;
  * Data Transfer Object (DTO) for representing users.
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class UserDto {
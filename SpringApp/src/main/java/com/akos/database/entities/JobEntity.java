@@ -0,0 +1,117 @@
+package com.akos.database.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JPA Entity class representing the asynchronous bulk jobs and their progress.
+ * A job is written by the thread running it only, after every chunk, so it is not versioned nor cached.
+ */
+@Entity
+@Table(name = "JOBS")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobEntity {
+
+    /**
+     * Unique identifier for the job, returned to the caller to poll the job.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "JOBS_SEQ")
+    @SequenceGenerator(name = "JOBS_SEQ", sequenceName = "JOBS_SEQ", allocationSize = 50)
+    private Long id;
+
+    /**
+     * The kind of work done by the job.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "TYPE", nullable = false)
+    private JobType type;
+
+    /**
+     * The current state of the job.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "STATUS", nullable = false)
+    private JobStatus status;
+
+    /**
+     * The state of the tasks the job works on, for the jobs of tasks.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "TASK_STATE")
+    private TaskState taskState;
+
+    /**
+     * The new state of the tasks, for the state changes.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "TARGET_STATE")
+    private TaskState targetState;
+
+    /**
+     * The file holding the input of the job until it is finished, for the imports.
+     */
+    @Column(name = "INPUT_FILE", length = 1000)
+    private String inputFile;
+
+    /**
+     * The number of items to be processed, null while it is not known.
+     */
+    @Column(name = "TOTAL")
+    private Long total;
+
+    /**
+     * The number of items processed so far.
+     */
+    @Column(name = "PROCESSED", nullable = false)
+    private long processed;
+
+    /**
+     * The number of items processed successfully.
+     */
+    @Column(name = "SUCCEEDED", nullable = false)
+    private long succeeded;
+
+    /**
+     * The number of items which could not be processed.
+     */
+    @Column(name = "FAILED", nullable = false)
+    private long failed;
+
+    /**
+     * The errors of the failed items, only the first few errors are kept.
+     */
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "JOB_ERRORS", joinColumns = @JoinColumn(name = "JOB_ID"))
+    @OrderColumn(name = "ERROR_INDEX")
+    @Builder.Default
+    private List<JobError> errors = new ArrayList<>();
+
+    /**
+     * When the job was submitted.
+     */
+    @Column(name = "CREATED_AT", nullable = false)
+    private Instant createdAt;
+
+    /**
+     * When the job was started, or last resumed.
+     */
+    @Column(name = "STARTED_AT")
+    private Instant startedAt;
+
+    /**
+     * When the job was finished.
+     */
+    @Column(name = "FINISHED_AT")
+    private Instant finishedAt;
+}
@@ -0,0 +1,34 @@
+package com.akos.database.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * An item of a job which could not be processed.
+ */
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobError {
+
+    /**
+     * The maximum length of a message, the length of its column.
+     */
+    public static final int MAX_MESSAGE_LENGTH = 1000;
+
+    /**
+     * The item which failed, a task ID or the line number of an imported user.
+     */
+    @Column(name = "ITEM")
+    private Long item;
+
+    /**
+     * The reason of the failure.
+     */
+    @Column(name = "MESSAGE", length = MAX_MESSAGE_LENGTH)
+    private String message;
+}
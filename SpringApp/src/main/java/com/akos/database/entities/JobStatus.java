@@ -0,0 +1,17 @@
+package com.akos.database.entities;
+
+/**
+ * Enum representing the possible states of an asynchronous bulk job.
+ */
+public enum JobStatus {
+
+    QUEUED,
+
+    RUNNING,
+
+    SUCCEEDED,
+
+    FAILED,
+
+    INTERRUPTED
+}
@@ -0,0 +1,30 @@
+package com.akos.database.entities;
+
+/**
+ * Enum representing the kinds of asynchronous bulk jobs.
+ * A resumable job only works on the rows which still match it, so it can be run again after a restart,
+ * the other jobs are interrupted by a restart.
+ */
+public enum JobType {
+
+    TASK_STATE_CHANGE(true),
+
+    TASK_DELETION(true),
+
+    USER_IMPORT(false);
+
+    private final boolean resumable;
+
+    JobType(boolean resumable) {
+        this.resumable = resumable;
+    }
+
+    /**
+     * Tells whether an unfinished job of this type is run again after a restart.
+     *
+     * @return true if the job can be resumed.
+     */
+    public boolean isResumable() {
+        return resumable;
+    }
+}
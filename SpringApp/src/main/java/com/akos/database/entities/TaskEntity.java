@@ -8,16 +8,23 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDate;
 import java.util.Set;
 
 /**
  * JPA Entity class representing tasks stored in the database.
+ * The tasks are kept in the second-level cache, the users of a task are not, as they are never read through it.
  */
 @Entity
 @Table(name = "TASKS")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Data
 @Builder
 @NoArgsConstructor
@@ -26,9 +33,11 @@ public class TaskEntity {
 
     /**
      * Unique identifier for the task.
+     * Taken from a pooled sequence, so inserts of several tasks can be sent to the database in JDBC batches.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "TASKS_SEQ")
+    @SequenceGenerator(name = "TASKS_SEQ", sequenceName = "TASKS_SEQ", allocationSize = 50)
     private Long id;
 
     /**
@@ -83,9 +92,18 @@ public class TaskEntity {
     @Column(name = "PERSONS_NEED")
     private Long personsNeeded;
 
+    /**
+     * Optimistic locking version of the task, incremented by every update.
+     */
+    @Version
+    @Column(name = "VERSION", nullable = false)
+    private Long version;
+
     /**
      * Set of users who are doing with this task.
      */
-    @ManyToMany(mappedBy = "tasks", fetch = FetchType.EAGER, cascade = CascadeType.ALL)
+    @ManyToMany(mappedBy = "tasks", fetch = FetchType.LAZY)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     private Set<UserEntity> users;
 }
\ No newline at end of file
@@ -8,27 +8,43 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDate;
 import java.util.Set;
 
 /**
  * JPA Entity class representing users stored in the database.
+ * The tasks are loaded lazily, endpoints that need them should use the {@value #WITH_TASKS_GRAPH} entity graph.
+ * The users and their task collections are kept in the second-level cache.
  */
 @Entity
 @Table(name = "USERS")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NamedEntityGraph(name = UserEntity.WITH_TASKS_GRAPH, attributeNodes = @NamedAttributeNode("tasks"))
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class UserEntity {
 
+    /**
+     * Name of the entity graph which loads the user together with its tasks.
+     */
+    public static final String WITH_TASKS_GRAPH = "UserEntity.tasks";
+
     /**
      * ID for the user.
+     * Taken from a pooled sequence, so imported users can be inserted in JDBC batches.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "USERS_SEQ")
+    @SequenceGenerator(name = "USERS_SEQ", sequenceName = "USERS_SEQ", allocationSize = 50)
     private Long id;
 
     /**
@@ -79,11 +95,22 @@ public class UserEntity {
     private WorkingStatus workingStatus;
 
     /**
-     * Set of tasks associated this  user is currently doing
+     * Optimistic locking version of the user, incremented by every update. Adding a task to the user also increments it.
+     */
+    @Version
+    @Column(name = "VERSION", nullable = false)
+    private Long version;
+
+    /**
+     * Set of tasks associated this  user is currently doing.
+     * Nothing is cascaded to the tasks, a task is only linked to or unlinked from the user.
      */
-    @ManyToMany(fetch = FetchType.EAGER, cascade = CascadeType.ALL)
+    @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(name = "USERS_TASKS",
             joinColumns = @JoinColumn(name = "USER_ID"),
             inverseJoinColumns = @JoinColumn(name = "TASK_ID"))
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     private Set<TaskEntity> tasks;
 }
\ No newline at end of file
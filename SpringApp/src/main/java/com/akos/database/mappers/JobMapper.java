@@ -0,0 +1,21 @@
+package com.akos.database.mappers;
+
+import com.akos.database.configuration.MapperConfig;
+import com.akos.database.dtos.JobDto;
+import com.akos.database.entities.JobEntity;
+
+/**
+ * Mapper from JobEntity to JobDto, its implementation is generated at compile time.
+ * Jobs are only created by the JobService, so there is no mapping back to the entity.
+ */
+@org.mapstruct.Mapper(config = MapperConfig.class)
+public interface JobMapper {
+
+    /**
+     * Converts a job to a DTO, the input file of the job is not exposed.
+     *
+     * @param entity The job to be converted.
+     * @return The corresponding DTO.
+     */
+    JobDto toDto(JobEntity entity);
+}
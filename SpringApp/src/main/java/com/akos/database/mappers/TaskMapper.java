@@ -1,41 +1,37 @@
 package com.akos.database.mappers;
 
+import com.akos.database.configuration.MapperConfig;
 import com.akos.database.dtos.TaskDto;
 import com.akos.database.entities.TaskEntity;
-import org.modelmapper.Conditions;
-import org.modelmapper.ModelMapper;
-import org.springframework.stereotype.Service;
+import org.mapstruct.BeanMapping;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
+import org.mapstruct.NullValuePropertyMappingStrategy;
 
 /**
- * Service class implementing the Mapper interface for mapping between TaskEntity and TaskDto.
+ * Mapper between TaskEntity and TaskDto, its implementation is generated at compile time.
+ * The version and the users of a task are never taken from a DTO.
  */
-@Service
-public class TaskMapper implements Mapper<TaskEntity, TaskDto> {
+@org.mapstruct.Mapper(config = MapperConfig.class)
+public interface TaskMapper extends Mapper<TaskEntity, TaskDto> {
 
-    private final ModelMapper modelMapper;
-
-    /**
-     * Constructs a TaskMapper with the provided ModelMapper instance.
-     *
-     * @param modelMapper The ModelMapper instance to be used for mapping.
-     */
-    public TaskMapper(ModelMapper modelMapper) {
-        this.modelMapper = modelMapper;
-        this.modelMapper.getConfiguration().setPropertyCondition(Conditions.isNotNull());
-    }
     @Override
-    public TaskDto toDto(TaskEntity task) {
-        return modelMapper.map(task, TaskDto.class);
-    }
+    TaskDto toDto(TaskEntity entity);
 
     @Override
-    public TaskEntity toEntity(TaskDto dto) {
-        return modelMapper.map(dto, TaskEntity.class);
-    }
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "users", ignore = true)
+    TaskEntity toEntity(TaskDto dto);
 
+    /**
+     * Updates a task with the non-null fields of a DTO.
+     *
+     * @param dto    The DTO containing information to update the task.
+     * @param entity The task to be updated.
+     */
     @Override
-    public void updateEntity(TaskDto dto, TaskEntity entity) {
-        modelMapper.map(dto, entity);
-    }
-
+    @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "users", ignore = true)
+    void updateEntity(TaskDto dto, @MappingTarget TaskEntity entity);
 }
@@ -1,40 +1,38 @@
 package com.akos.database.mappers;
 
+import com.akos.database.configuration.MapperConfig;
 import com.akos.database.dtos.UserDto;
 import com.akos.database.entities.UserEntity;
-import org.modelmapper.Conditions;
-import org.modelmapper.ModelMapper;
-import org.springframework.stereotype.Service;
+import org.mapstruct.BeanMapping;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
+import org.mapstruct.NullValuePropertyMappingStrategy;
 
 /**
- * Service class implementing the Mapper interface for mapping between UserEntity and UserDto.
+ * Mapper between UserEntity and UserDto, its implementation is generated at compile time.
+ * The tasks of a user are mapped into the DTO with the TaskMapper. Neither the version nor the tasks of a user are
+ * taken from a DTO, the services look the tasks of a DTO up by their IDs.
  */
-@Service
-public class UserMapper implements Mapper<UserEntity, UserDto> {
-    private final ModelMapper modelMapper;
-
-    /**
-     * Constructs a TaskMapper with the provided ModelMapper instance.
-     *
-     * @param modelMapper The ModelMapper instance to be used for mapping.
-     */
-    public UserMapper(ModelMapper modelMapper) {
-        this.modelMapper = modelMapper;
-        this.modelMapper.getConfiguration().setPropertyCondition(Conditions.isNotNull());
-    }
+@org.mapstruct.Mapper(config = MapperConfig.class, uses = TaskMapper.class)
+public interface UserMapper extends Mapper<UserEntity, UserDto> {
 
     @Override
-    public UserDto toDto(UserEntity user) {
-        return modelMapper.map(user, UserDto.class);
-    }
+    UserDto toDto(UserEntity entity);
 
     @Override
-    public UserEntity toEntity(UserDto dto) {
-        return modelMapper.map(dto, UserEntity.class);
-    }
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "tasks", ignore = true)
+    UserEntity toEntity(UserDto dto);
 
+    /**
+     * Updates a user with the non-null fields of a DTO, except the tasks.
+     *
+     * @param dto    The DTO containing information to update the user.
+     * @param entity The user to be updated.
+     */
     @Override
-    public void updateEntity(UserDto dto, UserEntity entity) {
-        modelMapper.map(dto, entity);
-    }
+    @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "tasks", ignore = true)
+    void updateEntity(UserDto dto, @MappingTarget UserEntity entity);
 }
@@ -0,0 +1,143 @@
+package com.akos.database.repositories;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cache.spi.access.CachedDomainDataAccess;
+import org.hibernate.cache.spi.access.CollectionDataAccess;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.persister.collection.CollectionPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiPredicate;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Soft locks on the second-level cache entries of the rows changed by a statement sent past Hibernate.
+ * The entries are locked before the statement, the way Hibernate locks the entities it updates itself, and unlocked
+ * when the transaction completes. No transaction can cache a locked entry, and once it is unlocked a changed row is
+ * only cached with a newer version than the one it was locked with. So neither a transaction which read the row
+ * before the commit nor a read-only transaction on a lagging replica can put the old state back.
+ * The entries of the rows which were not changed are evicted when they are unlocked, so they can be cached again.
+ */
+final class CacheLocks {
+    private final SessionFactoryImplementor sessionFactory;
+    private final SharedSessionContractImplementor session;
+    private final boolean temporarySession;
+    private final List<Lock> locks = new ArrayList<>();
+
+    /**
+     * Constructs CacheLocks taken in the session of the current transaction, or in a temporary session without one.
+     *
+     * @param entityManagerFactory The factory whose second-level cache holds the entries.
+     */
+    CacheLocks(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        EntityManager entityManager = EntityManagerFactoryUtils.getTransactionalEntityManager(entityManagerFactory);
+        this.temporarySession = entityManager == null;
+        this.session = temporarySession
+                ? sessionFactory.openTemporarySession()
+                : entityManager.unwrap(SharedSessionContractImplementor.class);
+    }
+
+    /**
+     * Locks the cache entry of an entity.
+     *
+     * @param entityType The entity class.
+     * @param id         The ID of the entity.
+     * @param version    The version of the entity before the statement.
+     * @return These CacheLocks.
+     */
+    CacheLocks lockEntity(Class<?> entityType, Object id, Object version) {
+        EntityPersister persister = sessionFactory.getMappingMetamodel().getEntityDescriptor(entityType);
+        EntityDataAccess access = persister.getCacheAccessStrategy();
+        if (access != null) {
+            lock(access, id, access.generateCacheKey(id, persister, sessionFactory, session.getTenantIdentifier()),
+                    version);
+        }
+        return this;
+    }
+
+    /**
+     * Locks the cache entry of a collection.
+     *
+     * @param role         The role of the collection, like {@code UserEntity.tasks}.
+     * @param ownerId      The ID of the entity owning the collection.
+     * @param ownerVersion The version of the owner before the statement, null if the statement does not change it.
+     * @return These CacheLocks.
+     */
+    CacheLocks lockCollection(String role, Object ownerId, Object ownerVersion) {
+        CollectionPersister persister = sessionFactory.getMappingMetamodel().getCollectionDescriptor(role);
+        CollectionDataAccess access = persister.getCacheAccessStrategy();
+        if (access != null) {
+            lock(access, ownerId,
+                    access.generateCacheKey(ownerId, persister, sessionFactory, session.getTenantIdentifier()),
+                    ownerVersion);
+        }
+        return this;
+    }
+
+    private void lock(CachedDomainDataAccess access, Object id, Object key, Object version) {
+        locks.add(new Lock(access, id, key, access.lockItem(session, key, version)));
+    }
+
+    /**
+     * Runs the statement while the entries are locked. They are unlocked when the current transaction completes,
+     * or at once without a transaction. After a rollback or a failed statement every entry is evicted.
+     *
+     * @param statement The statement changing the rows.
+     * @param changed   Tells from the result of the statement whether the row of an ID was changed.
+     * @param <T>       The type of the result.
+     * @return The result of the statement.
+     */
+    <T> T run(Supplier<T> statement, BiPredicate<T, Object> changed) {
+        T result;
+        try {
+            result = statement.get();
+        } catch (RuntimeException e) {
+            unlockOnCompletion(id -> false);
+            throw e;
+        }
+        unlockOnCompletion(id -> changed.test(result, id));
+        return result;
+    }
+
+    private void unlockOnCompletion(Predicate<Object> changed) {
+        if (temporarySession || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            unlock(changed);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                unlock(status == STATUS_COMMITTED ? changed : id -> false);
+            }
+        });
+    }
+
+    private void unlock(Predicate<Object> changed) {
+        try {
+            for (Lock lock : locks) {
+                lock.access().unlockItem(session, lock.key(), lock.softLock());
+                if (!changed.test(lock.id())) {
+                    lock.access().evict(lock.key());
+                }
+            }
+        } finally {
+            if (temporarySession) {
+                session.close();
+            }
+        }
+    }
+
+    private record Lock(CachedDomainDataAccess access, Object id, Object key, SoftLock softLock) {
+    }
+}
@@ -0,0 +1,161 @@
+package com.akos.database.repositories;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Query selecting only some fields of an entity, each row is returned as a map from the field names to their values
+ * in the requested order. The columns are read as tuples, so no entity is hydrated, put into the persistence context
+ * or read from the second-level cache.
+ */
+final class FieldProjection {
+    private static final String ID = "id";
+
+    private final EntityManager entityManager;
+    private final Class<?> entityType;
+    private final Set<String> selectableFields;
+
+    /**
+     * Constructs a FieldProjection.
+     *
+     * @param entityManager    The entity manager running the queries.
+     * @param entityType       The entity class whose fields are selected.
+     * @param selectableFields The names of the basic attributes which may be selected and sorted by.
+     */
+    FieldProjection(EntityManager entityManager, Class<?> entityType, Set<String> selectableFields) {
+        this.entityManager = entityManager;
+        this.entityType = entityType;
+        this.selectableFields = selectableFields;
+    }
+
+    /**
+     * Selects the fields of a page of entities, counting the entities only when the page does not tell the total.
+     *
+     * @param fields   The names of the fields to select.
+     * @param pageable The pagination information, the entities are ordered by ID when it is unsorted.
+     * @return A Page of the selected fields.
+     * @throws IllegalArgumentException if a field or a sort property cannot be selected.
+     */
+    Page<Map<String, Object>> findPage(Collection<String> fields, Pageable pageable) {
+        List<Map<String, Object>> content = find(fields, pageable, 0);
+        return PageableExecutionUtils.getPage(content, pageable, this::count);
+    }
+
+    /**
+     * Selects the fields of a slice of entities, reading one more row to tell whether there is a next slice.
+     *
+     * @param fields   The names of the fields to select.
+     * @param pageable The pagination information, the entities are ordered by ID when it is unsorted.
+     * @return A Slice of the selected fields.
+     * @throws IllegalArgumentException if a field or a sort property cannot be selected.
+     */
+    Slice<Map<String, Object>> findSlice(Collection<String> fields, Pageable pageable) {
+        List<Map<String, Object>> content = find(fields, pageable, 1);
+        boolean hasNext = pageable.isPaged() && content.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? content.subList(0, pageable.getPageSize()) : content, pageable, hasNext);
+    }
+
+    /**
+     * Selects the fields of an entity.
+     *
+     * @param id     The ID of the entity.
+     * @param fields The names of the fields to select.
+     * @return The selected fields, or empty if the entity is not found.
+     * @throws IllegalArgumentException if a field cannot be selected.
+     */
+    Optional<Map<String, Object>> findById(Long id, Collection<String> fields) {
+        List<String> selectedFields = validate(fields);
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<?> root = select(query, selectedFields);
+        query.where(builder.equal(root.get(ID), id));
+        return entityManager.createQuery(query).getResultList().stream()
+                .findFirst()
+                .map(tuple -> toMap(selectedFields, tuple));
+    }
+
+    private List<Map<String, Object>> find(Collection<String> fields, Pageable pageable, int extraRows) {
+        List<String> selectedFields = validate(fields);
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<?> root = select(query, selectedFields);
+        Sort sort = pageable.getSort().isSorted() ? pageable.getSort() : Sort.by(ID);
+        List<Order> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            if (!selectableFields.contains(order.getProperty())) {
+                throw new IllegalArgumentException("Unknown sort property: " + order.getProperty());
+            }
+            orders.add(order.isAscending()
+                    ? builder.asc(root.get(order.getProperty()))
+                    : builder.desc(root.get(order.getProperty())));
+        }
+        query.orderBy(orders);
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult(Math.toIntExact(pageable.getOffset()));
+            typedQuery.setMaxResults(pageable.getPageSize() + extraRows);
+        }
+        return typedQuery.getResultList().stream()
+                .map(tuple -> toMap(selectedFields, tuple))
+                .toList();
+    }
+
+    private Root<?> select(CriteriaQuery<Tuple> query, List<String> selectedFields) {
+        Root<?> root = query.from(entityType);
+        query.multiselect(selectedFields.stream()
+                .<Selection<?>>map(field -> root.get(field).alias(field))
+                .toList());
+        return root;
+    }
+
+    private long count() {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = builder.createQuery(Long.class);
+        query.select(builder.count(query.from(entityType)));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private List<String> validate(Collection<String> fields) {
+        Set<String> selectedFields = new LinkedHashSet<>();
+        for (String field : fields) {
+            String name = field.trim();
+            if (!selectableFields.contains(name)) {
+                throw new IllegalArgumentException("Unknown field: " + name);
+            }
+            selectedFields.add(name);
+        }
+        if (selectedFields.isEmpty()) {
+            throw new IllegalArgumentException("At least one field has to be selected");
+        }
+        return List.copyOf(selectedFields);
+    }
+
+    private static Map<String, Object> toMap(List<String> fields, Tuple tuple) {
+        Map<String, Object> row = new LinkedHashMap<>(fields.size() * 2);
+        for (int i = 0; i < fields.size(); i++) {
+            row.put(fields.get(i), tuple.get(i));
+        }
+        return row;
+    }
+}
@@ -0,0 +1,46 @@
+package com.akos.database.repositories;
+
+import com.akos.database.entities.JobEntity;
+import com.akos.database.entities.JobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository interface for managing JobEntity instances.
+ * It is not exported by Spring Data REST, the jobs are only submitted and polled through the JobController.
+ */
+@Repository
+@RepositoryRestResource(exported = false)
+public interface JobRepository extends JpaRepository<JobEntity, Long> {
+
+    /**
+     * Retrieves the jobs with one of the specified statuses in ID order.
+     *
+     * @param statuses The JobStatuses to match.
+     * @return The jobs with one of the statuses.
+     */
+    List<JobEntity> findByStatusInOrderById(Collection<JobStatus> statuses);
+
+    /**
+     * Sets the status and the finish time of a job with a single UPDATE statement, leaving its progress and errors.
+     * Used when the job itself could not be saved, so it does not stay running.
+     *
+     * @param id         The ID of the job.
+     * @param status     The final JobStatus of the job.
+     * @param finishedAt The time the job finished.
+     * @return The number of updated jobs.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE JobEntity j SET j.status = :status, j.finishedAt = :finishedAt WHERE j.id = :id")
+    int updateStatus(@Param("id") Long id, @Param("status") JobStatus status, @Param("finishedAt") Instant finishedAt);
+}
@@ -0,0 +1,121 @@
+package com.akos.database.repositories;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Builder of an UPDATE statement which sets only the non-null values of one row and increments its version.
+ * The statement is sent with JDBC, bypassing the persistence context. Unlike a JPQL bulk update, which would clear
+ * the whole second-level cache region of the entity, only the cache entry of the updated entity is locked until the
+ * commit, with the version the row had before the update.
+ */
+final class PartialUpdate {
+    private final Class<?> entityType;
+    private final String table;
+    private final Map<String, Object> assignments = new LinkedHashMap<>();
+
+    /**
+     * Constructs a PartialUpdate.
+     *
+     * @param entityType The entity class mapped to the table.
+     * @param table      The table of the row to be updated.
+     */
+    PartialUpdate(Class<?> entityType, String table) {
+        this.entityType = entityType;
+        this.table = table;
+    }
+
+    /**
+     * Sets a column, if the value is not null.
+     *
+     * @param column The column to be set.
+     * @param value  The new value, enums are stored by their name.
+     * @return This PartialUpdate.
+     */
+    PartialUpdate set(String column, Object value) {
+        if (value != null) {
+            assignments.put(column, value instanceof Enum<?> enumValue ? enumValue.name() : value);
+        }
+        return this;
+    }
+
+    /**
+     * Executes the update. Without any non-null value the row is only matched, its version is not incremented.
+     * Without an expected version the row is read and locked first, its version is needed to lock the cache entry.
+     *
+     * @param jdbcTemplate         The JdbcTemplate taking part in the current transaction.
+     * @param entityManagerFactory The factory whose second-level cache holds the entity.
+     * @param id                   The ID of the row.
+     * @param expectedVersion      The version the row must have, null to update any version.
+     * @return The number of matched rows, 0 if the row is not found or has another version.
+     */
+    int execute(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory, Long id, Long expectedVersion) {
+        return execute(jdbcTemplate, entityManagerFactory, id, expectedVersion, (resultSet, rowNum) -> 1, "id")
+                .orElse(0);
+    }
+
+    /**
+     * Executes the update like {@link #execute(JdbcTemplate, EntityManagerFactory, Long, Long)}, and returns columns
+     * of the updated row from the same statement, with RETURNING on PostgreSQL.
+     *
+     * @param jdbcTemplate         The JdbcTemplate taking part in the current transaction.
+     * @param entityManagerFactory The factory whose second-level cache holds the entity.
+     * @param id                   The ID of the row.
+     * @param expectedVersion      The version the row must have, null to update any version.
+     * @param rowMapper            The mapper of the returned columns.
+     * @param returnedColumns      The columns of the updated row to be returned.
+     * @param <T>                  The type of the mapped row.
+     * @return The mapped row, empty if the row is not found or has another version.
+     */
+    <T> Optional<T> execute(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory, Long id,
+                            Long expectedVersion, RowMapper<T> rowMapper, String... returnedColumns) {
+        if (assignments.isEmpty()) {
+            return update(jdbcTemplate, "version = version", id, expectedVersion, rowMapper, returnedColumns);
+        }
+        Long previousVersion = expectedVersion != null ? expectedVersion : jdbcTemplate.query(
+                "SELECT version FROM " + table + " WHERE id = ? FOR UPDATE",
+                resultSet -> resultSet.next() ? resultSet.getLong(1) : null, id);
+        if (previousVersion == null) {
+            return Optional.empty();
+        }
+        return new CacheLocks(entityManagerFactory)
+                .lockEntity(entityType, id, previousVersion)
+                .run(() -> update(jdbcTemplate, "version = version + 1", id, previousVersion, rowMapper,
+                        returnedColumns), (updatedRow, updatedId) -> updatedRow.isPresent());
+    }
+
+    private <T> Optional<T> update(JdbcTemplate jdbcTemplate, String versionAssignment, Long id, Long expectedVersion,
+                                   RowMapper<T> rowMapper, String[] returnedColumns) {
+        List<Object> arguments = new ArrayList<>(assignments.values());
+        StringBuilder sql = new StringBuilder("UPDATE ").append(table).append(" SET ");
+        assignments.keySet().forEach(column -> sql.append(column).append(" = ?, "));
+        sql.append(versionAssignment).append(" WHERE id = ?");
+        arguments.add(id);
+        if (expectedVersion != null) {
+            sql.append(" AND version = ?");
+            arguments.add(expectedVersion);
+        }
+        return jdbcTemplate.execute(
+                (Connection connection) -> connection.prepareStatement(sql.toString(), returnedColumns),
+                (PreparedStatement statement) -> {
+                    new ArgumentPreparedStatementSetter(arguments.toArray()).setValues(statement);
+                    if (statement.executeUpdate() == 0) {
+                        return Optional.empty();
+                    }
+                    try (ResultSet updatedRow = statement.getGeneratedKeys()) {
+                        return updatedRow.next() ? Optional.of(rowMapper.mapRow(updatedRow, 0)) : Optional.empty();
+                    }
+                });
+    }
+}
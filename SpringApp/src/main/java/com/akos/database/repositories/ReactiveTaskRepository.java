@@ -0,0 +1,101 @@
+package com.akos.database.repositories;
+
+import com.akos.database.dtos.TaskDto;
+import com.akos.database.entities.TaskState;
+import com.akos.database.entities.TaskType;
+import io.r2dbc.spi.Readable;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDate;
+import java.util.Collection;
+
+/**
+ * Non-blocking repository reading tasks as DTOs over R2DBC.
+ * The tasks are emitted in ID order as they are fetched, the database is asked for the next rows only
+ * when the subscriber has requested them, so a slow subscriber slows the query down instead of being buffered for.
+ */
+@Repository
+public class ReactiveTaskRepository {
+
+    /**
+     * The number of rows fetched from the database at once.
+     */
+    static final int FETCH_SIZE = 250;
+
+    private static final String SELECT_TASKS = "SELECT id, name, description, worktime_in_hours_per_week_per_person, "
+            + "type, deadline, state, weeks_needed, persons_need FROM tasks";
+
+    private final DatabaseClient databaseClient;
+
+    /**
+     * Constructs a ReactiveTaskRepository.
+     *
+     * @param databaseClient The client running the queries on the R2DBC connection pool.
+     */
+    public ReactiveTaskRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    /**
+     * Streams all tasks in ID order.
+     *
+     * @return A Flux of all tasks.
+     */
+    public Flux<TaskDto> findAll() {
+        return databaseClient.sql(SELECT_TASKS + " ORDER BY id")
+                .filter((statement, next) -> next.execute(statement.fetchSize(FETCH_SIZE)))
+                .map(row -> toDto(row, ""))
+                .all();
+    }
+
+    /**
+     * Streams the tasks with one of the specified states in ID order.
+     *
+     * @param taskStates The TaskStates to match.
+     * @return A Flux of the tasks with one of the states.
+     */
+    public Flux<TaskDto> findByStateIn(Collection<TaskState> taskStates) {
+        return databaseClient.sql(SELECT_TASKS + " WHERE state IN (:states) ORDER BY id")
+                .bind("states", taskStates.stream().map(TaskState::name).toList())
+                .filter((statement, next) -> next.execute(statement.fetchSize(FETCH_SIZE)))
+                .map(row -> toDto(row, ""))
+                .all();
+    }
+
+    /**
+     * Streams the tasks with a specific type in ID order.
+     *
+     * @param taskType The TaskType to match.
+     * @return A Flux of the tasks with the type.
+     */
+    public Flux<TaskDto> findByType(TaskType taskType) {
+        return databaseClient.sql(SELECT_TASKS + " WHERE type = :type ORDER BY id")
+                .bind("type", taskType.name())
+                .filter((statement, next) -> next.execute(statement.fetchSize(FETCH_SIZE)))
+                .map(row -> toDto(row, ""))
+                .all();
+    }
+
+    /**
+     * Maps the task columns of a row, the column names are prefixed when the tasks are joined to other tables.
+     *
+     * @param row    The row.
+     * @param prefix The prefix of the task columns.
+     * @return The task of the row.
+     */
+    static TaskDto toDto(Readable row, String prefix) {
+        return TaskDto.builder()
+                .id(row.get(prefix + "id", Long.class))
+                .name(row.get(prefix + "name", String.class))
+                .description(row.get(prefix + "description", String.class))
+                .workTimePerWeekPerPerson(row.get(prefix + "worktime_in_hours_per_week_per_person", Long.class))
+                .type(TaskType.valueOf(row.get(prefix + "type", String.class)))
+                .deadLine(row.get(prefix + "deadline", LocalDate.class))
+                .state(TaskState.valueOf(row.get(prefix + "state", String.class)))
+                .weeksNeeded(row.get(prefix + "weeks_needed", Long.class))
+                .personsNeeded(row.get(prefix + "persons_need", Long.class))
+                .build();
+    }
+}
@@ -0,0 +1,113 @@
+package com.akos.database.repositories;
+
+import com.akos.database.dtos.TaskDto;
+import com.akos.database.dtos.UserDto;
+import com.akos.database.entities.Gender;
+import com.akos.database.entities.UserRank;
+import com.akos.database.entities.WorkingStatus;
+import io.r2dbc.spi.Readable;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDate;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Non-blocking repository reading users with their tasks as DTOs over R2DBC.
+ * The users are joined to their tasks in a single query ordered by the user ID, so the rows of a user follow each
+ * other and a user is emitted as soon as its last row is read, without holding more than one user in memory.
+ */
+@Repository
+public class ReactiveUserRepository {
+
+    private static final String SELECT_USERS_WITH_TASKS = "SELECT u.id, u.first_name, u.family_name, "
+            + "u.workhours_per_week, u.rank, u.birthdate, u.gender, u.working_status, "
+            + "t.id AS task_id, t.name AS task_name, t.description AS task_description, "
+            + "t.worktime_in_hours_per_week_per_person AS task_worktime_in_hours_per_week_per_person, "
+            + "t.type AS task_type, t.deadline AS task_deadline, t.state AS task_state, "
+            + "t.weeks_needed AS task_weeks_needed, t.persons_need AS task_persons_need "
+            + "FROM users u LEFT JOIN users_tasks ut ON ut.user_id = u.id LEFT JOIN tasks t ON t.id = ut.task_id";
+    private static final String TASK_COLUMN_PREFIX = "task_";
+
+    private final DatabaseClient databaseClient;
+
+    /**
+     * Constructs a ReactiveUserRepository.
+     *
+     * @param databaseClient The client running the queries on the R2DBC connection pool.
+     */
+    public ReactiveUserRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    /**
+     * Streams the users with a specific WorkingStatus in ID order.
+     *
+     * @param workingStatus The WorkingStatus to match.
+     * @return A Flux of the users with the WorkingStatus, with their tasks.
+     */
+    public Flux<UserDto> findByWorkingStatus(WorkingStatus workingStatus) {
+        return groupByUser(databaseClient.sql(SELECT_USERS_WITH_TASKS + " WHERE u.working_status = :status ORDER BY u.id")
+                .bind("status", workingStatus.name())
+                .filter((statement, next) -> next.execute(statement.fetchSize(ReactiveTaskRepository.FETCH_SIZE)))
+                .map(ReactiveUserRepository::toRow)
+                .all());
+    }
+
+    /**
+     * Streams the users with a specific UserRank in ID order.
+     *
+     * @param rank The UserRank to match.
+     * @return A Flux of the users with the UserRank, with their tasks.
+     */
+    public Flux<UserDto> findByRank(UserRank rank) {
+        return groupByUser(databaseClient.sql(SELECT_USERS_WITH_TASKS + " WHERE u.rank = :rank ORDER BY u.id")
+                .bind("rank", rank.name())
+                .filter((statement, next) -> next.execute(statement.fetchSize(ReactiveTaskRepository.FETCH_SIZE)))
+                .map(ReactiveUserRepository::toRow)
+                .all());
+    }
+
+    private static Flux<UserDto> groupByUser(Flux<UserTaskRow> rows) {
+        return rows.bufferUntilChanged(row -> row.user().getId())
+                .map(ReactiveUserRepository::toDto);
+    }
+
+    private static UserDto toDto(List<UserTaskRow> rows) {
+        UserDto user = rows.get(0).user();
+        Set<TaskDto> tasks = new LinkedHashSet<>();
+        for (UserTaskRow row : rows) {
+            if (row.task() != null) {
+                tasks.add(row.task());
+            }
+        }
+        user.setTasks(tasks);
+        return user;
+    }
+
+    private static UserTaskRow toRow(Readable row) {
+        String gender = row.get("gender", String.class);
+        String workingStatus = row.get("working_status", String.class);
+        UserDto user = UserDto.builder()
+                .id(row.get("id", Long.class))
+                .firstName(row.get("first_name", String.class))
+                .familyName(row.get("family_name", String.class))
+                .workHoursPerWeek(row.get("workhours_per_week", Long.class))
+                .rank(UserRank.valueOf(row.get("rank", String.class)))
+                .birthDate(row.get("birthdate", LocalDate.class))
+                .gender(gender == null ? null : Gender.valueOf(gender))
+                .workingStatus(workingStatus == null ? null : WorkingStatus.valueOf(workingStatus))
+                .build();
+        TaskDto task = row.get("task_id") == null ? null : ReactiveTaskRepository.toDto(row, TASK_COLUMN_PREFIX);
+        return new UserTaskRow(user, task);
+    }
+
+    /**
+     * A row of the join, a user with one of its tasks, or without a task if the user has none.
+     */
+    private record UserTaskRow(UserDto user, TaskDto task) {
+    }
+}
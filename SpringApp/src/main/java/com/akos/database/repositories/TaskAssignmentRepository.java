@@ -0,0 +1,32 @@
+package com.akos.database.repositories;
+
+import com.akos.database.dtos.TaskAssignmentDto;
+
+import java.util.List;
+
+/**
+ * Repository fragment assigning tasks to users by inserting into the join table only.
+ */
+public interface TaskAssignmentRepository {
+
+    /**
+     * Assigns a task to a user, if both exist, the task has not been completed and it is not assigned to the user yet.
+     * The version of the user is incremented when the task is assigned.
+     *
+     * @param userId The ID of the user.
+     * @param taskId The ID of the task.
+     * @return 1 if the task has been assigned, otherwise 0.
+     */
+    int assignTask(Long userId, Long taskId);
+
+    /**
+     * Assigns tasks to users in JDBC batches, with the same conditions as {@link #assignTask(Long, Long)}.
+     * When the driver does not report the count of a batched statement, the assignment counts as assigned
+     * if the user has the task after the batch.
+     *
+     * @param assignments The pairs of users and tasks.
+     * @param batchSize   The number of assignments sent to the database in one JDBC batch.
+     * @return The number of assigned tasks for every assignment, in the order of the input.
+     */
+    int[] assignTasks(List<TaskAssignmentDto> assignments, int batchSize);
+}
@@ -0,0 +1,159 @@
+package com.akos.database.repositories;
+
+import com.akos.database.configuration.SecondLevelCacheConfig;
+import com.akos.database.dtos.TaskAssignmentDto;
+import com.akos.database.entities.UserEntity;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * JDBC implementation of the TaskAssignmentRepository fragment.
+ * The guards on the user and on the state of the task are part of the INSERT, and an existing assignment, even one
+ * inserted by a concurrent transaction, is skipped by the conflict clause instead of failing the transaction.
+ * So an assignment is a single statement which neither loads nor cascades to the user or the task.
+ * The versions of the users who got a task are incremented with one more statement. The users are read FOR UPDATE
+ * first, their versions are needed to lock their second-level cache entries until the commit.
+ */
+public class TaskAssignmentRepositoryImpl implements TaskAssignmentRepository {
+    private static final String ASSIGN_TASK = """
+            INSERT INTO users_tasks (user_id, task_id)
+            SELECT u.id, t.id FROM users u JOIN tasks t ON t.id = ?
+            WHERE u.id = ? AND t.state <> 'COMPLETED'
+            ON CONFLICT DO NOTHING""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Constructs a TaskAssignmentRepositoryImpl.
+     *
+     * @param jdbcTemplate         The JdbcTemplate used for the INSERT statements.
+     * @param entityManagerFactory The factory whose second-level cache holds the users and their tasks.
+     */
+    public TaskAssignmentRepositoryImpl(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Override
+    public int assignTask(Long userId, Long taskId) {
+        Map<Long, Long> versions = lockUsers(List.of(userId), 1);
+        if (versions.isEmpty()) {
+            return 0;
+        }
+        return lockCacheEntries(versions).run(() -> {
+            int assigned = jdbcTemplate.update(ASSIGN_TASK, taskId, userId);
+            if (assigned > 0) {
+                incrementVersions(Set.of(userId));
+            }
+            return assigned;
+        }, (assigned, id) -> assigned > 0);
+    }
+
+    @Override
+    public int[] assignTasks(List<TaskAssignmentDto> assignments, int batchSize) {
+        Map<Long, Long> versions = lockUsers(
+                assignments.stream().map(TaskAssignmentDto::getUserId).distinct().toList(), batchSize);
+        Set<Long> userIds = new HashSet<>();
+        return lockCacheEntries(versions).run(() -> {
+            int[][] batches = jdbcTemplate.batchUpdate(ASSIGN_TASK, assignments, batchSize, (statement, assignment) -> {
+                statement.setLong(1, assignment.getTaskId());
+                statement.setLong(2, assignment.getUserId());
+            });
+            int[] assigned = Arrays.stream(batches).flatMapToInt(Arrays::stream).toArray();
+            resolveUnknownCounts(assignments, assigned, batchSize);
+
+            for (int i = 0; i < assigned.length; i++) {
+                if (assigned[i] > 0) {
+                    userIds.add(assignments.get(i).getUserId());
+                }
+            }
+            incrementVersions(userIds);
+            return assigned;
+        }, (assigned, id) -> userIds.contains(id));
+    }
+
+    /**
+     * Reads the versions of the existing users and locks their rows until the commit, in chunks of the batch size.
+     */
+    private Map<Long, Long> lockUsers(List<Long> userIds, int batchSize) {
+        Map<Long, Long> versions = new HashMap<>();
+        for (int from = 0; from < userIds.size(); from += batchSize) {
+            List<Long> chunk = userIds.subList(from, Math.min(from + batchSize, userIds.size()));
+            String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+            jdbcTemplate.query("SELECT id, version FROM users WHERE id IN (" + placeholders + ") FOR UPDATE",
+                    (RowCallbackHandler) resultSet -> versions.put(resultSet.getLong(1), resultSet.getLong(2)),
+                    chunk.toArray());
+        }
+        return versions;
+    }
+
+    /**
+     * Locks the cache entries of the users and of their tasks with the versions the users had.
+     */
+    private CacheLocks lockCacheEntries(Map<Long, Long> versions) {
+        CacheLocks cacheLocks = new CacheLocks(entityManagerFactory);
+        versions.forEach((userId, version) -> cacheLocks
+                .lockEntity(UserEntity.class, userId, version)
+                .lockCollection(SecondLevelCacheConfig.USER_TASKS_REGION, userId, version));
+        return cacheLocks;
+    }
+
+    /**
+     * Replaces the counts the driver did not report, like a PostgreSQL driver rewriting the batches,
+     * by whether the user has the task after the batch. The first of the repeated assignments gets the count.
+     */
+    private void resolveUnknownCounts(List<TaskAssignmentDto> assignments, int[] assigned, int batchSize) {
+        List<Integer> unknown = new ArrayList<>();
+        for (int i = 0; i < assigned.length; i++) {
+            if (assigned[i] == Statement.SUCCESS_NO_INFO) {
+                unknown.add(i);
+            }
+        }
+        Set<List<Long>> counted = new HashSet<>();
+        for (int from = 0; from < unknown.size(); from += batchSize) {
+            List<Integer> chunk = unknown.subList(from, Math.min(from + batchSize, unknown.size()));
+            Set<List<Long>> existing = findExisting(chunk.stream().map(assignments::get).toList());
+            for (int i : chunk) {
+                List<Long> pair = List.of(assignments.get(i).getUserId(), assignments.get(i).getTaskId());
+                assigned[i] = existing.contains(pair) && counted.add(pair) ? 1 : 0;
+            }
+        }
+    }
+
+    private Set<List<Long>> findExisting(List<TaskAssignmentDto> assignments) {
+        List<Object> arguments = new ArrayList<>(assignments.size() * 2);
+        assignments.forEach(assignment -> {
+            arguments.add(assignment.getUserId());
+            arguments.add(assignment.getTaskId());
+        });
+        String placeholders = String.join(", ", Collections.nCopies(assignments.size(), "(?, ?)"));
+        return new HashSet<>(jdbcTemplate.query("SELECT user_id, task_id FROM users_tasks WHERE (user_id, task_id) IN ("
+                        + placeholders + ")",
+                (resultSet, rowNum) -> List.of(resultSet.getLong(1), resultSet.getLong(2)), arguments.toArray()));
+    }
+
+    /**
+     * Increments the versions of the users who got a task, so a concurrent update of a user cannot overwrite
+     * their new tasks, and a user or their tasks read before the commit cannot be cached afterwards.
+     */
+    private void incrementVersions(Set<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        String placeholders = String.join(", ", Collections.nCopies(userIds.size(), "?"));
+        jdbcTemplate.update("UPDATE users SET version = version + 1 WHERE id IN (" + placeholders + ")",
+                userIds.toArray());
+    }
+}
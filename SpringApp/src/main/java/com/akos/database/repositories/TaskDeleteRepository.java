@@ -0,0 +1,30 @@
+package com.akos.database.repositories;
+
+import com.akos.database.entities.TaskState;
+
+import java.util.Collection;
+
+/**
+ * Repository fragment deleting tasks with single DELETE statements.
+ * The assignments of the deleted tasks are deleted by the database, the users of the tasks are kept.
+ */
+public interface TaskDeleteRepository {
+
+    /**
+     * Deletes the tasks with the specified IDs.
+     *
+     * @param ids     The IDs of the tasks.
+     * @param userIds The IDs of the users who have any of the tasks, their cached task collections are locked.
+     * @return The number of deleted tasks.
+     */
+    int deleteTasksByIdIn(Collection<Long> ids, Collection<Long> userIds);
+
+    /**
+     * Deletes the tasks with the specified state.
+     *
+     * @param state   The TaskState of the tasks.
+     * @param userIds The IDs of the users who have any of the tasks, their cached task collections are locked.
+     * @return The number of deleted tasks.
+     */
+    int deleteTasksByState(TaskState state, Collection<Long> userIds);
+}
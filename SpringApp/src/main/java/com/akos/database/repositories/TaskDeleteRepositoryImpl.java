@@ -0,0 +1,70 @@
+package com.akos.database.repositories;
+
+import com.akos.database.configuration.SecondLevelCacheConfig;
+import com.akos.database.entities.TaskEntity;
+import com.akos.database.entities.TaskState;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * JDBC implementation of the TaskDeleteRepository fragment.
+ * Only the second-level cache entries of the deleted tasks and of the task collections of their users are locked
+ * until the commit, a JPQL bulk delete would evict every cached task. The tasks are read FOR UPDATE first, their
+ * versions are needed to lock their cache entries, and only the tasks read are deleted.
+ */
+public class TaskDeleteRepositoryImpl implements TaskDeleteRepository {
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Constructs a TaskDeleteRepositoryImpl.
+     *
+     * @param jdbcTemplate         The JdbcTemplate used for the DELETE statements.
+     * @param entityManagerFactory The factory whose second-level cache holds the tasks.
+     */
+    public TaskDeleteRepositoryImpl(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Override
+    public int deleteTasksByIdIn(Collection<Long> ids, Collection<Long> userIds) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        return delete(findVersions("id IN (" + placeholders + ")", ids.toArray()), userIds);
+    }
+
+    @Override
+    public int deleteTasksByState(TaskState state, Collection<Long> userIds) {
+        return delete(findVersions("state = ?", state.name()), userIds);
+    }
+
+    private Map<Long, Long> findVersions(String condition, Object... arguments) {
+        Map<Long, Long> versions = new HashMap<>();
+        jdbcTemplate.query("SELECT id, version FROM tasks WHERE " + condition + " FOR UPDATE",
+                (RowCallbackHandler) resultSet -> versions.put(resultSet.getLong(1), resultSet.getLong(2)),
+                arguments);
+        return versions;
+    }
+
+    private int delete(Map<Long, Long> versions, Collection<Long> userIds) {
+        if (versions.isEmpty()) {
+            return 0;
+        }
+        CacheLocks cacheLocks = new CacheLocks(entityManagerFactory);
+        versions.forEach((id, version) -> cacheLocks.lockEntity(TaskEntity.class, id, version));
+        // The versions of the users do not change, their task collections are only locked until the commit
+        userIds.forEach(userId -> cacheLocks.lockCollection(SecondLevelCacheConfig.USER_TASKS_REGION, userId, null));
+        String placeholders = String.join(", ", Collections.nCopies(versions.size(), "?"));
+        return cacheLocks.run(() -> jdbcTemplate.update("DELETE FROM tasks WHERE id IN (" + placeholders + ")",
+                versions.keySet().toArray()), (deletedTasks, id) -> deletedTasks > 0);
+    }
+}
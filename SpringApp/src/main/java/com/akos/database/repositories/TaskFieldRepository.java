@@ -0,0 +1,46 @@
+package com.akos.database.repositories;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Repository fragment selecting only the requested fields of the tasks.
+ * The fields are named as in TaskDto and mapped to the attributes of the same name.
+ */
+public interface TaskFieldRepository {
+
+    /**
+     * Selects the fields of a page of tasks.
+     *
+     * @param fields   The names of the fields to select.
+     * @param pageable The pagination information, the tasks are ordered by ID when it is unsorted.
+     * @return A Page of the selected fields, in the requested order.
+     * @throws IllegalArgumentException if a field or a sort property is unknown.
+     */
+    Page<Map<String, Object>> findFieldsBy(Collection<String> fields, Pageable pageable);
+
+    /**
+     * Selects the fields of a slice of tasks, without counting the tasks.
+     *
+     * @param fields   The names of the fields to select.
+     * @param pageable The pagination information, the tasks are ordered by ID when it is unsorted.
+     * @return A Slice of the selected fields, in the requested order.
+     * @throws IllegalArgumentException if a field or a sort property is unknown.
+     */
+    Slice<Map<String, Object>> findFieldsSliceBy(Collection<String> fields, Pageable pageable);
+
+    /**
+     * Selects the fields of a task.
+     *
+     * @param id     The ID of the task.
+     * @param fields The names of the fields to select.
+     * @return The selected fields in the requested order, or empty if the task is not found.
+     * @throws IllegalArgumentException if a field is unknown.
+     */
+    Optional<Map<String, Object>> findFieldsById(Long id, Collection<String> fields);
+}
@@ -0,0 +1,46 @@
+package com.akos.database.repositories;
+
+import com.akos.database.entities.TaskEntity;
+import jakarta.persistence.EntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Criteria implementation of the TaskFieldRepository fragment, selecting the columns of the fields only.
+ */
+public class TaskFieldRepositoryImpl implements TaskFieldRepository {
+    private static final Set<String> FIELDS = Set.of("id", "name", "description", "workTimePerWeekPerPerson", "type",
+            "deadLine", "state", "weeksNeeded", "personsNeeded");
+
+    private final FieldProjection projection;
+
+    /**
+     * Constructs a TaskFieldRepositoryImpl.
+     *
+     * @param entityManager The entity manager running the queries.
+     */
+    public TaskFieldRepositoryImpl(EntityManager entityManager) {
+        this.projection = new FieldProjection(entityManager, TaskEntity.class, FIELDS);
+    }
+
+    @Override
+    public Page<Map<String, Object>> findFieldsBy(Collection<String> fields, Pageable pageable) {
+        return projection.findPage(fields, pageable);
+    }
+
+    @Override
+    public Slice<Map<String, Object>> findFieldsSliceBy(Collection<String> fields, Pageable pageable) {
+        return projection.findSlice(fields, pageable);
+    }
+
+    @Override
+    public Optional<Map<String, Object>> findFieldsById(Long id, Collection<String> fields) {
+        return projection.findById(id, fields);
+    }
+}
@@ -0,0 +1,42 @@
+package com.akos.database.repositories;
+
+import com.akos.database.dtos.TaskDto;
+import com.akos.database.entities.TaskState;
+
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Repository fragment updating tasks without loading them.
+ */
+public interface TaskPartialUpdateRepository {
+
+    /**
+     * Updates the non-null fields of a task with a single UPDATE statement and increments its version.
+     * The updated task is returned by the same statement.
+     *
+     * @param id              The ID of the task.
+     * @param partialTaskDto  The partial task DTO containing the new values.
+     * @param expectedVersion The version the task must have, null to update any version.
+     * @return The updated task, empty if the task is not found or has another version.
+     */
+    Optional<UpdatedTask> updateNonNullFields(Long id, TaskDto partialTaskDto, Long expectedVersion);
+
+    /**
+     * Sets the state of the specified tasks with a single UPDATE statement and increments their versions.
+     *
+     * @param ids   The IDs of the tasks.
+     * @param state The new state of the tasks.
+     * @return The number of updated tasks.
+     */
+    int updateStateByIdIn(Collection<Long> ids, TaskState state);
+
+    /**
+     * A task as it was updated, with its new version.
+     *
+     * @param task    The DTO of the updated task.
+     * @param version The version of the updated task.
+     */
+    record UpdatedTask(TaskDto task, Long version) {
+    }
+}
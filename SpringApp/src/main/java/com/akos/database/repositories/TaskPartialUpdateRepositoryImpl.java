@@ -0,0 +1,92 @@
+package com.akos.database.repositories;
+
+import com.akos.database.dtos.TaskDto;
+import com.akos.database.entities.TaskEntity;
+import com.akos.database.entities.TaskState;
+import com.akos.database.entities.TaskType;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * JDBC implementation of the TaskPartialUpdateRepository fragment.
+ */
+public class TaskPartialUpdateRepositoryImpl implements TaskPartialUpdateRepository {
+    private static final String[] UPDATED_TASK_COLUMNS = {"id", "name", "description",
+            "worktime_in_hours_per_week_per_person", "type", "deadline", "state", "weeks_needed", "persons_need",
+            "version"};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Constructs a TaskPartialUpdateRepositoryImpl.
+     *
+     * @param jdbcTemplate         The JdbcTemplate used for the UPDATE statements.
+     * @param entityManagerFactory The factory whose second-level cache holds the tasks.
+     */
+    public TaskPartialUpdateRepositoryImpl(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Override
+    public Optional<UpdatedTask> updateNonNullFields(Long id, TaskDto partialTaskDto, Long expectedVersion) {
+        return new PartialUpdate(TaskEntity.class, "tasks")
+                .set("name", partialTaskDto.getName())
+                .set("description", partialTaskDto.getDescription())
+                .set("worktime_in_hours_per_week_per_person", partialTaskDto.getWorkTimePerWeekPerPerson())
+                .set("type", partialTaskDto.getType())
+                .set("deadline", partialTaskDto.getDeadLine())
+                .set("state", partialTaskDto.getState())
+                .set("weeks_needed", partialTaskDto.getWeeksNeeded())
+                .set("persons_need", partialTaskDto.getPersonsNeeded())
+                .execute(jdbcTemplate, entityManagerFactory, id, expectedVersion, (resultSet, rowNum) -> new UpdatedTask(
+                        TaskDto.builder()
+                                .id(resultSet.getLong("id"))
+                                .name(resultSet.getString("name"))
+                                .description(resultSet.getString("description"))
+                                .workTimePerWeekPerPerson(resultSet.getLong("worktime_in_hours_per_week_per_person"))
+                                .type(TaskType.valueOf(resultSet.getString("type")))
+                                .deadLine(resultSet.getObject("deadline", LocalDate.class))
+                                .state(TaskState.valueOf(resultSet.getString("state")))
+                                .weeksNeeded(resultSet.getLong("weeks_needed"))
+                                .personsNeeded(resultSet.getObject("persons_need", Long.class))
+                                .build(),
+                        resultSet.getLong("version")), UPDATED_TASK_COLUMNS);
+    }
+
+    @Override
+    public int updateStateByIdIn(Collection<Long> ids, TaskState state) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        // The tasks are locked, so their versions stay the ones their cache entries are locked with
+        Map<Long, Long> versions = new HashMap<>();
+        jdbcTemplate.query("SELECT id, version FROM tasks WHERE id IN (" + placeholders + ") FOR UPDATE",
+                (RowCallbackHandler) resultSet -> versions.put(resultSet.getLong(1), resultSet.getLong(2)),
+                ids.toArray());
+        if (versions.isEmpty()) {
+            return 0;
+        }
+
+        CacheLocks cacheLocks = new CacheLocks(entityManagerFactory);
+        versions.forEach((id, version) -> cacheLocks.lockEntity(TaskEntity.class, id, version));
+        List<Object> arguments = new ArrayList<>(versions.size() + 1);
+        arguments.add(state.name());
+        arguments.addAll(versions.keySet());
+        String lockedPlaceholders = String.join(", ", Collections.nCopies(versions.size(), "?"));
+        return cacheLocks.run(() -> jdbcTemplate.update("UPDATE tasks SET state = ?, version = version + 1 WHERE id IN ("
+                + lockedPlaceholders + ")", arguments.toArray()), (updatedTasks, id) -> updatedTasks > 0);
+    }
+}
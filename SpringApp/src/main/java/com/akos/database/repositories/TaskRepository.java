@@ -3,28 +3,62 @@ package com.akos.database.repositories;
 import com.akos.database.entities.TaskEntity;
 import com.akos.database.entities.TaskState;
 import com.akos.database.entities.TaskType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
 /**
  * Repository interface for managing TaskEntity instances.
  */
 @Repository
-public interface TaskRepository extends JpaRepository<TaskEntity, Long> {
+public interface TaskRepository
+        extends JpaRepository<TaskEntity, Long>, TaskPartialUpdateRepository, TaskDeleteRepository,
+        TaskFieldRepository {
+
+    /**
+     * The number of rows fetched from the database at once while exporting the tasks.
+     */
+    String EXPORT_FETCH_SIZE = "500";
+
+    /**
+     * Streams all tasks in ID order, reading them from the database in chunks of EXPORT_FETCH_SIZE.
+     * The tasks are read only and bypass the second-level cache, the stream must be consumed in a transaction.
+     *
+     * @return A Stream of all tasks, it has to be closed.
+     */
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_MODE, value = "IGNORE")
+    })
+    @Query("SELECT t FROM TaskEntity t ORDER BY t.id")
+    Stream<TaskEntity> streamAllByOrderById();
 
     /**
-     * Retrieves tasks with a state different from the specified taskState.
+     * Retrieves tasks with one of the specified taskStates.
+     * The states are listed instead of excluding one, so the database can use the index on the state.
      *
-     * @param taskState The TaskState to exclude.
-     * @param pageable  The pagination information.
-     * @return A Page containing tasks with a state different from the specified taskState.
+     * @param taskStates The TaskStates to match.
+     * @param pageable   The pagination information.
+     * @return A Page containing tasks with one of the specified taskStates.
      */
-    @Query("SELECT a FROM TaskEntity a WHERE a.state != :taskState")
-    Page<TaskEntity> findByStateNot(@Param("taskState") TaskState taskState, Pageable pageable);
+    @Query("SELECT a FROM TaskEntity a WHERE a.state IN :taskStates")
+    Page<TaskEntity> findByStateIn(@Param("taskStates") Collection<TaskState> taskStates, Pageable pageable);
 
     /**
      * Retrieves tasks with a specific taskType.
@@ -35,5 +69,100 @@ public interface TaskRepository extends JpaRepository<TaskEntity, Long> {
      */
     @Query("SELECT a FROM TaskEntity a WHERE a.type = :taskType")
     Page<TaskEntity> findTaskTypeLikeThis(@Param("taskType") TaskType taskType, Pageable pageable);
-}
 
+    /**
+     * Counts the tasks with the specified state.
+     *
+     * @param taskState The TaskState to match.
+     * @return The number of tasks with the state.
+     */
+    long countByState(TaskState taskState);
+
+    /**
+     * Retrieves the IDs of the first tasks with the specified state, the bulk jobs work on them one chunk at a time.
+     *
+     * @param taskState The TaskState of the tasks.
+     * @param limit     The maximum number of IDs.
+     * @return The IDs of the tasks in ID order.
+     */
+    @Query("SELECT t.id FROM TaskEntity t WHERE t.state = :taskState ORDER BY t.id")
+    List<Long> findIdsByState(@Param("taskState") TaskState taskState, Limit limit);
+
+    /**
+     * Retrieves the IDs of the users who have any of the specified tasks.
+     *
+     * @param taskIds The IDs of the tasks.
+     * @return The IDs of the users who have any of the tasks.
+     */
+    @Query("SELECT DISTINCT u.id FROM UserEntity u JOIN u.tasks t WHERE t.id IN :taskIds")
+    List<Long> findUserIdsByTaskIdIn(@Param("taskIds") Collection<Long> taskIds);
+
+    /**
+     * Retrieves the IDs of the users who have any task with the specified state.
+     *
+     * @param taskState The TaskState of the tasks.
+     * @return The IDs of the users who have any of the tasks.
+     */
+    @Query("SELECT DISTINCT u.id FROM UserEntity u JOIN u.tasks t WHERE t.state = :taskState")
+    List<Long> findUserIdsByTaskState(@Param("taskState") TaskState taskState);
+
+    /**
+     * Retrieves a slice of all tasks without counting them.
+     *
+     * @param pageable The pagination information.
+     * @return A Slice containing tasks.
+     */
+    Slice<TaskEntity> findSliceBy(Pageable pageable);
+
+    /**
+     * Retrieves a slice of tasks with one of the specified taskStates without counting them.
+     *
+     * @param taskStates The TaskStates to match.
+     * @param pageable   The pagination information.
+     * @return A Slice containing tasks with one of the specified taskStates.
+     */
+    @Query("SELECT a FROM TaskEntity a WHERE a.state IN :taskStates")
+    Slice<TaskEntity> findSliceByStateIn(@Param("taskStates") Collection<TaskState> taskStates, Pageable pageable);
+
+    /**
+     * Retrieves a slice of tasks with a specific taskType without counting them.
+     *
+     * @param taskType The TaskType to match.
+     * @param pageable The pagination information.
+     * @return A Slice containing tasks with the specified taskType.
+     */
+    @Query("SELECT a FROM TaskEntity a WHERE a.type = :taskType")
+    Slice<TaskEntity> findSliceByTaskTypeLikeThis(@Param("taskType") TaskType taskType, Pageable pageable);
+
+    /**
+     * Retrieves the tasks after the given keyset position.
+     *
+     * @param position The keyset position of the last task of the previous page.
+     * @param limit    The maximum number of tasks.
+     * @param sort     The sort of the tasks, the ID is always added as the last sort key.
+     * @return A Window containing the tasks after the position.
+     */
+    Window<TaskEntity> findAllBy(ScrollPosition position, Limit limit, Sort sort);
+
+    /**
+     * Retrieves the tasks with one of the specified taskStates after the given keyset position.
+     *
+     * @param taskStates The TaskStates to match.
+     * @param position   The keyset position of the last task of the previous page.
+     * @param limit      The maximum number of tasks.
+     * @param sort       The sort of the tasks, the ID is always added as the last sort key.
+     * @return A Window containing tasks with one of the specified taskStates.
+     */
+    Window<TaskEntity> findByStateIn(Collection<TaskState> taskStates, ScrollPosition position, Limit limit, Sort sort);
+
+    /**
+     * Retrieves the tasks with a specific taskType after the given keyset position.
+     *
+     * @param taskType The TaskType to match.
+     * @param position The keyset position of the last task of the previous page.
+     * @param limit    The maximum number of tasks.
+     * @param sort     The sort of the tasks, the ID is always added as the last sort key.
+     * @return A Window containing tasks with the specified taskType.
+     */
+    Window<TaskEntity> findByType(TaskType taskType, ScrollPosition position, Limit limit, Sort sort);
+}
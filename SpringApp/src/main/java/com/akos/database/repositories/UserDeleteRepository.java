@@ -0,0 +1,16 @@
+package com.akos.database.repositories;
+
+/**
+ * Repository fragment deleting users with single DELETE statements.
+ * The assignments of the deleted users are deleted by the database, the tasks of the users are kept.
+ */
+public interface UserDeleteRepository {
+
+    /**
+     * Deletes a user.
+     *
+     * @param id The ID of the user.
+     * @return The number of deleted users, 0 if the user is not found.
+     */
+    int deleteUserById(Long id);
+}
@@ -0,0 +1,40 @@
+package com.akos.database.repositories;
+
+import com.akos.database.configuration.SecondLevelCacheConfig;
+import com.akos.database.entities.UserEntity;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * JDBC implementation of the UserDeleteRepository fragment.
+ * The user is read FOR UPDATE first, its version is needed to lock its second-level cache entries until the commit.
+ */
+public class UserDeleteRepositoryImpl implements UserDeleteRepository {
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Constructs a UserDeleteRepositoryImpl.
+     *
+     * @param jdbcTemplate         The JdbcTemplate used for the DELETE statements.
+     * @param entityManagerFactory The factory whose second-level cache holds the users.
+     */
+    public UserDeleteRepositoryImpl(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Override
+    public int deleteUserById(Long id) {
+        Long version = jdbcTemplate.query("SELECT version FROM users WHERE id = ? FOR UPDATE",
+                resultSet -> resultSet.next() ? resultSet.getLong(1) : null, id);
+        if (version == null) {
+            return 0;
+        }
+        return new CacheLocks(entityManagerFactory)
+                .lockEntity(UserEntity.class, id, version)
+                .lockCollection(SecondLevelCacheConfig.USER_TASKS_REGION, id, version)
+                .run(() -> jdbcTemplate.update("DELETE FROM users WHERE id = ?", id),
+                        (deletedUsers, userId) -> deletedUsers > 0);
+    }
+}
@@ -0,0 +1,46 @@
+package com.akos.database.repositories;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Repository fragment selecting only the requested fields of the users.
+ * The fields are named as in UserDto, except the tasks of a user, which are a collection and cannot be selected.
+ */
+public interface UserFieldRepository {
+
+    /**
+     * Selects the fields of a page of users.
+     *
+     * @param fields   The names of the fields to select.
+     * @param pageable The pagination information, the users are ordered by ID when it is unsorted.
+     * @return A Page of the selected fields, in the requested order.
+     * @throws IllegalArgumentException if a field or a sort property is unknown.
+     */
+    Page<Map<String, Object>> findFieldsBy(Collection<String> fields, Pageable pageable);
+
+    /**
+     * Selects the fields of a slice of users, without counting the users.
+     *
+     * @param fields   The names of the fields to select.
+     * @param pageable The pagination information, the users are ordered by ID when it is unsorted.
+     * @return A Slice of the selected fields, in the requested order.
+     * @throws IllegalArgumentException if a field or a sort property is unknown.
+     */
+    Slice<Map<String, Object>> findFieldsSliceBy(Collection<String> fields, Pageable pageable);
+
+    /**
+     * Selects the fields of a user.
+     *
+     * @param id     The ID of the user.
+     * @param fields The names of the fields to select.
+     * @return The selected fields in the requested order, or empty if the user is not found.
+     * @throws IllegalArgumentException if a field is unknown.
+     */
+    Optional<Map<String, Object>> findFieldsById(Long id, Collection<String> fields);
+}
@@ -0,0 +1,46 @@
+package com.akos.database.repositories;
+
+import com.akos.database.entities.UserEntity;
+import jakarta.persistence.EntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Criteria implementation of the UserFieldRepository fragment, selecting the columns of the fields only.
+ */
+public class UserFieldRepositoryImpl implements UserFieldRepository {
+    private static final Set<String> FIELDS = Set.of("id", "firstName", "familyName", "workHoursPerWeek", "rank",
+            "birthDate", "gender", "workingStatus");
+
+    private final FieldProjection projection;
+
+    /**
+     * Constructs a UserFieldRepositoryImpl.
+     *
+     * @param entityManager The entity manager running the queries.
+     */
+    public UserFieldRepositoryImpl(EntityManager entityManager) {
+        this.projection = new FieldProjection(entityManager, UserEntity.class, FIELDS);
+    }
+
+    @Override
+    public Page<Map<String, Object>> findFieldsBy(Collection<String> fields, Pageable pageable) {
+        return projection.findPage(fields, pageable);
+    }
+
+    @Override
+    public Slice<Map<String, Object>> findFieldsSliceBy(Collection<String> fields, Pageable pageable) {
+        return projection.findSlice(fields, pageable);
+    }
+
+    @Override
+    public Optional<Map<String, Object>> findFieldsById(Long id, Collection<String> fields) {
+        return projection.findById(id, fields);
+    }
+}
@@ -0,0 +1,20 @@
+package com.akos.database.repositories;
+
+import com.akos.database.dtos.UserDto;
+
+/**
+ * Repository fragment updating users without loading them.
+ */
+public interface UserPartialUpdateRepository {
+
+    /**
+     * Updates the work hours, working status, gender and rank of a user, those which are not null,
+     * with a single UPDATE statement and increments its version.
+     *
+     * @param id              The ID of the user.
+     * @param partialUserDto  The partial user DTO containing the new values.
+     * @param expectedVersion The version the user must have, null to update any version.
+     * @return The number of updated users, 0 if the user is not found or has another version.
+     */
+    int updateNonNullFields(Long id, UserDto partialUserDto, Long expectedVersion);
+}
@@ -0,0 +1,35 @@
+package com.akos.database.repositories;
+
+import com.akos.database.dtos.UserDto;
+import com.akos.database.entities.UserEntity;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * JDBC implementation of the UserPartialUpdateRepository fragment.
+ */
+public class UserPartialUpdateRepositoryImpl implements UserPartialUpdateRepository {
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Constructs a UserPartialUpdateRepositoryImpl.
+     *
+     * @param jdbcTemplate         The JdbcTemplate used for the UPDATE statements.
+     * @param entityManagerFactory The factory whose second-level cache holds the users.
+     */
+    public UserPartialUpdateRepositoryImpl(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Override
+    public int updateNonNullFields(Long id, UserDto partialUserDto, Long expectedVersion) {
+        return new PartialUpdate(UserEntity.class, "users")
+                .set("workhours_per_week", partialUserDto.getWorkHoursPerWeek())
+                .set("working_status", partialUserDto.getWorkingStatus())
+                .set("gender", partialUserDto.getGender())
+                .set("rank", partialUserDto.getRank())
+                .execute(jdbcTemplate, entityManagerFactory, id, expectedVersion);
+    }
+}
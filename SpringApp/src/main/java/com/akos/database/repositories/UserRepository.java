@@ -2,18 +2,62 @@ package com.akos.database.repositories;
 
 import com.akos.database.entities.UserEntity;
 import com.akos.database.entities.UserRank;
+import com.akos.database.entities.WorkingStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 /**
  * Repository interface for managing UserEntity instances.
  */
 @Repository
-public interface UserRepository extends JpaRepository<UserEntity, Long> {
+public interface UserRepository
+        extends JpaRepository<UserEntity, Long>, UserPartialUpdateRepository, TaskAssignmentRepository,
+        UserDeleteRepository, UserFieldRepository {
+
+    /**
+     * The number of rows fetched from the database at once while exporting the users.
+     */
+    String EXPORT_FETCH_SIZE = "500";
+
+    /**
+     * Streams all users in ID order, reading them from the database in chunks of EXPORT_FETCH_SIZE.
+     * The users are read only and bypass the second-level cache, the stream must be consumed in a transaction.
+     *
+     * @return A Stream of all users, it has to be closed.
+     */
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_MODE, value = "IGNORE")
+    })
+    @Query("SELECT u FROM UserEntity u ORDER BY u.id")
+    Stream<UserEntity> streamAllByOrderById();
+
+    /**
+     * Retrieves a user by its ID, loading its tasks in the same query.
+     *
+     * @param id The ID of the user.
+     * @return An Optional containing the user with its tasks initialized.
+     */
+    @EntityGraph(UserEntity.WITH_TASKS_GRAPH)
+    Optional<UserEntity> findWithTasksById(Long id);
 
     /**
      * Retrieves users who are actively working, arent retired or on vacation
@@ -43,4 +87,84 @@ public interface UserRepository extends JpaRepository<UserEntity, Long> {
      */
     @Query("SELECT a FROM UserEntity a WHERE a.workHoursPerWeek < :weeklyWorkHours")
     Page<UserEntity> findUsersWithLessWeeklyWorkHours(@Param("weeklyWorkHours") Long weeklyWorkHours, Pageable pageable);
-}
\ No newline at end of file
+
+    /**
+     * Retrieves a slice of all users without counting them.
+     *
+     * @param pageable The pagination information.
+     * @return A Slice containing users.
+     */
+    Slice<UserEntity> findSliceBy(Pageable pageable);
+
+    /**
+     * Retrieves a slice of users who are actively working without counting them.
+     *
+     * @param pageable The pagination information.
+     * @return A Slice containing users who are actively working.
+     */
+    @Query("SELECT a FROM UserEntity a WHERE a.workingStatus = 'ACTIVE'")
+    Slice<UserEntity> findSliceOfUsersWhoAreActivelyWorking(Pageable pageable);
+
+    /**
+     * Retrieves a slice of users with a specific UserRank without counting them.
+     *
+     * @param rank     The UserRank to match.
+     * @param pageable The pagination information.
+     * @return A Slice containing users with the specified UserRank.
+     */
+    @Query("SELECT a FROM UserEntity a WHERE a.rank = :rank")
+    Slice<UserEntity> findSliceOfUsersWithThisTypeOfRank(@Param("rank") UserRank rank, Pageable pageable);
+
+    /**
+     * Retrieves a slice of users with less weekly work hours than the specified limit without counting them.
+     *
+     * @param weeklyWorkHours The maximum number of weekly work hours.
+     * @param pageable        The pagination information.
+     * @return A Slice containing users with less weekly work hours than the specified limit.
+     */
+    @Query("SELECT a FROM UserEntity a WHERE a.workHoursPerWeek < :weeklyWorkHours")
+    Slice<UserEntity> findSliceOfUsersWithLessWeeklyWorkHours(@Param("weeklyWorkHours") Long weeklyWorkHours, Pageable pageable);
+
+    /**
+     * Retrieves the users after the given keyset position.
+     *
+     * @param position The keyset position of the last user of the previous page.
+     * @param limit    The maximum number of users.
+     * @param sort     The sort of the users, the ID is always added as the last sort key.
+     * @return A Window containing the users after the position.
+     */
+    Window<UserEntity> findAllBy(ScrollPosition position, Limit limit, Sort sort);
+
+    /**
+     * Retrieves the users with a specific WorkingStatus after the given keyset position.
+     *
+     * @param workingStatus The WorkingStatus to match.
+     * @param position      The keyset position of the last user of the previous page.
+     * @param limit         The maximum number of users.
+     * @param sort          The sort of the users, the ID is always added as the last sort key.
+     * @return A Window containing users with the specified WorkingStatus.
+     */
+    Window<UserEntity> findByWorkingStatus(WorkingStatus workingStatus, ScrollPosition position, Limit limit, Sort sort);
+
+    /**
+     * Retrieves the users with a specific UserRank after the given keyset position.
+     *
+     * @param rank     The UserRank to match.
+     * @param position The keyset position of the last user of the previous page.
+     * @param limit    The maximum number of users.
+     * @param sort     The sort of the users, the ID is always added as the last sort key.
+     * @return A Window containing users with the specified UserRank.
+     */
+    Window<UserEntity> findByRank(UserRank rank, ScrollPosition position, Limit limit, Sort sort);
+
+    /**
+     * Retrieves the users with less weekly work hours than the specified limit after the given keyset position.
+     *
+     * @param weeklyWorkHours The maximum number of weekly work hours.
+     * @param position        The keyset position of the last user of the previous page.
+     * @param limit           The maximum number of users.
+     * @param sort            The sort of the users, the ID is always added as the last sort key.
+     * @return A Window containing users with less weekly work hours than the specified limit.
+     */
+    Window<UserEntity> findByWorkHoursPerWeekLessThan(Long weeklyWorkHours, ScrollPosition position, Limit limit, Sort sort);
+}
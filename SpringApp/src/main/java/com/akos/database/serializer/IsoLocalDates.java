@@ -0,0 +1,83 @@
+package com.akos.database.serializer;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.Year;
+
+/**
+ * Reads and writes the ISO dates of the form {@code yyyy-MM-dd} digit by digit, without a DateTimeFormatter.
+ * Other forms, like years outside 0000-9999, are left to LocalDate, which also reports the invalid dates.
+ */
+final class IsoLocalDates {
+
+    /**
+     * The length of an ISO date of a four-digit year.
+     */
+    static final int LENGTH = 10;
+
+    private IsoLocalDates() {
+    }
+
+    /**
+     * Reads an ISO date from a range of characters.
+     *
+     * @param text   The characters.
+     * @param offset The index of the first character of the date.
+     * @param length The number of characters of the date.
+     * @return The date, or null if the characters are not a valid {@code yyyy-MM-dd} date.
+     */
+    static LocalDate parse(char[] text, int offset, int length) {
+        if (length != LENGTH || text[offset + 4] != '-' || text[offset + 7] != '-') {
+            return null;
+        }
+        int year = digits(text, offset, 4);
+        int month = digits(text, offset + 5, 2);
+        int day = digits(text, offset + 8, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > Month.of(month).length(Year.isLeap(year))) {
+            return null;
+        }
+        return LocalDate.of(year, month, day);
+    }
+
+    /**
+     * Writes a date as {@code yyyy-MM-dd} into a buffer of LENGTH characters.
+     *
+     * @param date   The date, its year must be between 0 and 9999.
+     * @param buffer The buffer written from its start.
+     */
+    static void format(LocalDate date, char[] buffer) {
+        int year = date.getYear();
+        buffer[0] = (char) ('0' + year / 1000);
+        buffer[1] = (char) ('0' + year / 100 % 10);
+        buffer[2] = (char) ('0' + year / 10 % 10);
+        buffer[3] = (char) ('0' + year % 10);
+        buffer[4] = '-';
+        buffer[5] = (char) ('0' + date.getMonthValue() / 10);
+        buffer[6] = (char) ('0' + date.getMonthValue() % 10);
+        buffer[7] = '-';
+        buffer[8] = (char) ('0' + date.getDayOfMonth() / 10);
+        buffer[9] = (char) ('0' + date.getDayOfMonth() % 10);
+    }
+
+    /**
+     * Tells whether a date can be written by {@link #format(LocalDate, char[])}.
+     *
+     * @param date The date.
+     * @return true if the year of the date has four digits.
+     */
+    static boolean hasFourDigitYear(LocalDate date) {
+        return date.getYear() >= 0 && date.getYear() <= 9999;
+    }
+
+    private static int digits(char[] text, int offset, int count) {
+        int value = 0;
+        for (int i = offset; i < offset + count; i++) {
+            int digit = text[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+}
@@ -2,12 +2,17 @@ package com.akos.database.serializer;
 
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
 
 import java.io.IOException;
 import java.time.LocalDate;
 
+/**
+ * Reads the ISO dates of the DTOs.
+ * A date string is read from the text buffer of the parser, no String is created for it.
+ */
 public class LocalDateDeserializer extends StdDeserializer<LocalDate> {
     private static final long serialVersionUID = 1L;
 
@@ -19,6 +24,10 @@ public class LocalDateDeserializer extends StdDeserializer<LocalDate> {
     @Override
     public LocalDate deserialize(JsonParser jp, DeserializationContext ctxt)
             throws IOException, JsonProcessingException {
+        if (jp.hasToken(JsonToken.VALUE_STRING)) {
+            LocalDate date = IsoLocalDates.parse(jp.getTextCharacters(), jp.getTextOffset(), jp.getTextLength());
+            return date != null ? date : LocalDate.parse(jp.getText());
+        }
         return LocalDate.parse(jp.readValueAs(String.class));
     }
 }
@@ -8,19 +8,30 @@ import com.fasterxml.jackson.databind.ser.std.StdSerializer;
 
 import java.io.IOException;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 
+/**
+ * Writes the dates of the DTOs as ISO dates.
+ * The digits are written into a small buffer which the generator copies, instead of formatting a String.
+ * The buffer is reused by every date written on the same thread.
+ */
 public class LocalDateSerializer extends StdSerializer<LocalDate> {
 
     private static final long serialVersionUID = 1L;
 
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[IsoLocalDates.LENGTH]);
+
     public LocalDateSerializer() {
         super(LocalDate.class);
     }
 
     @Override
     public void serialize(LocalDate value, JsonGenerator gen, SerializerProvider sp) throws IOException, JsonProcessingException {
-        gen.writeString(value.format(DateTimeFormatter.ISO_LOCAL_DATE));
+        if (!IsoLocalDates.hasFourDigitYear(value)) {
+            gen.writeString(value.toString());
+            return;
+        }
+        char[] text = BUFFER.get();
+        IsoLocalDates.format(value, text);
+        gen.writeString(text, 0, text.length);
     }
 }
-
@@ -0,0 +1,127 @@
+package com.akos.database.services;
+
+import com.akos.database.dtos.CursorPageDto;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.Column;
+import jakarta.persistence.Id;
+import org.springframework.beans.BeanUtils;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ReflectionUtils;
+
+import java.beans.PropertyDescriptor;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Component converting keyset scroll positions to opaque cursors and back.
+ * A cursor is the URL safe Base64 encoded JSON of the sort keys and the ID of the last element of a page.
+ * Only the ID and the columns which cannot be null can be sorted by: the keyset predicate compares the sort keys
+ * with their values in the cursor, which a NULL never matches, so the rows with a NULL key would be skipped.
+ */
+@Component
+public class CursorCodec {
+
+    private static final String ID_PROPERTY = "id";
+    private static final TypeReference<Map<String, Object>> KEYS_TYPE = new TypeReference<>() {
+    };
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Constructs a CursorCodec with the provided ObjectMapper.
+     *
+     * @param objectMapper The ObjectMapper used for writing and reading the keys of the cursors.
+     */
+    public CursorCodec(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Converts a cursor to the scroll position it was created from.
+     *
+     * @param cursor     The cursor, an empty cursor means the first page.
+     * @param sort       The sort of the page, it has to be the same as the sort used for the previous page.
+     * @param entityType The type of the entity the cursor points to.
+     * @return The scroll position of the cursor.
+     * @throws IllegalArgumentException if the cursor is invalid or does not belong to the sort,
+     *                                  or a sort property is not a column which cannot be null.
+     */
+    public KeysetScrollPosition decode(String cursor, Sort sort, Class<?> entityType) {
+        sort.forEach(order -> checkSortable(entityType, order.getProperty()));
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+
+        Map<String, Object> keys;
+        try {
+            keys = objectMapper.readValue(Base64.getUrlDecoder().decode(cursor), KEYS_TYPE);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+
+        Set<String> expectedKeys = new HashSet<>();
+        sort.forEach(order -> expectedKeys.add(order.getProperty()));
+        expectedKeys.add(ID_PROPERTY);
+        if (!expectedKeys.equals(keys.keySet())) {
+            throw new IllegalArgumentException("The cursor does not belong to the sort " + sort);
+        }
+
+        Map<String, Object> typedKeys = new LinkedHashMap<>();
+        keys.forEach((property, value) -> {
+            PropertyDescriptor descriptor = BeanUtils.getPropertyDescriptor(entityType, property);
+            if (descriptor == null) {
+                throw new IllegalArgumentException("Unknown property in cursor: " + property);
+            }
+            typedKeys.put(property, objectMapper.convertValue(value, descriptor.getPropertyType()));
+        });
+        return ScrollPosition.forward(typedKeys);
+    }
+
+    private static void checkSortable(Class<?> entityType, String property) {
+        Field field = ReflectionUtils.findField(entityType, property);
+        if (field == null) {
+            throw new IllegalArgumentException("Unknown sort property: " + property);
+        }
+        Column column = field.getAnnotation(Column.class);
+        if (!field.isAnnotationPresent(Id.class) && (column == null || column.nullable())) {
+            throw new IllegalArgumentException("The keyset pages cannot be sorted by the nullable property " + property);
+        }
+    }
+
+    /**
+     * Converts a scroll position to a cursor.
+     *
+     * @param position The keyset scroll position of the last element of a page.
+     * @return The cursor of the position.
+     */
+    public String encode(ScrollPosition position) {
+        try {
+            byte[] keys = objectMapper.writeValueAsBytes(((KeysetScrollPosition) position).getKeys());
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(keys);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to write the cursor", e);
+        }
+    }
+
+    /**
+     * Converts a window of a keyset scroll to a page with the cursor of the next page.
+     *
+     * @param window The window of elements.
+     * @param <T>    The type of the elements.
+     * @return The page containing the elements of the window.
+     */
+    public <T> CursorPageDto<T> toCursorPage(Window<T> window) {
+        String next = window.hasNext() ? encode(window.positionAt(window.size() - 1)) : null;
+        return new CursorPageDto<>(window.getContent(), window.size(), window.hasNext(), next);
+    }
+}
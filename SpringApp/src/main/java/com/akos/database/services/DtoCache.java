@@ -0,0 +1,166 @@
+package com.akos.database.services;
+
+import com.akos.database.configuration.DtoCacheConfig;
+import com.akos.database.configuration.ReadYourWrites;
+import com.akos.database.dtos.TaskDto;
+import com.akos.database.dtos.UserDto;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * Component reading the task and user DTOs through their caches.
+ * A DTO is cached together with its version tag, so the tag served with a cached DTO is the one it was mapped at.
+ * The DTOs are mutable, so the cache keeps its own copies and hands out a new copy on every hit.
+ * <p>
+ * A DTO loaded before a commit may be put into the cache after the commit evicted its key. Every key therefore has
+ * a generation, moved forward by each eviction before the entry is removed, and a loaded DTO is evicted again if the
+ * generation of its key moved while it was loaded.
+ * <p>
+ * A miss is loaded from the primary when there is a replica. An evicted DTO is read again right after the commit,
+ * when the replica may still have the old row, which would be cached and served for the whole lifetime of the entry.
+ */
+@Component
+public class DtoCache {
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final VersionedCache<TaskDto> taskCache;
+    private final VersionedCache<UserDto> userCache;
+    private final ReadYourWrites readYourWrites;
+
+    /**
+     * Constructs a DtoCache.
+     *
+     * @param cacheManager   The cache manager of the DTO caches.
+     * @param readYourWrites The read-your-writes markers, available only when there is a replica.
+     */
+    public DtoCache(CacheManager cacheManager, ObjectProvider<ReadYourWrites> readYourWrites) {
+        this.readYourWrites = readYourWrites.getIfAvailable();
+        this.taskCache = new VersionedCache<>(
+                Objects.requireNonNull(cacheManager.getCache(DtoCacheConfig.TASKS_CACHE)), DtoCache::copyOf);
+        this.userCache = new VersionedCache<>(
+                Objects.requireNonNull(cacheManager.getCache(DtoCacheConfig.USERS_CACHE)), DtoCache::copyOf);
+    }
+
+    /**
+     * Retrieves a task from the cache, or loads and caches it on a miss.
+     *
+     * @param id     The ID of the task.
+     * @param loader The loader of the task and its version tag, it may throw if the task is not found.
+     * @return The task DTO and its version tag, owned by the caller.
+     */
+    Versioned<TaskDto> getTask(Long id, Supplier<Versioned<TaskDto>> loader) {
+        return taskCache.get(id, onPrimary(loader));
+    }
+
+    /**
+     * Retrieves a user from the cache, or loads and caches it on a miss.
+     *
+     * @param id     The ID of the user.
+     * @param loader The loader of the user and its version tag, it may throw if the user is not found.
+     * @return The user DTO and its version tag, owned by the caller.
+     */
+    Versioned<UserDto> getUser(Long id, Supplier<Versioned<UserDto>> loader) {
+        return userCache.get(id, onPrimary(loader));
+    }
+
+    /**
+     * Evicts a task.
+     *
+     * @param id The ID of the task.
+     */
+    void evictTask(Long id) {
+        taskCache.evict(id);
+    }
+
+    /**
+     * Evicts every task.
+     */
+    void evictAllTasks() {
+        taskCache.clear();
+    }
+
+    /**
+     * Evicts a user.
+     *
+     * @param id The ID of the user.
+     */
+    void evictUser(Long id) {
+        userCache.evict(id);
+    }
+
+    private <T> Supplier<T> onPrimary(Supplier<T> loader) {
+        return readYourWrites == null ? loader : () -> readYourWrites.onPrimary(loader);
+    }
+
+    private static TaskDto copyOf(TaskDto task) {
+        return task.toBuilder().build();
+    }
+
+    private static UserDto copyOf(UserDto user) {
+        return user.toBuilder()
+                .tasks(user.getTasks() == null ? null : user.getTasks().stream()
+                        .map(DtoCache::copyOf)
+                        .collect(Collectors.toCollection(LinkedHashSet::new)))
+                .build();
+    }
+
+    /**
+     * Cache of versioned DTOs whose keys are spread over the stripes of the generations.
+     * Keys sharing a stripe only cost each other an extra miss.
+     */
+    private static final class VersionedCache<T> {
+        private final Cache cache;
+        private final UnaryOperator<T> copier;
+        private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+        VersionedCache(Cache cache, UnaryOperator<T> copier) {
+            this.cache = cache;
+            this.copier = copier;
+        }
+
+        @SuppressWarnings("unchecked")
+        Versioned<T> get(Long id, Supplier<Versioned<T>> loader) {
+            Versioned<T> cached = cache.get(id, Versioned.class);
+            if (cached != null) {
+                return copyOf(cached);
+            }
+            int stripe = stripeOf(id);
+            long generation = generations.get(stripe);
+            Versioned<T> loaded = loader.get();
+            cache.put(id, copyOf(loaded));
+            if (generations.get(stripe) != generation) {
+                cache.evict(id);
+            }
+            return loaded;
+        }
+
+        void evict(Long id) {
+            generations.incrementAndGet(stripeOf(id));
+            cache.evict(id);
+        }
+
+        void clear() {
+            for (int stripe = 0; stripe < GENERATION_STRIPES; stripe++) {
+                generations.incrementAndGet(stripe);
+            }
+            cache.clear();
+        }
+
+        private Versioned<T> copyOf(Versioned<T> versioned) {
+            return new Versioned<>(copier.apply(versioned.value()), versioned.versionTag());
+        }
+
+        private static int stripeOf(Long id) {
+            return Long.hashCode(id) & (GENERATION_STRIPES - 1);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.akos.database.services;
+
+import com.akos.database.repositories.TaskRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Component evicting the cached DTOs which depend on a changed task or user.
+ * A user DTO embeds the DTOs of its tasks, so a changed task also evicts every user which has it.
+ * Inside a transaction the evictions run after the commit, so a rolled back change never evicts anything
+ * and a concurrent reader cannot cache the old state again before the commit.
+ */
+@Component
+public class DtoCacheEvictor {
+    private final DtoCache dtoCache;
+    private final TaskRepository taskRepository;
+
+    /**
+     * Constructs a DtoCacheEvictor.
+     *
+     * @param dtoCache       The caches of the DTOs.
+     * @param taskRepository The repository used to find the users of the changed tasks.
+     */
+    public DtoCacheEvictor(DtoCache dtoCache, TaskRepository taskRepository) {
+        this.dtoCache = dtoCache;
+        this.taskRepository = taskRepository;
+    }
+
+    /**
+     * Evicts the tasks and the users which have any of them.
+     *
+     * @param taskIds The IDs of the changed tasks.
+     */
+    public void evictTasks(Collection<Long> taskIds) {
+        if (taskIds.isEmpty()) {
+            return;
+        }
+        evictTasks(taskIds, taskRepository.findUserIdsByTaskIdIn(taskIds));
+    }
+
+    /**
+     * Evicts the tasks and the users which have any of them, if the users are already known.
+     *
+     * @param taskIds The IDs of the changed tasks.
+     * @param userIds The IDs of the users who have any of the tasks.
+     */
+    public void evictTasks(Collection<Long> taskIds, Collection<Long> userIds) {
+        List<Long> changedTasks = List.copyOf(taskIds);
+        List<Long> changedUsers = List.copyOf(userIds);
+        afterCommit(() -> {
+            changedTasks.forEach(dtoCache::evictTask);
+            changedUsers.forEach(dtoCache::evictUser);
+        });
+    }
+
+    /**
+     * Evicts every task and the users which have any task.
+     *
+     * @param userIds The IDs of the users who have any of the changed tasks.
+     */
+    public void evictAllTasks(Collection<Long> userIds) {
+        List<Long> changedUsers = List.copyOf(userIds);
+        afterCommit(() -> {
+            dtoCache.evictAllTasks();
+            changedUsers.forEach(dtoCache::evictUser);
+        });
+    }
+
+    /**
+     * Evicts a user.
+     *
+     * @param userId The ID of the changed user.
+     */
+    public void evictUser(Long userId) {
+        afterCommit(() -> dtoCache.evictUser(userId));
+    }
+
+    private static void afterCommit(Runnable eviction) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            eviction.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                eviction.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,55 @@
+package com.akos.database.services;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+/**
+ * The formats of the exported tables.
+ */
+public enum ExportFormat {
+    /**
+     * One JSON object per line, the same objects as the ones of the other endpoints.
+     */
+    NDJSON(MediaType.APPLICATION_NDJSON),
+    /**
+     * Comma separated values with a header line.
+     */
+    CSV(new MediaType("text", "csv"));
+
+    private final MediaType mediaType;
+
+    ExportFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    /**
+     * Returns the content type of the format.
+     *
+     * @return The MediaType of the format.
+     */
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Chooses the format with the highest quality in an Accept header, NDJSON if neither format is listed explicitly.
+     *
+     * @param accept The value of the Accept header, null if it is missing.
+     * @return The preferred ExportFormat.
+     * @throws InvalidMediaTypeException if the Accept header cannot be parsed.
+     */
+    public static ExportFormat fromAccept(String accept) {
+        ExportFormat preferredFormat = NDJSON;
+        double preferredQuality = -1;
+        for (MediaType acceptedType : MediaType.parseMediaTypes(accept)) {
+            for (ExportFormat format : values()) {
+                boolean preferred = acceptedType.getQualityValue() > preferredQuality;
+                if (preferred && acceptedType.equalsTypeAndSubtype(format.mediaType)) {
+                    preferredFormat = format;
+                    preferredQuality = acceptedType.getQualityValue();
+                }
+            }
+        }
+        return preferredFormat;
+    }
+}
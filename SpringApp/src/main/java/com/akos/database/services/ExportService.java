@@ -0,0 +1,190 @@
+package com.akos.database.services;
+
+import com.akos.database.dtos.TaskDto;
+import com.akos.database.dtos.UserDto;
+import com.akos.database.entities.TaskEntity;
+import com.akos.database.entities.UserEntity;
+import com.akos.database.mappers.TaskMapper;
+import com.akos.database.repositories.TaskRepository;
+import com.akos.database.repositories.UserRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Service class exporting whole tables as NDJSON or CSV.
+ * The rows are streamed from the database and written to the output one at a time, every entity is detached
+ * as soon as it is written, so the memory used does not depend on the size of the table.
+ * The users are exported without their tasks, the assignments would need another query for every user.
+ */
+@Service
+@Transactional(readOnly = true)
+public class ExportService {
+    private static final Map<String, Function<TaskDto, Object>> TASK_COLUMNS = new LinkedHashMap<>();
+    private static final Map<String, Function<UserDto, Object>> USER_COLUMNS = new LinkedHashMap<>();
+
+    static {
+        TASK_COLUMNS.put("id", TaskDto::getId);
+        TASK_COLUMNS.put("name", TaskDto::getName);
+        TASK_COLUMNS.put("description", TaskDto::getDescription);
+        TASK_COLUMNS.put("workTimePerWeekPerPerson", TaskDto::getWorkTimePerWeekPerPerson);
+        TASK_COLUMNS.put("type", TaskDto::getType);
+        TASK_COLUMNS.put("deadLine", TaskDto::getDeadLine);
+        TASK_COLUMNS.put("state", TaskDto::getState);
+        TASK_COLUMNS.put("weeksNeeded", TaskDto::getWeeksNeeded);
+        TASK_COLUMNS.put("personsNeeded", TaskDto::getPersonsNeeded);
+
+        USER_COLUMNS.put("id", UserDto::getId);
+        USER_COLUMNS.put("firstName", UserDto::getFirstName);
+        USER_COLUMNS.put("familyName", UserDto::getFamilyName);
+        USER_COLUMNS.put("workHoursPerWeek", UserDto::getWorkHoursPerWeek);
+        USER_COLUMNS.put("rank", UserDto::getRank);
+        USER_COLUMNS.put("birthDate", UserDto::getBirthDate);
+        USER_COLUMNS.put("gender", UserDto::getGender);
+        USER_COLUMNS.put("workingStatus", UserDto::getWorkingStatus);
+    }
+
+    private final TaskRepository taskRepository;
+    private final UserRepository userRepository;
+    private final TaskMapper taskMapper;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+
+    /**
+     * Constructs an ExportService.
+     *
+     * @param taskRepository The repository streaming the tasks.
+     * @param userRepository The repository streaming the users.
+     * @param taskMapper     The mapper for converting task entities to DTOs.
+     * @param objectMapper   The ObjectMapper writing the NDJSON lines.
+     * @param entityManager  The entity manager detaching the exported entities.
+     */
+    public ExportService(TaskRepository taskRepository, UserRepository userRepository, TaskMapper taskMapper,
+                         ObjectMapper objectMapper, EntityManager entityManager) {
+        this.taskRepository = taskRepository;
+        this.userRepository = userRepository;
+        this.taskMapper = taskMapper;
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Writes all tasks in ID order.
+     *
+     * @param output The stream the tasks are written to, it is not closed.
+     * @param format The format of the export.
+     * @throws IOException if the tasks cannot be written.
+     */
+    public void exportTasks(OutputStream output, ExportFormat format) throws IOException {
+        try (Stream<TaskEntity> tasks = taskRepository.streamAllByOrderById()) {
+            write(output, format, TASK_COLUMNS, tasks.map(taskEntity -> {
+                TaskDto taskDto = taskMapper.toDto(taskEntity);
+                entityManager.detach(taskEntity);
+                return taskDto;
+            }).iterator());
+        }
+    }
+
+    /**
+     * Writes all users in ID order, without their tasks.
+     *
+     * @param output The stream the users are written to, it is not closed.
+     * @param format The format of the export.
+     * @throws IOException if the users cannot be written.
+     */
+    public void exportUsers(OutputStream output, ExportFormat format) throws IOException {
+        try (Stream<UserEntity> users = userRepository.streamAllByOrderById()) {
+            write(output, format, USER_COLUMNS, users.map(userEntity -> {
+                UserDto userDto = toDtoWithoutTasks(userEntity);
+                entityManager.detach(userEntity);
+                return userDto;
+            }).iterator());
+        }
+    }
+
+    private static UserDto toDtoWithoutTasks(UserEntity userEntity) {
+        return UserDto.builder()
+                .id(userEntity.getId())
+                .firstName(userEntity.getFirstName())
+                .familyName(userEntity.getFamilyName())
+                .workHoursPerWeek(userEntity.getWorkHoursPerWeek())
+                .rank(userEntity.getRank())
+                .birthDate(userEntity.getBirthDate())
+                .gender(userEntity.getGender())
+                .workingStatus(userEntity.getWorkingStatus())
+                .build();
+    }
+
+    private <T> void write(OutputStream output, ExportFormat format, Map<String, Function<T, Object>> columns,
+                           Iterator<T> rows) throws IOException {
+        switch (format) {
+            case NDJSON -> writeNdjson(output, columns, rows);
+            case CSV -> writeCsv(output, columns, rows);
+        }
+    }
+
+    private <T> void writeNdjson(OutputStream output, Map<String, Function<T, Object>> columns, Iterator<T> rows)
+            throws IOException {
+        ObjectWriter rowWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            while (rows.hasNext()) {
+                T row = rows.next();
+                generator.writeStartObject();
+                for (Map.Entry<String, Function<T, Object>> column : columns.entrySet()) {
+                    generator.writeFieldName(column.getKey());
+                    rowWriter.writeValue(generator, column.getValue().apply(row));
+                }
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            }
+        }
+    }
+
+    private static <T> void writeCsv(OutputStream output, Map<String, Function<T, Object>> columns, Iterator<T> rows)
+            throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        writer.write(String.join(",", columns.keySet()));
+        writer.write("\r\n");
+        while (rows.hasNext()) {
+            T row = rows.next();
+            boolean first = true;
+            for (Function<T, Object> column : columns.values()) {
+                if (!first) {
+                    writer.write(',');
+                }
+                writer.write(csvField(column.apply(row)));
+                first = false;
+            }
+            writer.write("\r\n");
+        }
+        writer.flush();
+    }
+
+    private static String csvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value instanceof Enum<?> enumValue ? enumValue.name() : value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,348 @@
+package com.akos.database.services;
+
+import com.akos.database.configuration.JobProperties;
+import com.akos.database.dtos.ImportReportDto;
+import com.akos.database.dtos.JobDto;
+import com.akos.database.entities.JobEntity;
+import com.akos.database.entities.JobError;
+import com.akos.database.entities.JobStatus;
+import com.akos.database.entities.JobType;
+import com.akos.database.entities.TaskState;
+import com.akos.database.mappers.JobMapper;
+import com.akos.database.repositories.JobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.IntSupplier;
+
+/**
+ * Service class running the long bulk operations as asynchronous jobs, which are polled by their ID.
+ * The jobs run on a bounded pool of threads, a job works in chunks and saves its progress with every chunk.
+ * The jobs are kept in the database: a job left unfinished by a restart is run again if it is resumable,
+ * otherwise it is marked as interrupted.
+ */
+@Service
+public class JobService implements DisposableBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JobService.class);
+    static final String UNKNOWN_ERROR = "Unknown error";
+
+    private final JobRepository jobRepository;
+    private final JobMapper jobMapper;
+    private final TaskService taskService;
+    private final UserImportService userImportService;
+    private final TransactionTemplate transactionTemplate;
+    private final JobProperties properties;
+    private final ThreadPoolTaskExecutor executor;
+
+    /**
+     * Constructs a JobService.
+     *
+     * @param jobRepository      The repository of the jobs.
+     * @param jobMapper          The mapper for converting jobs to DTOs.
+     * @param taskService        The service changing and deleting the tasks in chunks.
+     * @param userImportService  The service importing the users in chunks.
+     * @param transactionManager The transaction manager used to save the progress together with a chunk.
+     * @param properties         The threads, the queue and the chunk size of the jobs.
+     */
+    public JobService(JobRepository jobRepository, JobMapper jobMapper, TaskService taskService,
+                      UserImportService userImportService, PlatformTransactionManager transactionManager,
+                      JobProperties properties) {
+        this.jobRepository = jobRepository;
+        this.jobMapper = jobMapper;
+        this.taskService = taskService;
+        this.userImportService = userImportService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        this.executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getThreads());
+        executor.setMaxPoolSize(properties.getThreads());
+        executor.setQueueCapacity(properties.getQueueCapacity());
+        executor.setThreadNamePrefix("job-");
+        executor.setAwaitTerminationMillis(properties.getShutdownTimeout().toMillis());
+        executor.initialize();
+    }
+
+    /**
+     * Retrieves a job by its ID.
+     *
+     * @param id The ID of the job.
+     * @return The job DTO with the progress of the job.
+     * @throws NoSuchElementException if the job is not found.
+     */
+    public JobDto findById(Long id) {
+        return jobRepository.findById(id)
+                .map(jobMapper::toDto)
+                .orElseThrow(() -> new NoSuchElementException("Job not found with this id: " + id));
+    }
+
+    /**
+     * Submits a job changing the state of every task with a state.
+     *
+     * @param taskState   The current TaskState of the tasks to be changed.
+     * @param targetState The new TaskState of the tasks.
+     * @return The queued job.
+     * @throws IllegalArgumentException   if a state is missing or the two states are the same.
+     * @throws RejectedExecutionException if too many jobs are waiting.
+     */
+    public JobDto submitTaskStateChange(TaskState taskState, TaskState targetState) {
+        if (taskState == null || targetState == null) {
+            throw new IllegalArgumentException("Both the current and the new state of the tasks are needed");
+        }
+        if (taskState == targetState) {
+            throw new IllegalArgumentException("The tasks already have the state " + targetState);
+        }
+        return submit(JobEntity.builder()
+                .type(JobType.TASK_STATE_CHANGE)
+                .taskState(taskState)
+                .targetState(targetState)
+                .build());
+    }
+
+    /**
+     * Submits a job deleting every task with a state.
+     *
+     * @param taskState The TaskState of the tasks to be deleted.
+     * @return The queued job.
+     * @throws IllegalArgumentException   if the state is missing.
+     * @throws RejectedExecutionException if too many jobs are waiting.
+     */
+    public JobDto submitTaskDeletion(TaskState taskState) {
+        if (taskState == null) {
+            throw new IllegalArgumentException("The state of the tasks to be deleted is needed");
+        }
+        return submit(JobEntity.builder()
+                .type(JobType.TASK_DELETION)
+                .taskState(taskState)
+                .build());
+    }
+
+    /**
+     * Submits a job importing users from an NDJSON stream.
+     * The stream is written into a file first, so the request is finished before the users are imported.
+     *
+     * @param body The NDJSON stream of users.
+     * @return The queued job.
+     * @throws IOException                if the stream cannot be read or written.
+     * @throws RejectedExecutionException if too many jobs are waiting.
+     */
+    public JobDto submitUserImport(InputStream body) throws IOException {
+        Files.createDirectories(properties.getDirectory());
+        Path inputFile = Files.createTempFile(properties.getDirectory(), "user-import-", ".ndjson");
+        try {
+            Files.copy(body, inputFile, StandardCopyOption.REPLACE_EXISTING);
+            return submit(JobEntity.builder()
+                    .type(JobType.USER_IMPORT)
+                    .inputFile(inputFile.toString())
+                    .build());
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(inputFile);
+            throw e;
+        }
+    }
+
+    private JobDto submit(JobEntity job) {
+        job.setStatus(JobStatus.QUEUED);
+        job.setCreatedAt(Instant.now());
+        jobRepository.save(job);
+        // Mapped before the job is started, as the job is changed by the thread running it
+        JobDto queuedJob = jobMapper.toDto(job);
+        try {
+            executor.execute(() -> run(job));
+        } catch (TaskRejectedException e) {
+            jobRepository.delete(job);
+            throw new RejectedExecutionException("Too many jobs are waiting", e);
+        }
+        return queuedJob;
+    }
+
+    /**
+     * Runs the jobs left unfinished by the last shutdown again, or marks them as interrupted if they are
+     * not resumable.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinishedJobs() {
+        for (JobEntity job : jobRepository.findByStatusInOrderById(EnumSet.of(JobStatus.QUEUED, JobStatus.RUNNING))) {
+            if (!job.getType().isResumable()) {
+                addError(job, null, "Interrupted by a restart of the application");
+                finish(job, JobStatus.INTERRUPTED);
+                continue;
+            }
+            job.setStatus(JobStatus.QUEUED);
+            jobRepository.save(job);
+            try {
+                executor.execute(() -> run(job));
+                LOGGER.info("Resumed job {} of type {}", job.getId(), job.getType());
+            } catch (TaskRejectedException e) {
+                LOGGER.warn("Job {} stays queued until the next restart, too many jobs are waiting", job.getId());
+            }
+        }
+    }
+
+    private void run(JobEntity job) {
+        job.setStatus(JobStatus.RUNNING);
+        job.setStartedAt(Instant.now());
+        jobRepository.save(job);
+        try {
+            switch (job.getType()) {
+                case TASK_STATE_CHANGE -> runInChunks(job, taskService.countByState(job.getTaskState()),
+                        () -> taskService.changeStateOfFirstTasks(
+                                job.getTaskState(), job.getTargetState(), properties.getChunkSize()));
+                case TASK_DELETION -> runInChunks(job, taskService.countByState(job.getTaskState()),
+                        () -> taskService.deleteFirstTasksWithState(job.getTaskState(), properties.getChunkSize()));
+                case USER_IMPORT -> importUsers(job);
+            }
+            finish(job, JobStatus.SUCCEEDED);
+        } catch (CancellationException e) {
+            // Stopped by a shutdown, the job is resumed or marked as interrupted on the next start
+            LOGGER.info("Job {} stopped by the shutdown after {} items", job.getId(), job.getProcessed());
+        } catch (IOException | RuntimeException e) {
+            if (Thread.currentThread().isInterrupted()) {
+                LOGGER.info("Job {} stopped by the shutdown after {} items", job.getId(), job.getProcessed());
+                return;
+            }
+            LOGGER.warn("Job {} failed after {} items", job.getId(), job.getProcessed(), e);
+            fail(job, messageOf(e));
+        }
+    }
+
+    /**
+     * Finishes a job as failed. If the job cannot be saved, like when its error or its progress is rejected by the
+     * database, only its status is saved, so a failed job never stays running.
+     */
+    private void fail(JobEntity job, String message) {
+        addError(job, null, message);
+        try {
+            finish(job, JobStatus.FAILED);
+        } catch (RuntimeException e) {
+            LOGGER.error("Unable to save the failed job {}, only its status is saved", job.getId(), e);
+            jobRepository.updateStatus(job.getId(), JobStatus.FAILED, job.getFinishedAt());
+        }
+    }
+
+    /**
+     * Runs the chunks of a job until a chunk processes nothing, saving the progress in the transaction of the chunk.
+     * A resumed job keeps its total and its counts, and goes on with the items which still match it.
+     */
+    private void runInChunks(JobEntity job, long remaining, IntSupplier chunk) {
+        if (job.getTotal() == null) {
+            job.setTotal(remaining);
+            jobRepository.save(job);
+        }
+        int processed;
+        do {
+            checkInterrupted();
+            processed = transactionTemplate.execute(status -> {
+                int processedItems = chunk.getAsInt();
+                if (processedItems > 0) {
+                    job.setProcessed(job.getProcessed() + processedItems);
+                    job.setSucceeded(job.getSucceeded() + processedItems);
+                    jobRepository.save(job);
+                }
+                return processedItems;
+            });
+        } while (processed > 0);
+    }
+
+    private void importUsers(JobEntity job) throws IOException {
+        try (InputStream body = Files.newInputStream(Path.of(job.getInputFile()))) {
+            ImportReportDto report = userImportService.importUsers(body, progress -> {
+                checkInterrupted();
+                updateProgress(job, progress);
+            });
+            job.setTotal(report.getImported() + report.getFailed());
+            updateProgress(job, report);
+        }
+    }
+
+    private void updateProgress(JobEntity job, ImportReportDto report) {
+        job.setProcessed(report.getImported() + report.getFailed());
+        job.setSucceeded(report.getImported());
+        job.setFailed(report.getFailed());
+        List<JobError> errors = new ArrayList<>(report.getErrors().size());
+        report.getErrors().forEach(error -> errors.add(errorOf(error.getLine(), error.getMessage())));
+        job.setErrors(errors);
+        jobRepository.save(job);
+    }
+
+    private void finish(JobEntity job, JobStatus status) {
+        job.setStatus(status);
+        job.setFinishedAt(Instant.now());
+        try {
+            jobRepository.save(job);
+        } finally {
+            deleteInputFile(job);
+        }
+    }
+
+    private static void deleteInputFile(JobEntity job) {
+        if (job.getInputFile() != null) {
+            try {
+                Files.deleteIfExists(Path.of(job.getInputFile()));
+            } catch (IOException e) {
+                LOGGER.warn("Unable to delete the input file {} of job {}", job.getInputFile(), job.getId(), e);
+            }
+        }
+    }
+
+    private static void checkInterrupted() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("The job was interrupted");
+        }
+    }
+
+    private static void addError(JobEntity job, Long item, String message) {
+        if (job.getErrors().size() < UserImportService.MAX_REPORTED_ERRORS) {
+            job.getErrors().add(errorOf(item, message));
+        }
+    }
+
+    /**
+     * Creates the error of an item, with a default message if there is none and the message cut to fit its column.
+     */
+    static JobError errorOf(Long item, String message) {
+        if (message == null || message.isBlank()) {
+            message = UNKNOWN_ERROR;
+        }
+        return new JobError(item, message.length() > JobError.MAX_MESSAGE_LENGTH
+                ? message.substring(0, JobError.MAX_MESSAGE_LENGTH)
+                : message);
+    }
+
+    /**
+     * The message of the most specific cause of a failure, or the type of the cause if it has no message.
+     */
+    static String messageOf(Throwable failure) {
+        Throwable cause = NestedExceptionUtils.getMostSpecificCause(failure);
+        return cause.getMessage() != null ? cause.getMessage() : cause.getClass().getName();
+    }
+
+    /**
+     * Stops the executor of the jobs, the running jobs are interrupted after their current chunk.
+     */
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
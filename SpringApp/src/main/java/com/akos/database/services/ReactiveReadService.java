@@ -0,0 +1,81 @@
+package com.akos.database.services;
+
+import com.akos.database.dtos.TaskDto;
+import com.akos.database.dtos.UserDto;
+import com.akos.database.entities.TaskType;
+import com.akos.database.entities.UserRank;
+import com.akos.database.entities.WorkingStatus;
+import com.akos.database.repositories.ReactiveTaskRepository;
+import com.akos.database.repositories.ReactiveUserRepository;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+/**
+ * Service class of the non-blocking list reads, the counterpart of the list methods of TaskService and UserService.
+ * Every list is streamed in ID order with the same DTOs as the blocking lists, without pages.
+ * The reads run outside of transactions, each of them is a single statement.
+ */
+@Service
+public class ReactiveReadService {
+
+    private final ReactiveTaskRepository taskRepository;
+    private final ReactiveUserRepository userRepository;
+
+    /**
+     * Constructs a ReactiveReadService.
+     *
+     * @param taskRepository The repository streaming the tasks.
+     * @param userRepository The repository streaming the users.
+     */
+    public ReactiveReadService(ReactiveTaskRepository taskRepository, ReactiveUserRepository userRepository) {
+        this.taskRepository = taskRepository;
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Streams all tasks.
+     *
+     * @return A Flux of all task DTOs.
+     */
+    public Flux<TaskDto> findAllTasks() {
+        return taskRepository.findAll();
+    }
+
+    /**
+     * Streams the available tasks, which are not completed.
+     *
+     * @return A Flux of the available task DTOs.
+     */
+    public Flux<TaskDto> findAvailableTasks() {
+        return taskRepository.findByStateIn(TaskService.AVAILABLE_STATES);
+    }
+
+    /**
+     * Streams the tasks of a specific type.
+     *
+     * @param taskType The type of the tasks.
+     * @return A Flux of the task DTOs with the type.
+     */
+    public Flux<TaskDto> findTaskType(TaskType taskType) {
+        return taskRepository.findByType(taskType);
+    }
+
+    /**
+     * Streams the users who are actively working, with their tasks.
+     *
+     * @return A Flux of the available user DTOs.
+     */
+    public Flux<UserDto> findAvailableUsers() {
+        return userRepository.findByWorkingStatus(WorkingStatus.ACTIVE);
+    }
+
+    /**
+     * Streams the users with a specific rank, with their tasks.
+     *
+     * @param rank The rank of the users.
+     * @return A Flux of the user DTOs with the rank.
+     */
+    public Flux<UserDto> findUsersWithRank(UserRank rank) {
+        return userRepository.findByRank(rank);
+    }
+}
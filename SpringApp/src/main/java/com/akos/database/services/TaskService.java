@@ -1,35 +1,80 @@
 package com.akos.database.services;
 
+import com.akos.database.dtos.CursorPageDto;
 import com.akos.database.dtos.TaskDto;
 import com.akos.database.entities.TaskEntity;
 import com.akos.database.entities.TaskState;
 import com.akos.database.entities.TaskType;
 import com.akos.database.mappers.TaskMapper;
+import com.akos.database.repositories.TaskPartialUpdateRepository.UpdatedTask;
 import com.akos.database.repositories.TaskRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
-import java.util.Optional;
+import java.util.Set;
 
 /**
  * Service class providing business logic for managing tasks.
+ * Every method runs in a transaction, the assigned users are never loaded as TaskDto does not contain them.
+ * The tasks looked up by ID are cached, every change of a task evicts it and the users which embed it.
+ * Every call is timed as {@code service.calls}, tagged with the class and the method.
  */
 @Service
+@Timed(value = "service.calls", histogram = true)
+@Transactional(readOnly = true)
 public class TaskService {
+
+    /**
+     * The states of the tasks which are available, every state except COMPLETED.
+     */
+    static final Set<TaskState> AVAILABLE_STATES = EnumSet.complementOf(EnumSet.of(TaskState.COMPLETED));
+
     private final TaskRepository taskRepository;
     private final TaskMapper taskMapper;
+    private final CursorCodec cursorCodec;
+    private final DtoCache dtoCache;
+    private final DtoCacheEvictor dtoCacheEvictor;
+    private final EntityManager entityManager;
+    private final int batchSize;
 
     /**
      * Constructs a TaskService with the provided TaskRepository and TaskMapper.
      *
-     * @param taskRepository The repository for task entities.
-     * @param taskMapper     The mapper for converting between task entities and DTOs.
+     * @param taskRepository  The repository for task entities.
+     * @param taskMapper      The mapper for converting between task entities and DTOs.
+     * @param cursorCodec     The codec for the cursors of the keyset paginated lists.
+     * @param dtoCache        The cache of the task DTOs looked up by ID.
+     * @param dtoCacheEvictor The evictor of the cached DTOs which depend on a changed task.
+     * @param entityManager   The entity manager used to clear the persistence context between batches.
+     * @param batchSize       The number of tasks written to the database in one JDBC batch.
      */
-    public TaskService(TaskRepository taskRepository, TaskMapper taskMapper) {
+    public TaskService(TaskRepository taskRepository, TaskMapper taskMapper, CursorCodec cursorCodec,
+                       DtoCache dtoCache, DtoCacheEvictor dtoCacheEvictor, EntityManager entityManager,
+                       @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize) {
         this.taskRepository = taskRepository;
         this.taskMapper = taskMapper;
+        this.cursorCodec = cursorCodec;
+        this.dtoCache = dtoCache;
+        this.dtoCacheEvictor = dtoCacheEvictor;
+        this.entityManager = entityManager;
+        this.batchSize = batchSize;
     }
 
     /**
@@ -43,6 +88,58 @@ public class TaskService {
                 .map(taskMapper::toDto);
     }
 
+    /**
+     * Retrieves a slice of all tasks.
+     * Unlike the paged variant it does not count the tasks, the slice only tells whether there is a next slice.
+     *
+     * @param pageable The pagination information.
+     * @return A Slice containing task DTOs.
+     */
+    public Slice<TaskDto> findAllSlice(Pageable pageable) {
+        return taskRepository.findSliceBy(pageable)
+                .map(taskMapper::toDto);
+    }
+
+    /**
+     * Retrieves all tasks with keyset pagination.
+     *
+     * @param after    The cursor of the last task of the previous page, empty for the first page.
+     * @param pageable The size and sort of the page, the page number is ignored.
+     * @return A CursorPageDto containing task DTOs.
+     * @throws IllegalArgumentException if the cursor is invalid.
+     */
+    public CursorPageDto<TaskDto> findAll(String after, Pageable pageable) {
+        KeysetScrollPosition position = cursorCodec.decode(after, pageable.getSort(), TaskEntity.class);
+        return cursorCodec.toCursorPage(
+                taskRepository.findAllBy(position, Limit.of(pageable.getPageSize()), pageable.getSort())
+                        .map(taskMapper::toDto));
+    }
+
+    /**
+     * Retrieves only the requested fields of all tasks with pagination.
+     * The fields are selected as columns, no entity is loaded and nothing is mapped.
+     *
+     * @param fields   The names of the fields, as in the DTO.
+     * @param pageable The pagination information.
+     * @return A Page containing the selected fields of the tasks.
+     * @throws InvalidDataAccessApiUsageException if a field or a sort property is unknown.
+     */
+    public Page<Map<String, Object>> findAllFields(Collection<String> fields, Pageable pageable) {
+        return taskRepository.findFieldsBy(fields, pageable);
+    }
+
+    /**
+     * Retrieves only the requested fields of a slice of all tasks, without counting the tasks.
+     *
+     * @param fields   The names of the fields, as in the DTO.
+     * @param pageable The pagination information.
+     * @return A Slice containing the selected fields of the tasks.
+     * @throws InvalidDataAccessApiUsageException if a field or a sort property is unknown.
+     */
+    public Slice<Map<String, Object>> findAllFieldsSlice(Collection<String> fields, Pageable pageable) {
+        return taskRepository.findFieldsSliceBy(fields, pageable);
+    }
+
     /**
      * Retrieves a task by its ID.
      *
@@ -51,9 +148,35 @@ public class TaskService {
      * @throws IllegalArgumentException if the task is not found.
      */
     public TaskDto findById(Long id) {
-        TaskEntity taskEntity = taskRepository.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("Task not found with this id:" + id));
-        return taskMapper.toDto(taskEntity);
+        return findVersionedById(id).value();
+    }
+
+    /**
+     * Retrieves a task by its ID together with its version tag, both taken from the same read of the task.
+     * The pair is cached, a cached DTO is served with the version tag it was mapped at.
+     *
+     * @param id The ID of the task to retrieve.
+     * @return The corresponding task DTO and its version tag.
+     * @throws IllegalArgumentException if the task is not found.
+     */
+    public Versioned<TaskDto> findVersionedById(Long id) {
+        return dtoCache.getTask(id, () -> taskRepository.findById(id)
+                .map(taskEntity -> new Versioned<>(taskMapper.toDto(taskEntity), versionTagOf(taskEntity)))
+                .orElseThrow(() -> new IllegalArgumentException("Task not found with this id:" + id)));
+    }
+
+    /**
+     * Retrieves only the requested fields of a task, selected as columns without loading the task.
+     *
+     * @param id     The ID of the task.
+     * @param fields The names of the fields, as in the DTO.
+     * @return The selected fields of the task, in the requested order.
+     * @throws InvalidDataAccessApiUsageException if a field is unknown.
+     * @throws NoSuchElementException              if the task is not found.
+     */
+    public Map<String, Object> findFieldsById(Long id, Collection<String> fields) {
+        return taskRepository.findFieldsById(id, fields)
+                .orElseThrow(() -> new NoSuchElementException("Task not found with this id: " + id));
     }
 
     /**
@@ -62,66 +185,205 @@ public class TaskService {
      * @param taskDto The task DTO to be saved.
      * @return The saved task DTO.
      */
+    @Transactional
     public TaskDto save(TaskDto taskDto) {
         TaskEntity taskEntity = taskMapper.toEntity(taskDto);
         TaskEntity savedTaskEntity = taskRepository.save(taskEntity);
         return taskMapper.toDto(savedTaskEntity);
     }
 
+    /**
+     * Saves many new tasks in one transaction.
+     * The tasks are flushed in JDBC batches and the persistence context is cleared after every batch,
+     * so the tasks can be read lazily from a stream without keeping all of them in memory.
+     *
+     * @param taskDtos The task DTOs to be saved.
+     * @return The IDs of the saved tasks in the order of the input.
+     */
+    @Transactional
+    public List<Long> saveAll(Iterator<TaskDto> taskDtos) {
+        List<Long> ids = new ArrayList<>();
+        List<TaskEntity> batch = new ArrayList<>(batchSize);
+        while (taskDtos.hasNext()) {
+            TaskEntity taskEntity = taskMapper.toEntity(taskDtos.next());
+            taskEntity.setId(null);
+            batch.add(taskEntity);
+            if (batch.size() == batchSize) {
+                saveBatch(batch, ids);
+            }
+        }
+        saveBatch(batch, ids);
+        return ids;
+    }
+
+    private void saveBatch(List<TaskEntity> batch, List<Long> ids) {
+        taskRepository.saveAll(batch);
+        taskRepository.flush();
+        batch.forEach(taskEntity -> ids.add(taskEntity.getId()));
+        batch.clear();
+        entityManager.clear();
+    }
+
     /**
      * Deletes a task by its ID.
+     * The task is deleted with a single statement, its assignments are deleted by the database.
      *
      * @param id The ID of the task to be deleted.
      * @throws NoSuchElementException if the task is not found.
      */
+    @Transactional
     public void deleteById(Long id) {
-        if (!taskRepository.existsById(id)) {
+        if (deleteByIds(List.of(id)) == 0) {
             throw new NoSuchElementException("Task not found with Id: " + id);
         }
-        taskRepository.deleteById(id);
+    }
+
+    /**
+     * Deletes the tasks with the specified IDs, the IDs which are not found are ignored.
+     *
+     * @param ids The IDs of the tasks to be deleted.
+     * @return The number of deleted tasks.
+     */
+    @Transactional
+    public int deleteByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        List<Long> userIds = taskRepository.findUserIdsByTaskIdIn(ids);
+        int deletedTasks = taskRepository.deleteTasksByIdIn(ids, userIds);
+        dtoCacheEvictor.evictTasks(ids, userIds);
+        return deletedTasks;
+    }
+
+    /**
+     * Deletes the tasks with the specified state.
+     *
+     * @param taskState The TaskState of the tasks to be deleted.
+     * @return The number of deleted tasks.
+     */
+    @Transactional
+    public int deleteByState(TaskState taskState) {
+        List<Long> userIds = taskRepository.findUserIdsByTaskState(taskState);
+        int deletedTasks = taskRepository.deleteTasksByState(taskState, userIds);
+        if (deletedTasks > 0) {
+            dtoCacheEvictor.evictAllTasks(userIds);
+        }
+        return deletedTasks;
+    }
+
+    /**
+     * Counts the tasks with the specified state.
+     *
+     * @param taskState The TaskState of the tasks.
+     * @return The number of tasks with the state.
+     */
+    public long countByState(TaskState taskState) {
+        return taskRepository.countByState(taskState);
+    }
+
+    /**
+     * Changes the state of the first tasks with a state, in ID order, with a single UPDATE statement.
+     * The bulk jobs call it until it returns 0, every chunk in its own transaction.
+     *
+     * @param taskState   The current TaskState of the tasks to be changed.
+     * @param targetState The new TaskState of the tasks.
+     * @param chunkSize   The maximum number of tasks to be changed.
+     * @return The number of changed tasks.
+     * @throws IllegalArgumentException if the two states are the same.
+     */
+    @Transactional
+    public int changeStateOfFirstTasks(TaskState taskState, TaskState targetState, int chunkSize) {
+        if (taskState == targetState) {
+            throw new IllegalArgumentException("The tasks already have the state " + targetState);
+        }
+        List<Long> ids = taskRepository.findIdsByState(taskState, Limit.of(chunkSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        List<Long> userIds = taskRepository.findUserIdsByTaskIdIn(ids);
+        int changedTasks = taskRepository.updateStateByIdIn(ids, targetState);
+        dtoCacheEvictor.evictTasks(ids, userIds);
+        return changedTasks;
+    }
+
+    /**
+     * Deletes the first tasks with a state, in ID order.
+     * The bulk jobs call it until it returns 0, every chunk in its own transaction.
+     *
+     * @param taskState The TaskState of the tasks to be deleted.
+     * @param chunkSize The maximum number of tasks to be deleted.
+     * @return The number of deleted tasks.
+     */
+    @Transactional
+    public int deleteFirstTasksWithState(TaskState taskState, int chunkSize) {
+        return deleteByIds(taskRepository.findIdsByState(taskState, Limit.of(chunkSize)));
     }
 
     /**
      * Updates a task.
      *
-     * @param id      The ID of the task to be updated.
-     * @param taskDto The updated task DTO.
-     * @return The updated task DTO.
-     * @throws IllegalArgumentException if the task is not found.
+     * @param id                 The ID of the task to be updated.
+     * @param taskDto            The updated task DTO.
+     * @param expectedVersionTag The version tag the task must have, null to update any version.
+     * @return The updated task DTO and its new version tag.
+     * @throws IllegalArgumentException          if the task is not found.
+     * @throws OptimisticLockingFailureException if the task has another version or is updated concurrently.
      */
-    public TaskDto update(Long id, TaskDto taskDto) {
+    @Transactional
+    public Versioned<TaskDto> update(Long id, TaskDto taskDto, String expectedVersionTag) {
         TaskEntity taskEntity = taskRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Task not found with id:" + id));
+        checkVersionTag(taskEntity, expectedVersionTag);
 
         taskMapper.updateEntity(taskDto, taskEntity);
+        dtoCacheEvictor.evictTasks(List.of(id));
 
-        TaskEntity updatedTaskEntity = taskRepository.save(taskEntity);
-        return taskMapper.toDto(updatedTaskEntity);
+        // Flushed, so the version is incremented before the tag is taken
+        TaskEntity updatedTaskEntity = taskRepository.saveAndFlush(taskEntity);
+        return new Versioned<>(taskMapper.toDto(updatedTaskEntity), versionTagOf(updatedTaskEntity));
     }
 
     /**
      * Partially updates a task based on a partial task DTO.
+     * Only the non-null fields are updated with a single UPDATE statement, the task and its users are not loaded.
      *
-     * @param id             The ID of the task to be partially updated.
-     * @param partialTaskDto The partial task DTO containing updated information.
-     * @return The partially updated task DTO.
-     * @throws NoSuchElementException if the task is not found.
+     * @param id                 The ID of the task to be partially updated.
+     * @param partialTaskDto     The partial task DTO containing updated information.
+     * @param expectedVersionTag The version tag the task must have, null to update any version.
+     * @return The partially updated task DTO and its new version tag.
+     * @throws NoSuchElementException            if the task is not found.
+     * @throws OptimisticLockingFailureException if the task has another version or is updated concurrently.
      */
-    public TaskDto partialUpdate(Long id, TaskDto partialTaskDto) {
-        TaskEntity taskEntity = taskRepository.findById(id)
-                .orElseThrow(() -> new NoSuchElementException("Task not found with this id: " + id));
+    @Transactional
+    public Versioned<TaskDto> partialUpdate(Long id, TaskDto partialTaskDto, String expectedVersionTag) {
+        UpdatedTask updatedTask = taskRepository.updateNonNullFields(id, partialTaskDto, versionOf(id, expectedVersionTag))
+                .orElseThrow(() -> taskRepository.existsById(id)
+                        ? new OptimisticLockingFailureException("Task " + id + " does not have the version " + expectedVersionTag)
+                        : new NoSuchElementException("Task not found with this id: " + id));
+        dtoCacheEvictor.evictTasks(List.of(id));
+        return new Versioned<>(updatedTask.task(), String.valueOf(updatedTask.version()));
+    }
+
+    private static Long versionOf(Long id, String versionTag) {
+        if (versionTag == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(versionTag);
+        } catch (NumberFormatException e) {
+            throw new OptimisticLockingFailureException("Task " + id + " does not have the version " + versionTag);
+        }
+    }
 
-        Optional.ofNullable(partialTaskDto.getName()).ifPresent(taskEntity::setName);
-        Optional.ofNullable(partialTaskDto.getDescription()).ifPresent(taskEntity::setDescription);
-        Optional.ofNullable(partialTaskDto.getWorkTimePerWeekPerPerson()).ifPresent(taskEntity::setWorkTimePerWeekPerPerson);
-        Optional.ofNullable(partialTaskDto.getType()).ifPresent(taskEntity::setType);
-        Optional.ofNullable(partialTaskDto.getDeadLine()).ifPresent(taskEntity::setDeadLine);
-        Optional.ofNullable(partialTaskDto.getState()).ifPresent(taskEntity::setState);
-        Optional.ofNullable(partialTaskDto.getWeeksNeeded()).ifPresent(taskEntity::setWeeksNeeded);
-        Optional.ofNullable(partialTaskDto.getPersonsNeeded()).ifPresent(taskEntity::setPersonsNeeded);
+    private static String versionTagOf(TaskEntity taskEntity) {
+        return String.valueOf(taskEntity.getVersion());
+    }
 
-        TaskEntity updatedTaskEntity = taskRepository.save(taskEntity);
-        return taskMapper.toDto(updatedTaskEntity);
+    private static void checkVersionTag(TaskEntity taskEntity, String expectedVersionTag) {
+        if (expectedVersionTag != null && !expectedVersionTag.equals(versionTagOf(taskEntity))) {
+            throw new OptimisticLockingFailureException(
+                    "Task " + taskEntity.getId() + " does not have the version " + expectedVersionTag);
+        }
     }
 
     /**
@@ -131,10 +393,21 @@ public class TaskService {
      * @return A Page containing available task DTOs.
      */
     public Page<TaskDto> findAvailableTasks(Pageable pageable) {
-        Page<TaskEntity> taskEntities = taskRepository.findByStateNot(TaskState.COMPLETED, pageable);
+        Page<TaskEntity> taskEntities = taskRepository.findByStateIn(AVAILABLE_STATES, pageable);
         return taskEntities.map(taskMapper::toDto);
     }
 
+    /**
+     * Retrieves a slice of all available tasks without counting them.
+     *
+     * @param pageable The pagination information.
+     * @return A Slice containing available task DTOs.
+     */
+    public Slice<TaskDto> findAvailableTasksSlice(Pageable pageable) {
+        return taskRepository.findSliceByStateIn(AVAILABLE_STATES, pageable)
+                .map(taskMapper::toDto);
+    }
+
     /**
      * Retrieves tasks of a specific type.
      *
@@ -146,4 +419,47 @@ public class TaskService {
         Page<TaskEntity> taskEntities = taskRepository.findTaskTypeLikeThis(taskType, pageable);
         return taskEntities.map(taskMapper::toDto);
     }
-}
\ No newline at end of file
+
+    /**
+     * Retrieves a slice of tasks of a specific type without counting them.
+     *
+     * @param pageable The pagination information.
+     * @param taskType The type of tasks to retrieve.
+     * @return A Slice containing task DTOs of the specified type.
+     */
+    public Slice<TaskDto> findTaskTypeSlice(Pageable pageable, TaskType taskType) {
+        return taskRepository.findSliceByTaskTypeLikeThis(taskType, pageable)
+                .map(taskMapper::toDto);
+    }
+
+    /**
+     * Retrieves all available tasks with keyset pagination.
+     *
+     * @param after    The cursor of the last task of the previous page, empty for the first page.
+     * @param pageable The size and sort of the page, the page number is ignored.
+     * @return A CursorPageDto containing available task DTOs.
+     * @throws IllegalArgumentException if the cursor is invalid.
+     */
+    public CursorPageDto<TaskDto> findAvailableTasks(String after, Pageable pageable) {
+        KeysetScrollPosition position = cursorCodec.decode(after, pageable.getSort(), TaskEntity.class);
+        return cursorCodec.toCursorPage(
+                taskRepository.findByStateIn(AVAILABLE_STATES, position, Limit.of(pageable.getPageSize()), pageable.getSort())
+                        .map(taskMapper::toDto));
+    }
+
+    /**
+     * Retrieves tasks of a specific type with keyset pagination.
+     *
+     * @param after    The cursor of the last task of the previous page, empty for the first page.
+     * @param pageable The size and sort of the page, the page number is ignored.
+     * @param taskType The type of tasks to retrieve.
+     * @return A CursorPageDto containing task DTOs of the specified type.
+     * @throws IllegalArgumentException if the cursor is invalid.
+     */
+    public CursorPageDto<TaskDto> findTaskType(String after, Pageable pageable, TaskType taskType) {
+        KeysetScrollPosition position = cursorCodec.decode(after, pageable.getSort(), TaskEntity.class);
+        return cursorCodec.toCursorPage(
+                taskRepository.findByType(taskType, position, Limit.of(pageable.getPageSize()), pageable.getSort())
+                        .map(taskMapper::toDto));
+    }
+}
@@ -0,0 +1,177 @@
+package com.akos.database.services;
+
+import com.akos.database.dtos.ImportErrorDto;
+import com.akos.database.dtos.ImportReportDto;
+import com.akos.database.dtos.UserDto;
+import com.akos.database.entities.TaskEntity;
+import com.akos.database.entities.UserEntity;
+import com.akos.database.mappers.UserMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Service class importing users from an NDJSON stream.
+ * The users are saved in chunks, every chunk in its own transaction, and the persistence context is cleared
+ * after every chunk, so the memory used does not depend on the size of the imported file.
+ * The tasks of an imported user are linked by their IDs, tasks are never created by the import.
+ */
+@Service
+public class UserImportService {
+
+    /**
+     * The maximum number of errors listed in the import report.
+     */
+    static final int MAX_REPORTED_ERRORS = 100;
+
+    private final UserMapper userMapper;
+    private final ObjectReader userReader;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    /**
+     * Constructs a UserImportService.
+     *
+     * @param userMapper         The mapper for converting between user entities and DTOs.
+     * @param objectMapper       The ObjectMapper used for reading the lines of the import.
+     * @param entityManager      The entity manager used for saving the users.
+     * @param transactionManager The transaction manager used for the transaction of every chunk.
+     * @param chunkSize          The number of users saved in one chunk.
+     */
+    public UserImportService(UserMapper userMapper, ObjectMapper objectMapper, EntityManager entityManager,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int chunkSize) {
+        this.userMapper = userMapper;
+        this.userReader = objectMapper.readerFor(UserDto.class);
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Imports users from an NDJSON stream, one user per line.
+     * Lines which cannot be read or saved are listed in the report, they do not stop the import.
+     *
+     * @param body The NDJSON stream of users.
+     * @return The report of the import.
+     * @throws IOException if the stream cannot be read.
+     */
+    public ImportReportDto importUsers(InputStream body) throws IOException {
+        return importUsers(body, report -> {
+        });
+    }
+
+    /**
+     * Imports users from an NDJSON stream, one user per line, reporting the progress after every saved chunk.
+     * The import job uses the progress to update the job, the listener may stop the import by throwing.
+     *
+     * @param body     The NDJSON stream of users.
+     * @param progress The listener called with the report of the import so far after every chunk.
+     * @return The report of the import.
+     * @throws IOException if the stream cannot be read.
+     */
+    public ImportReportDto importUsers(InputStream body, Consumer<ImportReportDto> progress) throws IOException {
+        ImportReportDto report = new ImportReportDto();
+        List<ImportedLine> chunk = new ArrayList<>(chunkSize);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+
+        String line;
+        long lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                UserDto userDto = userReader.readValue(line);
+                if (userDto.getTasks() != null && userDto.getTasks().stream().anyMatch(task -> task.getId() == null)) {
+                    addError(report, lineNumber, "The tasks of a user are referenced by their IDs");
+                } else {
+                    chunk.add(new ImportedLine(lineNumber, userDto));
+                }
+            } catch (JsonProcessingException e) {
+                addError(report, lineNumber, e.getOriginalMessage());
+            }
+            if (chunk.size() == chunkSize) {
+                saveChunk(chunk, report);
+                progress.accept(report);
+            }
+        }
+        saveChunk(chunk, report);
+        progress.accept(report);
+        return report;
+    }
+
+    private void saveChunk(List<ImportedLine> chunk, ImportReportDto report) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            save(chunk);
+            report.setImported(report.getImported() + chunk.size());
+        } catch (PersistenceException | DataAccessException | TransactionException e) {
+            // Saving the lines one by one finds out which of them are invalid
+            for (ImportedLine importedLine : chunk) {
+                try {
+                    save(List.of(importedLine));
+                    report.setImported(report.getImported() + 1);
+                } catch (PersistenceException | DataAccessException | TransactionException lineException) {
+                    addError(report, importedLine.lineNumber(),
+                            NestedExceptionUtils.getMostSpecificCause(lineException).getMessage());
+                }
+            }
+        }
+        chunk.clear();
+    }
+
+    private void save(List<ImportedLine> lines) {
+        transactionTemplate.executeWithoutResult(status -> {
+            try {
+                for (ImportedLine importedLine : lines) {
+                    UserEntity userEntity = userMapper.toEntity(importedLine.userDto());
+                    userEntity.setId(null);
+                    if (importedLine.userDto().getTasks() != null) {
+                        // Only linked by reference, a missing task fails the line on the foreign key
+                        userEntity.setTasks(importedLine.userDto().getTasks().stream()
+                                .map(task -> entityManager.getReference(TaskEntity.class, task.getId()))
+                                .collect(Collectors.toSet()));
+                    }
+                    entityManager.persist(userEntity);
+                }
+                entityManager.flush();
+            } finally {
+                entityManager.clear();
+            }
+        });
+    }
+
+    private static void addError(ImportReportDto report, long lineNumber, String message) {
+        report.setFailed(report.getFailed() + 1);
+        if (report.getErrors().size() < MAX_REPORTED_ERRORS) {
+            report.getErrors().add(new ImportErrorDto(lineNumber, message));
+        }
+    }
+
+    private record ImportedLine(long lineNumber, UserDto userDto) {
+    }
+}
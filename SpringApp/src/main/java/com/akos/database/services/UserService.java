@@ -1,40 +1,84 @@
 package com.akos.database.services;
 
+import com.akos.database.dtos.AssignmentReportDto;
+import com.akos.database.dtos.CursorPageDto;
+import com.akos.database.dtos.TaskAssignmentDto;
+import com.akos.database.dtos.TaskDto;
 import com.akos.database.dtos.UserDto;
 import com.akos.database.entities.TaskEntity;
 import com.akos.database.entities.TaskState;
 import com.akos.database.entities.UserEntity;
 import com.akos.database.entities.UserRank;
+import com.akos.database.entities.WorkingStatus;
 import com.akos.database.mappers.UserMapper;
 import com.akos.database.repositories.TaskRepository;
 import com.akos.database.repositories.UserRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.DigestUtils;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
-import java.util.Optional;
+import java.util.Set;
 
 /**
  * Service class providing business logic for managing users.
+ * Every method runs in a transaction, so the lazily loaded tasks can be mapped into the DTOs.
+ * The users looked up by ID are cached. The tasks of a user DTO are looked up by their IDs, a user only links
+ * existing tasks and never changes them.
+ * The durations of the calls are published per method by the {@code service.calls} timer.
  */
 @Service
+@Timed(value = "service.calls", histogram = true)
+@Transactional(readOnly = true)
 public class UserService {
     private final UserRepository userRepository;
     private final TaskRepository taskRepository;
     private final UserMapper userMapper;
+    private final CursorCodec cursorCodec;
+    private final DtoCache dtoCache;
+    private final DtoCacheEvictor dtoCacheEvictor;
+    private final EntityManager entityManager;
+    private final int batchSize;
 
     /**
      * Constructs a UserService with the provided UserRepository, UserMapper, and TaskRepository.
      *
-     * @param userRepository The repository for user entities.
-     * @param userMapper     The mapper for converting between user entities and DTOs.
-     * @param taskRepository The repository for task entities.
+     * @param userRepository  The repository for user entities.
+     * @param userMapper      The mapper for converting between user entities and DTOs.
+     * @param taskRepository  The repository for task entities.
+     * @param cursorCodec     The codec for the cursors of the keyset paginated lists.
+     * @param dtoCache        The cache of the user DTOs looked up by ID.
+     * @param dtoCacheEvictor The evictor of the cached DTOs which depend on a changed user.
+     * @param entityManager   The entity manager detaching the users updated without the persistence context.
+     * @param batchSize       The number of task assignments written to the database in one JDBC batch.
      */
-    public UserService(UserRepository userRepository, UserMapper userMapper, TaskRepository taskRepository) {
+    public UserService(UserRepository userRepository, UserMapper userMapper, TaskRepository taskRepository,
+                       CursorCodec cursorCodec, DtoCache dtoCache, DtoCacheEvictor dtoCacheEvictor,
+                       EntityManager entityManager, @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize) {
         this.userRepository = userRepository;
         this.taskRepository = taskRepository;
         this.userMapper = userMapper;
+        this.cursorCodec = cursorCodec;
+        this.dtoCache = dtoCache;
+        this.dtoCacheEvictor = dtoCacheEvictor;
+        this.entityManager = entityManager;
+        this.batchSize = batchSize;
     }
 
     /**
@@ -48,30 +92,112 @@ public class UserService {
                 .map(userMapper::toDto);
     }
 
+    /**
+     * Retrieves a slice of all users.
+     * Unlike the paged variant it does not count the users, the slice only tells whether there is a next slice.
+     *
+     * @param pageable The pagination information.
+     * @return A Slice containing user DTOs.
+     */
+    public Slice<UserDto> findAllSlice(Pageable pageable) {
+        return userRepository.findSliceBy(pageable)
+                .map(userMapper::toDto);
+    }
+
+    /**
+     * Retrieves all users with keyset pagination.
+     *
+     * @param after    The cursor of the last user of the previous page, empty for the first page.
+     * @param pageable The size and sort of the page, the page number is ignored.
+     * @return A CursorPageDto containing user DTOs.
+     * @throws IllegalArgumentException if the cursor is invalid.
+     */
+    public CursorPageDto<UserDto> findAll(String after, Pageable pageable) {
+        KeysetScrollPosition position = cursorCodec.decode(after, pageable.getSort(), UserEntity.class);
+        return cursorCodec.toCursorPage(
+                userRepository.findAllBy(position, Limit.of(pageable.getPageSize()), pageable.getSort())
+                        .map(userMapper::toDto));
+    }
+
+    /**
+     * Retrieves only the requested fields of all users with pagination.
+     * The fields are selected as columns, no entity is loaded and nothing is mapped.
+     *
+     * @param fields   The names of the fields, as in the DTO.
+     * @param pageable The pagination information.
+     * @return A Page containing the selected fields of the users.
+     * @throws InvalidDataAccessApiUsageException if a field or a sort property is unknown.
+     */
+    public Page<Map<String, Object>> findAllFields(Collection<String> fields, Pageable pageable) {
+        return userRepository.findFieldsBy(fields, pageable);
+    }
+
+    /**
+     * Retrieves only the requested fields of a slice of all users, without counting the users.
+     *
+     * @param fields   The names of the fields, as in the DTO.
+     * @param pageable The pagination information.
+     * @return A Slice containing the selected fields of the users.
+     * @throws InvalidDataAccessApiUsageException if a field or a sort property is unknown.
+     */
+    public Slice<Map<String, Object>> findAllFieldsSlice(Collection<String> fields, Pageable pageable) {
+        return userRepository.findFieldsSliceBy(fields, pageable);
+    }
+
     /**
      * Retrieves a user by its ID.
+     * The user and its tasks are looked up one by one, so they can be served from the second-level cache.
      *
      * @param id The ID of the user to retrieve.
      * @return The corresponding user DTO.
      * @throws IllegalArgumentException if the user is not found.
      */
     public UserDto findById(Long id) {
-        UserEntity userEntity = userRepository.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("User not found with this id:" + id));
-        return userMapper.toDto(userEntity);
+        return findVersionedById(id).value();
+    }
+
+    /**
+     * Retrieves a user by its ID together with its version tag, both taken from the same read of the user
+     * and its tasks. The pair is cached, a cached DTO is served with the version tag it was mapped at.
+     *
+     * @param id The ID of the user to retrieve.
+     * @return The corresponding user DTO and its version tag.
+     * @throws IllegalArgumentException if the user is not found.
+     */
+    public Versioned<UserDto> findVersionedById(Long id) {
+        return dtoCache.getUser(id, () -> userRepository.findById(id)
+                .map(userEntity -> new Versioned<>(userMapper.toDto(userEntity), versionTagOf(userEntity)))
+                .orElseThrow(() -> new IllegalArgumentException("User not found with this id:" + id)));
+    }
+
+    /**
+     * Retrieves only the requested fields of a user, selected as columns without loading the user.
+     *
+     * @param id     The ID of the user.
+     * @param fields The names of the fields, as in the DTO.
+     * @return The selected fields of the user, in the requested order.
+     * @throws InvalidDataAccessApiUsageException if a field is unknown.
+     * @throws NoSuchElementException              if the user is not found.
+     */
+    public Map<String, Object> findFieldsById(Long id, Collection<String> fields) {
+        return userRepository.findFieldsById(id, fields)
+                .orElseThrow(() -> new NoSuchElementException("User not found with this id: " + id));
     }
 
     /**
      * Deletes a user by its ID.
+     * The user is deleted with a single statement, its assignments are deleted by the database
+     * and its tasks are kept.
      *
      * @param id The ID of the user to be deleted.
      * @throws NoSuchElementException if the user is not found.
      */
+    @Transactional
     public void deleteById(Long id) {
-        if (!userRepository.existsById(id)) {
+        if (userRepository.deleteUserById(id) == 0) {
             throw new NoSuchElementException("User not found with Id: " + id);
         }
-        userRepository.deleteById(id);
+        dtoCacheEvictor.evictUser(id);
     }
 
     /**
@@ -79,73 +205,140 @@ public class UserService {
      *
      * @param userDto The user DTO to be saved.
      * @return The saved user DTO.
+     * @throws IllegalArgumentException if a task of the user has no ID or is not found.
      */
+    @Transactional
     public UserDto save(UserDto userDto) {
         UserEntity userEntity = userMapper.toEntity(userDto);
+        if (userDto.getTasks() != null) {
+            userEntity.setTasks(findTasksOf(userDto));
+        }
         UserEntity savedUserEntity = userRepository.save(userEntity);
         return userMapper.toDto(savedUserEntity);
     }
 
     /**
-     * Updates a user.
+     * Updates a user, non-null tasks replace the tasks of the user.
      *
-     * @param id      The ID of the user to be updated.
-     * @param userDto The updated user DTO.
-     * @return The updated user DTO.
-     * @throws IllegalArgumentException if the user is not found.
+     * @param id                 The ID of the user to be updated.
+     * @param userDto            The updated user DTO.
+     * @param expectedVersionTag The version tag the user must have, null to update any version.
+     * @return The updated user DTO and its new version tag.
+     * @throws IllegalArgumentException          if the user is not found, or a task has no ID or is not found.
+     * @throws OptimisticLockingFailureException if the user has another version or is updated concurrently.
      */
-    public UserDto update(Long id, UserDto userDto) {
-        UserEntity userEntity = userRepository.findById(id)
+    @Transactional
+    public Versioned<UserDto> update(Long id, UserDto userDto, String expectedVersionTag) {
+        UserEntity userEntity = userRepository.findWithTasksById(id)
                 .orElseThrow(() -> new IllegalArgumentException("User not found with id:" + id));
+        checkVersionTag(userEntity, expectedVersionTag);
         userMapper.updateEntity(userDto, userEntity);
-        UserEntity updatedUserEntity = userRepository.save(userEntity);
-        return userMapper.toDto(updatedUserEntity);
+        if (userDto.getTasks() != null) {
+            Set<TaskEntity> tasks = findTasksOf(userDto);
+            userEntity.getTasks().retainAll(tasks);
+            userEntity.getTasks().addAll(tasks);
+        }
+        dtoCacheEvictor.evictUser(id);
+        // Flushed, so the version is incremented before the tag is taken
+        UserEntity updatedUserEntity = userRepository.saveAndFlush(userEntity);
+        return new Versioned<>(userMapper.toDto(updatedUserEntity), versionTagOf(updatedUserEntity));
     }
 
     /**
      * Partially updates a user based on a partial user DTO.
+     * Only the non-null fields are updated with a single UPDATE statement. The user is loaded beforehand
+     * only to check its version tag, which also depends on its tasks.
      *
-     * @param id             The ID of the user to be partially updated.
-     * @param partialUserDto The partial user DTO containing updated information.
-     * @return The partially updated user DTO.
-     * @throws NoSuchElementException if the user is not found.
+     * @param id                 The ID of the user to be partially updated.
+     * @param partialUserDto     The partial user DTO containing updated information.
+     * @param expectedVersionTag The version tag the user must have, null to update any version.
+     * @return The partially updated user DTO and its new version tag.
+     * @throws NoSuchElementException            if the user is not found.
+     * @throws OptimisticLockingFailureException if the user has another version or is updated concurrently.
      */
-    public UserDto partialUpdate(Long id, UserDto partialUserDto) {
-        UserEntity userEntity = userRepository.findById(id)
-                .orElseThrow(() -> new NoSuchElementException("User not found with this id: " + id));
+    @Transactional
+    public Versioned<UserDto> partialUpdate(Long id, UserDto partialUserDto, String expectedVersionTag) {
+        Long expectedVersion = null;
+        if (expectedVersionTag != null) {
+            UserEntity userEntity = userRepository.findWithTasksById(id)
+                    .orElseThrow(() -> new NoSuchElementException("User not found with this id: " + id));
+            checkVersionTag(userEntity, expectedVersionTag);
+            expectedVersion = userEntity.getVersion();
+            entityManager.detach(userEntity);
+        }
 
-        Optional.ofNullable(partialUserDto.getWorkHoursPerWeek()).ifPresent(userEntity::setWorkHoursPerWeek);
-        Optional.ofNullable(partialUserDto.getWorkingStatus()).ifPresent(userEntity::setWorkingStatus);
-        Optional.ofNullable(partialUserDto.getGender()).ifPresent(userEntity::setGender);
-        Optional.ofNullable(partialUserDto.getRank()).ifPresent(userEntity::setRank);
+        int updatedUsers = userRepository.updateNonNullFields(id, partialUserDto, expectedVersion);
+        if (updatedUsers == 0) {
+            if (!userRepository.existsById(id)) {
+                throw new NoSuchElementException("User not found with this id: " + id);
+            }
+            throw new OptimisticLockingFailureException("User " + id + " does not have the version " + expectedVersionTag);
+        }
+        dtoCacheEvictor.evictUser(id);
 
-        UserEntity updatedUser = userRepository.save(userEntity);
-        return userMapper.toDto(updatedUser);
+        return userRepository.findWithTasksById(id)
+                .map(userEntity -> new Versioned<>(userMapper.toDto(userEntity), versionTagOf(userEntity)))
+                .orElseThrow(() -> new NoSuchElementException("User not found with this id: " + id));
     }
 
     /**
      * Adds a task to a user.
+     * The task is inserted into the join table with a single statement, neither the user nor the task is loaded.
+     * The reason of a failed assignment is only looked up afterwards.
      *
      * @param userId The ID of the user.
      * @param taskId The ID of the task to be added.
      * @return The updated user DTO.
      * @throws IllegalArgumentException if the user or task is not found, or if the task has already been completed.
      */
+    @Transactional
     public UserDto addTaskToUser(Long userId, Long taskId) {
-        UserEntity userEntity = userRepository.findById(userId)
-                .orElseThrow(() -> new IllegalArgumentException("User not found with id: " + userId));
+        if (userRepository.assignTask(userId, taskId) == 0) {
+            if (!userRepository.existsById(userId)) {
+                throw new IllegalArgumentException("User not found with id: " + userId);
+            }
+            TaskEntity taskEntity = taskRepository.findById(taskId)
+                    .orElseThrow(() -> new IllegalArgumentException("Task not found with this id:" + taskId));
+            if (taskEntity.getState().equals(TaskState.COMPLETED)) {
+                throw new IllegalArgumentException("Task has already been completed");
+            }
+        }
+        dtoCacheEvictor.evictUser(userId);
 
-        TaskEntity taskEntity = taskRepository.findById(taskId)
-                .orElseThrow(() -> new IllegalArgumentException("Task not found with this id:" + taskId));
+        return userRepository.findWithTasksById(userId)
+                .map(userMapper::toDto)
+                .orElseThrow(() -> new IllegalArgumentException("User not found with id: " + userId));
+    }
 
-        if (taskEntity.getState().equals(TaskState.COMPLETED)) {
-            throw new IllegalArgumentException("Task has already been completed");
+    /**
+     * Assigns many tasks to users in one transaction, the assignments are sent in JDBC batches.
+     * An assignment is skipped if the task is already assigned to the user, the user or the task is not found,
+     * or the task has already been completed.
+     *
+     * @param assignments The pairs of users and tasks.
+     * @return The report of the assigned and skipped assignments.
+     * @throws IllegalArgumentException if an assignment lacks the user or the task ID.
+     */
+    @Transactional
+    public AssignmentReportDto assignTasks(List<TaskAssignmentDto> assignments) {
+        boolean incomplete = assignments.stream()
+                .anyMatch(assignment -> assignment.getUserId() == null || assignment.getTaskId() == null);
+        if (incomplete) {
+            throw new IllegalArgumentException("Every assignment needs a user ID and a task ID");
         }
 
-        userEntity.getTasks().add(taskEntity);
-
-        UserEntity updatedUser = userRepository.save(userEntity);
-        return userMapper.toDto(updatedUser);
+        int[] assigned = userRepository.assignTasks(assignments, batchSize);
+        AssignmentReportDto report = new AssignmentReportDto();
+        for (int i = 0; i < assigned.length; i++) {
+            TaskAssignmentDto assignment = assignments.get(i);
+            if (assigned[i] > 0) {
+                report.setAssigned(report.getAssigned() + 1);
+                dtoCacheEvictor.evictUser(assignment.getUserId());
+            } else {
+                report.getNotAssigned().add(assignment);
+            }
+        }
+        return report;
     }
 
     /**
@@ -159,6 +352,17 @@ public class UserService {
         return userEntities.map(userMapper::toDto);
     }
 
+    /**
+     * Retrieves a slice of all available users without counting them.
+     *
+     * @param pageable The pagination information.
+     * @return A Slice containing available user DTOs.
+     */
+    public Slice<UserDto> findAvailableUsersSlice(Pageable pageable) {
+        return userRepository.findSliceOfUsersWhoAreActivelyWorking(pageable)
+                .map(userMapper::toDto);
+    }
+
     /**
      * Retrieves users with a specific rank.
      *
@@ -171,6 +375,18 @@ public class UserService {
         return userEntities.map(userMapper::toDto);
     }
 
+    /**
+     * Retrieves a slice of users with a specific rank without counting them.
+     *
+     * @param pageable The pagination information.
+     * @param rank     The rank of users to retrieve.
+     * @return A Slice containing user DTOs with the specified rank.
+     */
+    public Slice<UserDto> findUsersWithRankSlice(Pageable pageable, UserRank rank) {
+        return userRepository.findSliceOfUsersWithThisTypeOfRank(rank, pageable)
+                .map(userMapper::toDto);
+    }
+
     /**
      * Retrieves users with less weekly work hours.
      *
@@ -182,4 +398,93 @@ public class UserService {
         Page<UserEntity> userEntities = userRepository.findUsersWithLessWeeklyWorkHours(weeklyWorkHours, pageable);
         return userEntities.map(userMapper::toDto);
     }
+
+    /**
+     * Retrieves a slice of users with less weekly work hours without counting them.
+     *
+     * @param pageable        The pagination information.
+     * @param weeklyWorkHours The maximum weekly work hours.
+     * @return A Slice containing user DTOs with less weekly work hours.
+     */
+    public Slice<UserDto> findUsersWithLessWeeklyWorkHoursSlice(Pageable pageable, Long weeklyWorkHours) {
+        return userRepository.findSliceOfUsersWithLessWeeklyWorkHours(weeklyWorkHours, pageable)
+                .map(userMapper::toDto);
+    }
+
+    /**
+     * Retrieves all available users with keyset pagination.
+     *
+     * @param after    The cursor of the last user of the previous page, empty for the first page.
+     * @param pageable The size and sort of the page, the page number is ignored.
+     * @return A CursorPageDto containing available user DTOs.
+     * @throws IllegalArgumentException if the cursor is invalid.
+     */
+    public CursorPageDto<UserDto> findAvailableUsers(String after, Pageable pageable) {
+        KeysetScrollPosition position = cursorCodec.decode(after, pageable.getSort(), UserEntity.class);
+        return cursorCodec.toCursorPage(
+                userRepository.findByWorkingStatus(WorkingStatus.ACTIVE, position, Limit.of(pageable.getPageSize()), pageable.getSort())
+                        .map(userMapper::toDto));
+    }
+
+    /**
+     * Retrieves users with a specific rank with keyset pagination.
+     *
+     * @param after    The cursor of the last user of the previous page, empty for the first page.
+     * @param pageable The size and sort of the page, the page number is ignored.
+     * @param rank     The rank of users to retrieve.
+     * @return A CursorPageDto containing user DTOs with the specified rank.
+     * @throws IllegalArgumentException if the cursor is invalid.
+     */
+    public CursorPageDto<UserDto> findUsersWithRank(String after, Pageable pageable, UserRank rank) {
+        KeysetScrollPosition position = cursorCodec.decode(after, pageable.getSort(), UserEntity.class);
+        return cursorCodec.toCursorPage(
+                userRepository.findByRank(rank, position, Limit.of(pageable.getPageSize()), pageable.getSort())
+                        .map(userMapper::toDto));
+    }
+
+    /**
+     * Retrieves users with less weekly work hours with keyset pagination.
+     *
+     * @param after           The cursor of the last user of the previous page, empty for the first page.
+     * @param pageable        The size and sort of the page, the page number is ignored.
+     * @param weeklyWorkHours The maximum weekly work hours.
+     * @return A CursorPageDto containing user DTOs with less weekly work hours.
+     * @throws IllegalArgumentException if the cursor is invalid.
+     */
+    public CursorPageDto<UserDto> findUsersWithLessWeeklyWorkHours(String after, Pageable pageable, Long weeklyWorkHours) {
+        KeysetScrollPosition position = cursorCodec.decode(after, pageable.getSort(), UserEntity.class);
+        return cursorCodec.toCursorPage(
+                userRepository.findByWorkHoursPerWeekLessThan(weeklyWorkHours, position, Limit.of(pageable.getPageSize()), pageable.getSort())
+                        .map(userMapper::toDto));
+    }
+
+    private static String versionTagOf(UserEntity userEntity) {
+        StringBuilder versions = new StringBuilder().append(userEntity.getVersion());
+        userEntity.getTasks().stream()
+                .sorted(Comparator.comparing(TaskEntity::getId))
+                .forEach(task -> versions.append(';').append(task.getId()).append(':').append(task.getVersion()));
+        return DigestUtils.md5DigestAsHex(versions.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void checkVersionTag(UserEntity userEntity, String expectedVersionTag) {
+        if (expectedVersionTag != null && !expectedVersionTag.equals(versionTagOf(userEntity))) {
+            throw new OptimisticLockingFailureException(
+                    "User " + userEntity.getId() + " does not have the version " + expectedVersionTag);
+        }
+    }
+
+    private Set<TaskEntity> findTasksOf(UserDto userDto) {
+        Set<Long> taskIds = new HashSet<>();
+        for (TaskDto taskDto : userDto.getTasks()) {
+            if (taskDto.getId() == null) {
+                throw new IllegalArgumentException("The tasks of a user are referenced by their IDs");
+            }
+            taskIds.add(taskDto.getId());
+        }
+        List<TaskEntity> tasks = taskRepository.findAllById(taskIds);
+        if (tasks.size() != taskIds.size()) {
+            throw new IllegalArgumentException("Task not found with one of these ids: " + taskIds);
+        }
+        return new HashSet<>(tasks);
+    }
 }
@@ -0,0 +1,12 @@
+package com.akos.database.services;
+
+/**
+ * A DTO together with the version tag of the entity it was mapped from.
+ * Both come from the same read, so the ETag of a response always belongs to its body.
+ *
+ * @param value      The DTO.
+ * @param versionTag The version tag of the entity the DTO was mapped from.
+ * @param <T>        The type of the DTO.
+ */
+public record Versioned<T>(T value, String versionTag) {
+}
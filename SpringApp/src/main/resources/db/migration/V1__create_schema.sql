@@ -0,0 +1,44 @@
+-- Tables of the task and user entities, formerly generated by Hibernate on startup.
+
+CREATE SEQUENCE tasks_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE users_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE tasks (
+    id                                    BIGINT       NOT NULL,
+    name                                  VARCHAR(255) NOT NULL,
+    description                           VARCHAR(255),
+    worktime_in_hours_per_week_per_person BIGINT       NOT NULL,
+    type                                  VARCHAR(255) NOT NULL,
+    deadline                              DATE         NOT NULL,
+    state                                 VARCHAR(255) NOT NULL,
+    weeks_needed                          BIGINT       NOT NULL,
+    persons_need                          BIGINT,
+    CONSTRAINT pk_tasks PRIMARY KEY (id),
+    CONSTRAINT ck_tasks_type CHECK (type IN ('BUG_FIX', 'FEATURE_IMPLEMENTATION', 'CODE_REVIEW', 'TESTING',
+                                             'REQUIREMENTS_ANALYSIS', 'DOCUMENTATION', 'RELEASE', 'DEPLOYMENT',
+                                             'MAINTENANCE', 'REFACTORING', 'TRAINING', 'SUPPORT')),
+    CONSTRAINT ck_tasks_state CHECK (state IN ('COMPLETED', 'IN_PROGRESS', 'NOT_STARTED'))
+);
+
+CREATE TABLE users (
+    id                 BIGINT       NOT NULL,
+    first_name         VARCHAR(255) NOT NULL,
+    family_name        VARCHAR(255) NOT NULL,
+    workhours_per_week BIGINT,
+    rank               VARCHAR(255) NOT NULL,
+    birthdate          DATE         NOT NULL,
+    gender             VARCHAR(255),
+    working_status     VARCHAR(255),
+    CONSTRAINT pk_users PRIMARY KEY (id),
+    CONSTRAINT ck_users_rank CHECK (rank IN ('MANAGER', 'BOSS', 'ADMIN', 'WORKER')),
+    CONSTRAINT ck_users_gender CHECK (gender IN ('MALE', 'FEMALE')),
+    CONSTRAINT ck_users_working_status CHECK (working_status IN ('ACTIVE', 'ON_VACATION', 'RETIRED'))
+);
+
+CREATE TABLE users_tasks (
+    user_id BIGINT NOT NULL,
+    task_id BIGINT NOT NULL,
+    CONSTRAINT pk_users_tasks PRIMARY KEY (user_id, task_id),
+    CONSTRAINT fk_users_tasks_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_users_tasks_task FOREIGN KEY (task_id) REFERENCES tasks (id)
+);
@@ -0,0 +1,22 @@
+-- Indexes of the filtered list endpoints.
+-- Every index ends with the id, so the rows matching an equality filter are read in id order
+-- and the keyset paginated lists sorted by id can seek to the cursor instead of sorting all matching rows.
+
+-- TaskRepository.findByStateIn (available tasks)
+CREATE INDEX idx_tasks_state_id ON tasks (state, id);
+
+-- TaskRepository.findTaskTypeLikeThis, findByType
+CREATE INDEX idx_tasks_type_id ON tasks (type, id);
+
+-- UserRepository.findUsersWithThisTypeOfRank, findByRank
+CREATE INDEX idx_users_rank_id ON users (rank, id);
+
+-- UserRepository.findUsersWhoAreActivelyWorking, findByWorkingStatus
+CREATE INDEX idx_users_working_status_id ON users (working_status, id);
+
+-- UserRepository.findUsersWithLessWeeklyWorkHours, findByWorkHoursPerWeekLessThan
+CREATE INDEX idx_users_workhours_per_week_id ON users (workhours_per_week, id);
+
+-- The primary key of users_tasks starts with user_id, this index serves the joins from a task to its users
+-- and the foreign key checks when a task is deleted.
+CREATE INDEX idx_users_tasks_task_id ON users_tasks (task_id, user_id);
@@ -0,0 +1,4 @@
+-- Optimistic locking versions of the tasks and users, they are also the entity tags of the HTTP responses.
+
+ALTER TABLE tasks ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE users ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
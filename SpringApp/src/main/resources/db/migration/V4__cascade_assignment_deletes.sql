@@ -0,0 +1,7 @@
+-- Deleting a task or a user also deletes its assignments in the database, so a delete is a single statement.
+
+ALTER TABLE users_tasks DROP CONSTRAINT fk_users_tasks_user;
+ALTER TABLE users_tasks ADD CONSTRAINT fk_users_tasks_user FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE;
+
+ALTER TABLE users_tasks DROP CONSTRAINT fk_users_tasks_task;
+ALTER TABLE users_tasks ADD CONSTRAINT fk_users_tasks_task FOREIGN KEY (task_id) REFERENCES tasks (id) ON DELETE CASCADE;
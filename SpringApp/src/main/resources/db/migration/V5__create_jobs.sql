@@ -0,0 +1,36 @@
+-- Asynchronous bulk jobs and their progress, kept in the database so they survive a restart of the application.
+
+CREATE SEQUENCE jobs_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE jobs (
+    id           BIGINT                      NOT NULL,
+    type         VARCHAR(255)                NOT NULL,
+    status       VARCHAR(255)                NOT NULL,
+    task_state   VARCHAR(255),
+    target_state VARCHAR(255),
+    input_file   VARCHAR(1000),
+    total        BIGINT,
+    processed    BIGINT                      NOT NULL,
+    succeeded    BIGINT                      NOT NULL,
+    failed       BIGINT                      NOT NULL,
+    created_at   TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    started_at   TIMESTAMP(6) WITH TIME ZONE,
+    finished_at  TIMESTAMP(6) WITH TIME ZONE,
+    CONSTRAINT pk_jobs PRIMARY KEY (id),
+    CONSTRAINT ck_jobs_type CHECK (type IN ('TASK_STATE_CHANGE', 'TASK_DELETION', 'USER_IMPORT')),
+    CONSTRAINT ck_jobs_status CHECK (status IN ('QUEUED', 'RUNNING', 'SUCCEEDED', 'FAILED', 'INTERRUPTED')),
+    CONSTRAINT ck_jobs_task_state CHECK (task_state IN ('COMPLETED', 'IN_PROGRESS', 'NOT_STARTED')),
+    CONSTRAINT ck_jobs_target_state CHECK (target_state IN ('COMPLETED', 'IN_PROGRESS', 'NOT_STARTED'))
+);
+
+-- JobRepository.findByStatusIn, run on startup to resume the unfinished jobs
+CREATE INDEX idx_jobs_status_id ON jobs (status, id);
+
+CREATE TABLE job_errors (
+    job_id      BIGINT        NOT NULL,
+    error_index INTEGER       NOT NULL,
+    item        BIGINT,
+    message     VARCHAR(1000),
+    CONSTRAINT pk_job_errors PRIMARY KEY (job_id, error_index),
+    CONSTRAINT fk_job_errors_job FOREIGN KEY (job_id) REFERENCES jobs (id) ON DELETE CASCADE
+);
@@ -0,0 +1,21 @@
+package com.akos.database;
+
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Starts every test application context with an empty, freshly migrated database.
+ * The in-memory database is kept open by the cached contexts, so it would otherwise keep the rows of earlier tests.
+ */
+@Configuration
+public class FlywayTestConfiguration {
+
+    @Bean
+    public FlywayMigrationStrategy cleanMigrateStrategy() {
+        return flyway -> {
+            flyway.clean();
+            flyway.migrate();
+        };
+    }
+}
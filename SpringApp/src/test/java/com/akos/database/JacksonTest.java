@@ -1,9 +1,11 @@
 package com.akos.database;
 
+import com.akos.database.dtos.TaskDto;
 import com.akos.database.entities.TaskEntity;
 import com.akos.database.entities.TaskState;
 import com.akos.database.entities.TaskType;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -12,6 +14,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import java.time.LocalDate;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @SpringBootTest
 @AutoConfigureMockMvc
@@ -33,7 +36,28 @@ public class JacksonTest {
 
 
         String result = objectMapper.writeValueAsString(task);
-        assertThat(result).isEqualTo("{\"id\":null,\"name\":\"Task 1\",\"description\":\"Description for Task 1\",\"workTimePerWeekPerPerson\":10,\"type\":\"TESTING\",\"deadLine\":\"2023-12-31\",\"state\":\"IN_PROGRESS\",\"weeksNeeded\":2,\"personsNeeded\":3,\"users\":null}");
+        assertThat(result).isEqualTo("{\"id\":null,\"name\":\"Task 1\",\"description\":\"Description for Task 1\",\"workTimePerWeekPerPerson\":10,\"type\":\"TESTING\",\"deadLine\":\"2023-12-31\",\"state\":\"IN_PROGRESS\",\"weeksNeeded\":2,\"personsNeeded\":3,\"version\":null,\"users\":null}");
+    }
+
+    @Test
+    public void DatesAreWrittenAndReadAsIsoDates() throws JsonProcessingException {
+        for (LocalDate date : new LocalDate[]{LocalDate.of(2024, 2, 29), LocalDate.of(1, 1, 1),
+                LocalDate.of(9999, 12, 31), LocalDate.of(10000, 1, 1), LocalDate.of(-1, 6, 15)}) {
+            TaskDto task = TaskDto.builder().deadLine(date).build();
+
+            String json = objectMapper.writeValueAsString(task);
+
+            assertThat(json).contains("\"deadLine\":\"" + date + "\"");
+            assertThat(objectMapper.readValue(json, TaskDto.class).getDeadLine()).isEqualTo(date);
+        }
+    }
+
+    @Test
+    public void InvalidDatesAreRejected() {
+        for (String date : new String[]{"2023-02-29", "2023-13-01", "2023-1-01", "2023/01/01", ""}) {
+            assertThatThrownBy(() -> objectMapper.readValue("{\"deadLine\":\"" + date + "\"}", TaskDto.class))
+                    .isInstanceOf(JsonMappingException.class);
+        }
     }
 
 
@@ -0,0 +1,77 @@
+package com.akos.database.benchmarks;
+
+import com.akos.database.TestDataUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+/**
+ * Compares the insert throughput of POST /tasks (one task per request) with POST /tasks/batch.
+ * Run it with {@code ./gradlew benchmark}, the number of rows can be set with {@code -Dbenchmark.rows}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@AutoConfigureMockMvc
+public class TaskBatchInsertBenchmark {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 5000);
+
+    private final MockMvc mockMvc;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public TaskBatchInsertBenchmark(MockMvc mockMvc) {
+        this.mockMvc = mockMvc;
+        this.objectMapper = new ObjectMapper();
+    }
+
+    @Test
+    public void singleTaskRequests() throws Exception {
+        String taskJson = objectMapper.writeValueAsString(TestDataUtil.createTaskDto1());
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ROWS; i++) {
+            mockMvc.perform(
+                    MockMvcRequestBuilders.post("/tasks")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(taskJson)
+            ).andExpect(
+                    MockMvcResultMatchers.status().isCreated()
+            );
+        }
+        report("POST /tasks", System.nanoTime() - start);
+    }
+
+    @Test
+    public void batchRequest() throws Exception {
+        String taskJson = objectMapper.writeValueAsString(TestDataUtil.createTaskDto1());
+        StringBuilder tasksNdjson = new StringBuilder();
+        for (int i = 0; i < ROWS; i++) {
+            tasksNdjson.append(taskJson).append('\n');
+        }
+
+        long start = System.nanoTime();
+        mockMvc.perform(
+                MockMvcRequestBuilders.post("/tasks/batch")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(tasksNdjson.toString())
+        ).andExpect(
+                MockMvcResultMatchers.status().isCreated()
+        );
+        report("POST /tasks/batch", System.nanoTime() - start);
+    }
+
+    private static void report(String path, long elapsedNanos) {
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        System.out.printf("%-20s %6d rows in %8.3f s = %10.1f rows/s%n", path, ROWS, seconds, ROWS / seconds);
+    }
+}
@@ -0,0 +1,104 @@
+package com.akos.database.benchmarks;
+
+import com.akos.database.TestDataUtil;
+import com.akos.database.dtos.TaskDto;
+import com.akos.database.dtos.UserDto;
+import com.akos.database.entities.TaskEntity;
+import com.akos.database.entities.TaskState;
+import com.akos.database.repositories.TaskRepository;
+import com.akos.database.services.DtoCacheEvictor;
+import com.akos.database.services.TaskService;
+import com.akos.database.services.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Compares the latency of flipping the state of a task assigned to several users by loading and saving the task
+ * with the single UPDATE statement of TaskService.partialUpdate.
+ * Run it with {@code ./gradlew benchmark}, the number of updates can be set with {@code -Dbenchmark.rows}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class TaskPartialUpdateBenchmark {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 5000);
+    private static final int WARMUP_ROWS = ROWS / 5;
+    private static final int USERS_OF_THE_TASK = 20;
+
+    private final TaskService taskService;
+    private final UserService userService;
+    private final TaskRepository taskRepository;
+    private final DtoCacheEvictor dtoCacheEvictor;
+    private final TransactionTemplate transactionTemplate;
+    private Long taskId;
+
+    @Autowired
+    public TaskPartialUpdateBenchmark(TaskService taskService, UserService userService, TaskRepository taskRepository,
+                                      DtoCacheEvictor dtoCacheEvictor, PlatformTransactionManager transactionManager) {
+        this.taskService = taskService;
+        this.userService = userService;
+        this.taskRepository = taskRepository;
+        this.dtoCacheEvictor = dtoCacheEvictor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @BeforeEach
+    public void createTaskWithUsers() {
+        taskId = taskService.save(TestDataUtil.createTaskDto1()).getId();
+        for (int i = 0; i < USERS_OF_THE_TASK; i++) {
+            UserDto savedUser = userService.save(TestDataUtil.createTestUserDtoA());
+            userService.addTaskToUser(savedUser.getId(), taskId);
+        }
+    }
+
+    @Test
+    public void loadThenSave() {
+        measure("load then save", state -> transactionTemplate.executeWithoutResult(status -> {
+            TaskEntity taskEntity = taskRepository.findById(taskId).orElseThrow();
+            taskEntity.setState(state);
+            dtoCacheEvictor.evictTasks(List.of(taskId));
+            taskRepository.save(taskEntity);
+        }));
+    }
+
+    @Test
+    public void singleStatementUpdate() {
+        measure("single UPDATE", state -> taskService.partialUpdate(taskId, TaskDto.builder().state(state).build(), null));
+    }
+
+    private static void measure(String path, Consumer<TaskState> stateUpdate) {
+        for (int i = 0; i < WARMUP_ROWS; i++) {
+            stateUpdate.accept(stateOf(i));
+        }
+        long[] latencies = new long[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            TaskState state = stateOf(i);
+            long start = System.nanoTime();
+            stateUpdate.accept(state);
+            latencies[i] = System.nanoTime() - start;
+        }
+        report(path, latencies);
+    }
+
+    private static TaskState stateOf(int i) {
+        return i % 2 == 0 ? TaskState.IN_PROGRESS : TaskState.NOT_STARTED;
+    }
+
+    private static void report(String path, long[] latencies) {
+        Arrays.sort(latencies);
+        double averageMicros = Arrays.stream(latencies).average().orElse(0) / 1_000.0;
+        System.out.printf("%-20s %6d updates: avg %8.1f us, p50 %8.1f us, p99 %8.1f us%n", path, ROWS, averageMicros,
+                latencies[latencies.length / 2] / 1_000.0, latencies[(int) (latencies.length * 0.99)] / 1_000.0);
+    }
+}
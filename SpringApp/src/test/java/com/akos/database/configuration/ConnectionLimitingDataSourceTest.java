@@ -0,0 +1,73 @@
+package com.akos.database.configuration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ConnectionLimitingDataSourceTest {
+
+    private static final String URL = "jdbc:h2:mem:gatedb;DB_CLOSE_DELAY=-1";
+
+    @Test
+    public void testThatConnectionsBeyondTheLimitTimeOutUntilOneIsClosed() throws SQLException {
+        ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(
+                new DriverManagerDataSource(URL), 2, Duration.ofMillis(50));
+
+        Connection first = dataSource.getConnection();
+        Connection second = dataSource.getConnection();
+        assertThat(dataSource.getAvailablePermits()).isZero();
+        assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+
+        first.close();
+        first.close();
+        assertThat(first.isClosed()).isTrue();
+        assertThat(dataSource.getAvailablePermits()).isEqualTo(1);
+
+        try (Connection third = dataSource.getConnection()) {
+            assertThat(third.isValid(1)).isTrue();
+        }
+        second.close();
+        assertThat(dataSource.getAvailablePermits()).isEqualTo(2);
+    }
+
+    @Test
+    public void testThatPermitIsReleasedWhenTheTargetFails() {
+        ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(
+                new DriverManagerDataSource("jdbc:h2:mem:gatedb;IFEXISTS=TRUE;UNKNOWN_SETTING=1"), 1,
+                Duration.ofMillis(50));
+
+        assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLException.class)
+                .isNotInstanceOf(SQLTransientConnectionException.class);
+        assertThat(dataSource.getAvailablePermits()).isEqualTo(1);
+    }
+
+    @Test
+    public void testThatWaitingCallerGetsTheConnectionReleasedByAnother() throws Exception {
+        ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(
+                new DriverManagerDataSource(URL), 1, Duration.ofSeconds(5));
+
+        Connection held = dataSource.getConnection();
+        Thread waiting = new Thread(() -> {
+            try (Connection connection = dataSource.getConnection()) {
+                connection.isValid(1);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        waiting.start();
+        Thread.sleep(100);
+        assertThat(waiting.isAlive()).isTrue();
+
+        held.close();
+        waiting.join(5000);
+        assertThat(waiting.isAlive()).isFalse();
+        assertThat(dataSource.getAvailablePermits()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,52 @@
+package com.akos.database.configuration;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HibernateQueryMetricsBinderTest {
+
+    @Test
+    public void testThatQueriesAreNamedByTheirEntityKindAndHash() {
+        String name = HibernateQueryMetricsBinder.nameOf("SELECT a FROM TaskEntity a WHERE a.state IN :taskStates");
+
+        assertThat(name).matches("TaskEntity\\.select\\.[0-9a-f]{8}");
+        assertThat(HibernateQueryMetricsBinder.nameOf("update com.akos.database.entities.UserEntity set version = 1"))
+                .startsWith("UserEntity.update.");
+        assertThat(HibernateQueryMetricsBinder.nameOf("SELECT a FROM TaskEntity a WHERE a.id = :id"))
+                .startsWith("TaskEntity.select.")
+                .isNotEqualTo(name);
+    }
+
+    @Test
+    public void testThatNoMoreThanTheMaximumNumberOfQueriesArePublished() {
+        String[] queries = IntStream.range(0, HibernateQueryMetricsBinder.MAX_QUERIES + 50)
+                .mapToObj(i -> "SELECT t FROM TaskEntity t WHERE t.id = " + i)
+                .toArray(String[]::new);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        new HibernateQueryMetricsBinder(statisticsOf(queries)).bindTo(registry);
+
+        assertThat(registry.find("hibernate.query.execution").meters())
+                .hasSize(HibernateQueryMetricsBinder.MAX_QUERIES);
+    }
+
+    private static Statistics statisticsOf(String[] queries) {
+        QueryStatistics queryStatistics = (QueryStatistics) Proxy.newProxyInstance(
+                QueryStatistics.class.getClassLoader(), new Class<?>[]{QueryStatistics.class},
+                (proxy, method, args) -> 0L);
+        return (Statistics) Proxy.newProxyInstance(Statistics.class.getClassLoader(), new Class<?>[]{Statistics.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "isStatisticsEnabled" -> true;
+                    case "getQueries" -> queries;
+                    case "getQueryStatistics" -> queryStatistics;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,53 @@
+package com.akos.database.configuration;
+
+import com.akos.database.TestDataUtil;
+import com.akos.database.dtos.TaskDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@AutoConfigureObservability
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "management.server.port=0")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+public class MetricsIntegrationTest {
+
+    private final TestRestTemplate restTemplate;
+
+    @LocalManagementPort
+    private int managementPort;
+
+    @Autowired
+    public MetricsIntegrationTest(TestRestTemplate restTemplate) {
+        this.restTemplate = restTemplate;
+    }
+
+    @Test
+    public void testThatPrometheusEndpointPublishesRequestServiceQueryAndPoolMetrics() {
+        TaskDto savedTask = restTemplate.postForObject("/tasks", TestDataUtil.createTaskDto1(), TaskDto.class);
+        restTemplate.getForObject("/tasks/" + savedTask.getId(), TaskDto.class);
+        restTemplate.getForObject("/tasks/availableTasks", String.class);
+
+        ResponseEntity<String> scrape = restTemplate.getForEntity(
+                "http://localhost:" + managementPort + "/actuator/prometheus", String.class);
+
+        assertThat(scrape.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(scrape.getBody())
+                .contains("http_server_requests_seconds_bucket{error=\"none\",exception=\"none\",method=\"GET\","
+                        + "outcome=\"SUCCESS\",status=\"200\",uri=\"/tasks/{id}\",le=")
+                .contains("service_calls_seconds_count{class=\"com.akos.database.services.TaskService\","
+                        + "exception=\"none\",method=\"findVersionedById\",} 1.0")
+                .contains("http_server_requests_sql_statements_count{method=\"POST\",uri=\"/tasks\",} 1.0")
+                .contains("hibernate_query_execution_seconds_count{query=\"" + HibernateQueryMetricsBinder.nameOf(
+                        "SELECT a FROM TaskEntity a WHERE a.state IN :taskStates") + "\",} 1.0")
+                .contains("hibernate_entities_loads_total", "hibernate_collections_fetches_total",
+                        "hibernate_flushes_total", "hikaricp_connections_active");
+    }
+}
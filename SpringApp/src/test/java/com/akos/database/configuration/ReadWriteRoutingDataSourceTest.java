@@ -0,0 +1,209 @@
+package com.akos.database.configuration;
+
+import com.akos.database.TestDataUtil;
+import com.akos.database.dtos.TaskDto;
+import com.akos.database.entities.TaskState;
+import com.akos.database.services.TaskService;
+import com.akos.database.services.Versioned;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.Cookie;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+
+/**
+ * Runs against a replica that is a separate in-memory database, so it shows which database served a read.
+ * The time of the read-your-writes window is told by a clock the tests move forward.
+ */
+@SpringBootTest(properties = {
+        "app.datasource.replica.url=jdbc:h2:mem:replicadb;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "app.datasource.replica.read-your-writes-window=500ms"
+})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@AutoConfigureMockMvc
+public class ReadWriteRoutingDataSourceTest {
+
+    private static final long REPLICA_ONLY_TASK_ID = 1000L;
+    private static final Duration WINDOW = Duration.ofMillis(500);
+
+    private final TaskService taskService;
+    private final DataSource replicaDataSource;
+    private final MutableClock clock;
+    private final MockMvc mockMvc;
+
+    @Autowired
+    public ReadWriteRoutingDataSourceTest(TaskService taskService,
+                                          @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                          MutableClock clock, MockMvc mockMvc) {
+        this.taskService = taskService;
+        this.replicaDataSource = replicaDataSource;
+        this.clock = clock;
+        this.mockMvc = mockMvc;
+    }
+
+    @BeforeEach
+    public void setUpReplica() {
+        Flyway flyway = Flyway.configure().dataSource(replicaDataSource).cleanDisabled(false).load();
+        flyway.clean();
+        flyway.migrate();
+        new JdbcTemplate(replicaDataSource).update(
+                "INSERT INTO tasks (id, name, worktime_in_hours_per_week_per_person, type, deadline, state, weeks_needed) "
+                        + "VALUES (?, 'Replica task', 1, 'TESTING', DATE '2030-01-01', 'NOT_STARTED', 1)",
+                REPLICA_ONLY_TASK_ID);
+    }
+
+    @Test
+    public void testThatReadOnlyTransactionsAreServedByTheReplica() {
+        assertThat(taskService.findAll(PageRequest.of(0, 10)).getContent())
+                .extracting(TaskDto::getId)
+                .containsExactly(REPLICA_ONLY_TASK_ID);
+    }
+
+    @Test
+    public void testThatWritesGoToThePrimaryAndAreReadBackWithinTheWindow() {
+        // The list queries always reach the database, a lookup by ID could be served by the second-level cache
+        TaskDto savedTask = taskService.save(TestDataUtil.createTaskDto1());
+
+        clock.advance(WINDOW.minusMillis(1));
+        assertThat(taskIdsOnThisThread()).containsExactly(savedTask.getId());
+
+        clock.advance(Duration.ofMillis(1));
+        assertThat(taskIdsOnThisThread()).containsExactly(REPLICA_ONLY_TASK_ID);
+    }
+
+    @Test
+    public void testThatTheReadsOfOtherWritersStayOnTheReplicaAfterAWrite() throws Exception {
+        TaskDto savedTask = taskService.save(TestDataUtil.createTaskDto1());
+
+        assertThat(CompletableFuture.supplyAsync(this::taskIdsOnThisThread).get())
+                .containsExactly(REPLICA_ONLY_TASK_ID);
+        assertThat(taskIdsOnThisThread()).containsExactly(savedTask.getId());
+    }
+
+    @Test
+    public void testThatOnlyTheClientWithTheCookieOfItsWriteReadsFromThePrimary() throws Exception {
+        String marker = mockMvc.perform(
+                MockMvcRequestBuilders.post("/tasks")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(TestDataUtil.createTaskDto1()))
+        ).andExpect(
+                MockMvcResultMatchers.status().isCreated()
+        ).andExpect(
+                MockMvcResultMatchers.header().string(HttpHeaders.SET_COOKIE,
+                        containsString(ReadYourWritesInterceptor.COOKIE_NAME + "="))
+        ).andReturn().getResponse().getCookie(ReadYourWritesInterceptor.COOKIE_NAME).getValue();
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/tasks")
+                        .cookie(new Cookie(ReadYourWritesInterceptor.COOKIE_NAME, marker))
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.content[*].name").value(contains("Task 1"))
+        );
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/tasks")
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.content[*].id").value(contains((int) REPLICA_ONLY_TASK_ID))
+        );
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/tasks")
+                        .cookie(new Cookie(ReadYourWritesInterceptor.COOKIE_NAME,
+                                String.valueOf(clock.instant().plus(Duration.ofDays(1)).toEpochMilli())))
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.content[*].id").value(contains((int) REPLICA_ONLY_TASK_ID))
+        );
+    }
+
+    @Test
+    public void testThatATaskMissedInTheDtoCacheIsLoadedFromThePrimary() {
+        TaskDto savedTask = taskService.save(TestDataUtil.createTaskDto1());
+        // The replica has the task, but not its update yet
+        new JdbcTemplate(replicaDataSource).update(
+                "INSERT INTO tasks (id, name, worktime_in_hours_per_week_per_person, type, deadline, state, weeks_needed) "
+                        + "VALUES (?, 'Task 1', 1, 'TESTING', DATE '2030-01-01', 'IN_PROGRESS', 1)",
+                savedTask.getId());
+        taskService.partialUpdate(savedTask.getId(), TaskDto.builder().state(TaskState.COMPLETED).build(), null);
+
+        // Another client is outside the window of the update, but its miss must not cache the old row
+        Versioned<TaskDto> loadedTask = CompletableFuture.supplyAsync(
+                () -> taskService.findVersionedById(savedTask.getId())).join();
+        assertThat(loadedTask.value().getState()).isEqualTo(TaskState.COMPLETED);
+        assertThat(loadedTask.versionTag()).isEqualTo("1");
+
+        clock.advance(WINDOW);
+        assertThat(taskService.findVersionedById(savedTask.getId()).value().getState())
+                .isEqualTo(TaskState.COMPLETED);
+    }
+
+    private List<Long> taskIdsOnThisThread() {
+        return taskService.findAll(PageRequest.of(0, 10)).getContent().stream()
+                .map(TaskDto::getId)
+                .toList();
+    }
+
+    @TestConfiguration
+    static class ClockConfig {
+
+        @Bean
+        MutableClock clock() {
+            return new MutableClock(Instant.parse("2030-01-01T00:00:00Z"));
+        }
+    }
+
+    /**
+     * Clock standing still until it is moved forward.
+     */
+    static class MutableClock extends Clock {
+
+        private volatile Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.akos.database.configuration;
+
+import com.akos.database.TestDataUtil;
+import com.akos.database.entities.TaskType;
+import com.akos.database.services.TaskService;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {"app.slow-query-log.threshold=0ms", "app.slow-query-log.explain=true"})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@ExtendWith(OutputCaptureExtension.class)
+public class SlowQueryLogTest {
+
+    private final TaskService taskService;
+
+    @Autowired
+    public SlowQueryLogTest(TaskService taskService) {
+        this.taskService = taskService;
+    }
+
+    @Test
+    public void testThatSlowStatementIsLoggedWithParametersOriginAndPlan(CapturedOutput output) throws Exception {
+        taskService.save(TestDataUtil.createTaskDto1());
+        taskService.findTaskTypeSlice(PageRequest.of(0, 10), TaskType.TESTING);
+
+        String logLine = awaitLine(output, "in TaskService.findTaskTypeSlice");
+        assertThat(logLine).contains("Slow statement took").contains("1='TESTING'");
+        assertThat(output.getOut().substring(output.getOut().indexOf(logLine))).contains("plan:");
+    }
+
+    @Test
+    public void testThatRepeatedStatementIsSampled(CapturedOutput output) throws Exception {
+        SlowQueryLogProperties properties = new SlowQueryLogProperties();
+        properties.setThreshold(Duration.ZERO);
+        properties.setMaxPerStatement(2);
+        properties.setSamplingWindow(Duration.ofHours(1));
+        SlowQueryLog slowQueryLog = new SlowQueryLog(properties);
+        SlowQueryListener listener = new SlowQueryListener(slowQueryLog, properties, null);
+
+        for (int i = 0; i < 5; i++) {
+            listener.afterQuery(new ExecutionInfo(), List.of(new QueryInfo("SELECT 'sampled statement'")));
+        }
+        slowQueryLog.close();
+
+        assertThat(output.getOut().split("SELECT 'sampled statement'", -1)).hasSize(3);
+    }
+
+    private static String awaitLine(CapturedOutput output, String text) throws InterruptedException {
+        for (int i = 0; i < 50 && !output.getOut().contains(text); i++) {
+            Thread.sleep(100);
+        }
+        String out = output.getOut();
+        int index = out.indexOf(text);
+        assertThat(index).as("log line containing '%s'", text).isNotNegative();
+        int start = out.lastIndexOf('\n', index) + 1;
+        int end = out.indexOf('\n', index);
+        return out.substring(start, end < 0 ? out.length() : end);
+    }
+}
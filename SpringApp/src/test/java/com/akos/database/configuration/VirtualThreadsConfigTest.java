@@ -0,0 +1,54 @@
+package com.akos.database.configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs without a replica, so the auto-configured pool is gated by the post-processor. The post-processors are
+ * declared after the one of the slow-query log, which would otherwise wrap the pool first.
+ */
+public class VirtualThreadsConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(SlowQueryLogConfig.class, PoolConfig.class);
+
+    @Test
+    public void testThatThePoolIsGatedBehindTheSlowQueryLog() {
+        contextRunner.run(context -> {
+            DataSource dataSource = context.getBean(DataSource.class);
+            assertThat(dataSource).isNotInstanceOf(ConnectionLimitingDataSource.class);
+
+            ConnectionLimitingDataSource gate = dataSource.unwrap(ConnectionLimitingDataSource.class);
+            assertThat(gate.getAvailablePermits()).isEqualTo(2);
+            try (Connection connection = dataSource.getConnection()) {
+                assertThat(gate.getAvailablePermits()).isEqualTo(1);
+            }
+            assertThat(gate.getAvailablePermits()).isEqualTo(2);
+        });
+    }
+
+    @Configuration
+    static class PoolConfig {
+
+        @Bean
+        static VirtualThreadsConfig.ConnectionLimitingPostProcessor connectionLimitingDataSource() {
+            return VirtualThreadsConfig.connectionLimitingDataSource();
+        }
+
+        @Bean
+        HikariDataSource dataSource() {
+            HikariDataSource pool = new HikariDataSource();
+            pool.setJdbcUrl("jdbc:h2:mem:virtualthreadsdb;DB_CLOSE_DELAY=-1");
+            pool.setMaximumPoolSize(2);
+            return pool;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.akos.database.controllers;
+
+import com.akos.database.TestDataUtil;
+import com.akos.database.dtos.JobDto;
+import com.akos.database.dtos.TaskDto;
+import com.akos.database.dtos.UserDto;
+import com.akos.database.entities.JobEntity;
+import com.akos.database.entities.JobStatus;
+import com.akos.database.entities.JobType;
+import com.akos.database.entities.TaskState;
+import com.akos.database.repositories.JobRepository;
+import com.akos.database.services.JobService;
+import com.akos.database.services.TaskService;
+import com.akos.database.services.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "app.jobs.chunk-size=2")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@AutoConfigureMockMvc
+public class JobControllerIntegrationTest {
+
+    private static final Set<JobStatus> FINISHED = EnumSet.of(JobStatus.SUCCEEDED, JobStatus.FAILED,
+            JobStatus.INTERRUPTED);
+
+    private final MockMvc mockMvc;
+    private final ObjectMapper objectMapper;
+    private final JobService jobService;
+    private final JobRepository jobRepository;
+    private final TaskService taskService;
+    private final UserService userService;
+
+    @Autowired
+    public JobControllerIntegrationTest(MockMvc mockMvc, ObjectMapper objectMapper, JobService jobService,
+                                        JobRepository jobRepository, TaskService taskService,
+                                        UserService userService) {
+        this.mockMvc = mockMvc;
+        this.objectMapper = objectMapper;
+        this.jobService = jobService;
+        this.jobRepository = jobRepository;
+        this.taskService = taskService;
+        this.userService = userService;
+    }
+
+    @Test
+    public void testThatTaskStateChangeIsRunInChunksAndPolled() throws Exception {
+        TaskDto first = taskService.save(TestDataUtil.createTaskDto1());
+        taskService.save(TestDataUtil.createTaskDto1());
+        taskService.save(TestDataUtil.createTaskDto1());
+        TaskDto completed = taskService.save(TestDataUtil.createTaskDto2());
+        assertThat(taskService.findById(first.getId()).getState()).isEqualTo(TaskState.IN_PROGRESS);
+
+        MvcResult result = mockMvc.perform(
+                MockMvcRequestBuilders.post("/jobs/taskStateChange")
+                        .param("state", "IN_PROGRESS")
+                        .param("targetState", "NOT_STARTED")
+        ).andExpect(
+                MockMvcResultMatchers.status().isAccepted()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.type").value("TASK_STATE_CHANGE")
+        ).andReturn();
+        JobDto submittedJob = objectMapper.readValue(result.getResponse().getContentAsString(), JobDto.class);
+        assertThat(result.getResponse().getHeader(HttpHeaders.LOCATION)).endsWith("/jobs/" + submittedJob.getId());
+
+        awaitFinished(submittedJob.getId());
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/jobs/" + submittedJob.getId())
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.status").value("SUCCEEDED")
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.total").value(3)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.processed").value(3)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.succeeded").value(3)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.finishedAt").isNotEmpty()
+        );
+        assertThat(taskService.findById(first.getId()).getState()).isEqualTo(TaskState.NOT_STARTED);
+        assertThat(taskService.findById(completed.getId()).getState()).isEqualTo(TaskState.COMPLETED);
+        assertThat(taskService.countByState(TaskState.NOT_STARTED)).isEqualTo(3);
+    }
+
+    @Test
+    public void testThatCompletedTasksAreDeletedAndTheirUsersAreRefreshed() throws Exception {
+        TaskDto available = taskService.save(TestDataUtil.createTaskDto1());
+        TaskDto completed = taskService.save(TestDataUtil.createTaskDto1());
+        taskService.save(TestDataUtil.createTaskDto2());
+        taskService.save(TestDataUtil.createTaskDto2());
+        UserDto user = userService.save(TestDataUtil.createTestUserDtoA());
+        userService.addTaskToUser(user.getId(), available.getId());
+        userService.addTaskToUser(user.getId(), completed.getId());
+        taskService.partialUpdate(completed.getId(), TaskDto.builder().state(TaskState.COMPLETED).build(), null);
+        assertThat(userService.findById(user.getId()).getTasks()).hasSize(2);
+
+        MvcResult result = mockMvc.perform(
+                MockMvcRequestBuilders.post("/jobs/taskDeletion").param("state", "COMPLETED")
+        ).andExpect(
+                MockMvcResultMatchers.status().isAccepted()
+        ).andReturn();
+        JobDto job = awaitFinished(
+                objectMapper.readValue(result.getResponse().getContentAsString(), JobDto.class).getId());
+
+        assertThat(job.getStatus()).isEqualTo(JobStatus.SUCCEEDED);
+        assertThat(job.getTotal()).isEqualTo(3);
+        assertThat(job.getSucceeded()).isEqualTo(3);
+        assertThat(taskService.findAll(PageRequest.of(0, 10))).containsExactly(available);
+        assertThat(userService.findById(user.getId()).getTasks()).containsExactly(available);
+    }
+
+    @Test
+    public void testThatUserImportJobReportsTheInvalidLines() throws Exception {
+        String usersNdjson = String.join("\n",
+                objectMapper.writeValueAsString(TestDataUtil.createTestUserDtoA()),
+                "{not json",
+                objectMapper.writeValueAsString(TestDataUtil.createTestUserDtoB()),
+                objectMapper.writeValueAsString(TestDataUtil.createTestUserDtoA()));
+
+        MvcResult result = mockMvc.perform(
+                MockMvcRequestBuilders.post("/jobs/userImport")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(usersNdjson)
+        ).andExpect(
+                MockMvcResultMatchers.status().isAccepted()
+        ).andReturn();
+        JobDto job = awaitFinished(
+                objectMapper.readValue(result.getResponse().getContentAsString(), JobDto.class).getId());
+
+        assertThat(job.getStatus()).isEqualTo(JobStatus.SUCCEEDED);
+        assertThat(job.getTotal()).isEqualTo(4);
+        assertThat(job.getSucceeded()).isEqualTo(3);
+        assertThat(job.getFailed()).isEqualTo(1);
+        assertThat(job.getErrors()).hasSize(1);
+        assertThat(job.getErrors().get(0).getItem()).isEqualTo(2);
+        assertThat(userService.findAll(PageRequest.of(0, 10)).getTotalElements()).isEqualTo(3);
+    }
+
+    @Test
+    public void testThatUnfinishedJobsAreResumedOrInterruptedOnStartup() throws Exception {
+        taskService.save(TestDataUtil.createTaskDto2());
+        taskService.save(TestDataUtil.createTaskDto2());
+        JobEntity deletion = jobRepository.save(JobEntity.builder()
+                .type(JobType.TASK_DELETION)
+                .status(JobStatus.RUNNING)
+                .taskState(TaskState.COMPLETED)
+                .total(5L)
+                .processed(3)
+                .succeeded(3)
+                .createdAt(Instant.now())
+                .build());
+        JobEntity userImport = jobRepository.save(JobEntity.builder()
+                .type(JobType.USER_IMPORT)
+                .status(JobStatus.QUEUED)
+                .inputFile("missing.ndjson")
+                .createdAt(Instant.now())
+                .build());
+
+        jobService.resumeUnfinishedJobs();
+
+        JobDto resumedDeletion = awaitFinished(deletion.getId());
+        assertThat(resumedDeletion.getStatus()).isEqualTo(JobStatus.SUCCEEDED);
+        assertThat(resumedDeletion.getTotal()).isEqualTo(5);
+        assertThat(resumedDeletion.getProcessed()).isEqualTo(5);
+        assertThat(taskService.countByState(TaskState.COMPLETED)).isZero();
+        JobDto interruptedImport = jobService.findById(userImport.getId());
+        assertThat(interruptedImport.getStatus()).isEqualTo(JobStatus.INTERRUPTED);
+        assertThat(interruptedImport.getErrors()).hasSize(1);
+    }
+
+    @Test
+    public void testThatInvalidJobsAndUnknownJobsAreRejected() throws Exception {
+        mockMvc.perform(
+                MockMvcRequestBuilders.post("/jobs/taskStateChange")
+                        .param("state", "COMPLETED")
+                        .param("targetState", "COMPLETED")
+        ).andExpect(
+                MockMvcResultMatchers.status().isBadRequest()
+        );
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/jobs/12345")
+        ).andExpect(
+                MockMvcResultMatchers.status().isNotFound()
+        );
+    }
+
+    private JobDto awaitFinished(Long id) throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        JobDto job = jobService.findById(id);
+        while (!FINISHED.contains(job.getStatus()) && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            job = jobService.findById(id);
+        }
+        assertThat(job.getStatus()).isIn(FINISHED);
+        return job;
+    }
+}
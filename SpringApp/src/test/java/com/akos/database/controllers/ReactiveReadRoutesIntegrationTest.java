@@ -0,0 +1,120 @@
+package com.akos.database.controllers;
+
+import com.akos.database.TestDataUtil;
+import com.akos.database.configuration.ReactiveReadServer;
+import com.akos.database.dtos.TaskDto;
+import com.akos.database.dtos.UserDto;
+import com.akos.database.entities.TaskState;
+import com.akos.database.services.TaskService;
+import com.akos.database.services.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class ReactiveReadRoutesIntegrationTest {
+
+    private final TaskService taskService;
+    private final UserService userService;
+    private final WebTestClient webTestClient;
+
+    @Autowired
+    public ReactiveReadRoutesIntegrationTest(TaskService taskService, UserService userService,
+                                             ReactiveReadServer reactiveReadServer) {
+        this.taskService = taskService;
+        this.userService = userService;
+        this.webTestClient = WebTestClient.bindToServer()
+                .baseUrl("http://localhost:" + reactiveReadServer.getPort())
+                .build();
+    }
+
+    @Test
+    public void testThatAvailableTasksAreStreamedAsNdjsonInIdOrder() {
+        TaskDto first = taskService.save(TestDataUtil.createTaskDto1());
+        taskService.save(TestDataUtil.createTaskDto2());
+        TaskDto third = taskService.save(TestDataUtil.createTaskDto1());
+
+        List<TaskDto> tasks = webTestClient.get().uri("/tasks/availableTasks")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(TaskDto.class)
+                .returnResult().getResponseBody();
+
+        assertThat(tasks).containsExactly(first, third);
+        assertThat(tasks).extracting(TaskDto::getState).containsOnly(TaskState.IN_PROGRESS);
+    }
+
+    @Test
+    public void testThatTasksAreStreamedAsJsonArrayWhenOnlyJsonIsAccepted() {
+        taskService.save(TestDataUtil.createTaskDto1());
+        taskService.save(TestDataUtil.createTaskDto2());
+
+        webTestClient.get().uri("/tasks")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[1].state").isEqualTo("COMPLETED");
+    }
+
+    @Test
+    public void testThatTasksOfTypeAreLimited() {
+        TaskDto first = taskService.save(TestDataUtil.createTaskDto1());
+        TaskDto second = taskService.save(TestDataUtil.createTaskDto1());
+        taskService.save(TestDataUtil.createTaskDto1());
+        taskService.save(TestDataUtil.createTaskDto2());
+
+        List<TaskDto> tasks = webTestClient.get().uri("/tasks/taskType/TESTING?limit=2")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(TaskDto.class)
+                .returnResult().getResponseBody();
+
+        assertThat(tasks).containsExactly(first, second);
+    }
+
+    @Test
+    public void testThatUsersAreStreamedWithTheirTasks() {
+        TaskDto firstTask = taskService.save(TestDataUtil.createTaskDto1());
+        TaskDto secondTask = taskService.save(TestDataUtil.createTaskDto1());
+        UserDto activeUser = userService.save(TestDataUtil.createTestUserDtoA());
+        userService.addTaskToUser(activeUser.getId(), firstTask.getId());
+        userService.addTaskToUser(activeUser.getId(), secondTask.getId());
+        UserDto userOnVacation = userService.save(TestDataUtil.createTestUserDtoB());
+
+        List<UserDto> availableUsers = webTestClient.get().uri("/users/availableUsers")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(UserDto.class)
+                .returnResult().getResponseBody();
+        assertThat(availableUsers).hasSize(1);
+        assertThat(availableUsers.get(0).getId()).isEqualTo(activeUser.getId());
+        assertThat(availableUsers.get(0).getTasks()).containsExactlyInAnyOrder(firstTask, secondTask);
+
+        List<UserDto> workers = webTestClient.get().uri("/users/usersRank/WORKER")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(UserDto.class)
+                .returnResult().getResponseBody();
+        assertThat(workers).extracting(UserDto::getId).containsExactly(userOnVacation.getId());
+        assertThat(workers.get(0).getTasks()).isEmpty();
+    }
+
+    @Test
+    public void testThatInvalidParametersReturnHttp400() {
+        webTestClient.get().uri("/users/usersRank/NOBODY").exchange().expectStatus().isBadRequest();
+        webTestClient.get().uri("/tasks?limit=0").exchange().expectStatus().isBadRequest();
+    }
+}
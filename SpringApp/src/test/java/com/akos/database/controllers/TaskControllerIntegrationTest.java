@@ -2,20 +2,40 @@ package com.akos.database.controllers;
 
 import com.akos.database.TestDataUtil;
 import com.akos.database.dtos.TaskDto;
+import com.akos.database.dtos.UserDto;
+import com.akos.database.entities.TaskEntity;
+import com.akos.database.entities.TaskState;
+import com.akos.database.entities.TaskType;
 import com.akos.database.services.TaskService;
+import com.akos.database.services.UserService;
+import com.akos.database.services.Versioned;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasSize;
 
 @SpringBootTest
@@ -27,11 +47,16 @@ public class TaskControllerIntegrationTest {
     private final MockMvc mockMvc;
     private final ObjectMapper objectMapper;
     private final TaskService taskService;
+    private final UserService userService;
+    private final Statistics statistics;
 
     @Autowired
-    public TaskControllerIntegrationTest(MockMvc mockMvc, TaskService taskService) {
+    public TaskControllerIntegrationTest(MockMvc mockMvc, TaskService taskService, UserService userService,
+                                         EntityManagerFactory entityManagerFactory) {
         this.mockMvc = mockMvc;
         this.taskService = taskService;
+        this.userService = userService;
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
         this.objectMapper = new ObjectMapper();
     }
 
@@ -244,6 +269,653 @@ public class TaskControllerIntegrationTest {
         );
     }
 
+    @Test
+    public void testThatCreateTasksFromJsonArrayReturnsHttp201AndIds() throws Exception {
+        String tasksJson = objectMapper.writeValueAsString(
+                List.of(TestDataUtil.createTaskDto1(), TestDataUtil.createTaskDto2()));
 
-}
+        mockMvc.perform(
+                MockMvcRequestBuilders.post("/tasks/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(tasksJson)
+        ).andExpect(
+                MockMvcResultMatchers.status().isCreated()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$").value(hasSize(2))
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$[0]").isNumber()
+        );
+    }
+
+    @Test
+    public void testThatCreateTasksFromNdjsonUsesJdbcBatches() throws Exception {
+        StringBuilder tasksNdjson = new StringBuilder();
+        for (int i = 0; i < 120; i++) {
+            tasksNdjson.append(objectMapper.writeValueAsString(TestDataUtil.createTaskDto1())).append('\n');
+        }
+        statistics.clear();
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.post("/tasks/batch")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(tasksNdjson.toString())
+        ).andExpect(
+                MockMvcResultMatchers.status().isCreated()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$").value(hasSize(120))
+        );
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(10);
+        assertThat(taskService.findAll(PageRequest.of(0, 10)).getTotalElements()).isEqualTo(120);
+    }
+
+    @Test
+    public void testThatCreateTasksWithInvalidTaskReturnsHttp400AndSavesNothing() throws Exception {
+        TaskDto invalidTask = TestDataUtil.createTaskDto2();
+        invalidTask.setName(null);
+        String tasksJson = objectMapper.writeValueAsString(List.of(TestDataUtil.createTaskDto1(), invalidTask));
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.post("/tasks/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(tasksJson)
+        ).andExpect(
+                MockMvcResultMatchers.status().isBadRequest()
+        );
+        assertThat(taskService.findAll(PageRequest.of(0, 10)).getTotalElements()).isZero();
+    }
+
+    @Test
+    public void testThatTasksWithoutTotalAreReturnedWithoutCountQuery() throws Exception {
+        taskService.save(TestDataUtil.createTaskDto1());
+        taskService.save(TestDataUtil.createTaskDto2());
+        statistics.clear();
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/tasks")
+                        .param("page", "0")
+                        .param("size", "1")
+                        .param("withTotal", "false")
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.content").value(hasSize(1))
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.last").value(false)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.totalElements").doesNotExist()
+        );
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testThatGettingTaskByIdIsServedFromTheSecondLevelCache() throws Exception {
+        TaskDto savedTask = taskService.save(TestDataUtil.createTaskDto1());
+        statistics.clear();
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/tasks/{id}", savedTask.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.name").value("Task 1")
+        );
+        // The task is looked up once, for both its DTO and its version
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testThatPartialUpdateOfCachedTaskIsVisibleInTheNextGet() throws Exception {
+        TaskDto savedTask = taskService.save(TestDataUtil.createTaskDto1());
+        taskService.findById(savedTask.getId());
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.patch("/tasks/{id}", savedTask.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Renamed task\"}")
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        );
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/tasks/{id}", savedTask.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.name").value("Renamed task")
+        );
+    }
+
+    @Test
+    public void testThatSecondLevelCacheHitsAreExposedAsMetrics() throws Exception {
+        TaskDto savedTask = taskService.save(TestDataUtil.createTaskDto1());
+        taskService.findById(savedTask.getId());
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/actuator/metrics/hibernate.second.level.cache.requests")
+                        .param("tag", "region:" + TaskEntity.class.getName())
+                        .param("tag", "result:hit")
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.measurements[0].value").value(1.0)
+        );
+    }
+
+    @Test
+    public void testThatGetTaskWithMatchingIfNoneMatchReturnsHttp304WithoutBody() throws Exception {
+        TaskDto savedTask = taskService.save(TestDataUtil.createTaskDto1());
+        String eTag = mockMvc.perform(
+                MockMvcRequestBuilders.get("/tasks/{id}", savedTask.getId())
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(eTag).isEqualTo("\"0\"");
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/tasks/{id}", savedTask.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag)
+        ).andExpect(
+                MockMvcResultMatchers.status().isNotModified()
+        ).andExpect(
+                MockMvcResultMatchers.header().string(HttpHeaders.ETAG, eTag)
+        ).andExpect(
+                MockMvcResultMatchers.content().string("")
+        );
+    }
+
+    @Test
+    public void testThatEachRepresentationOfATaskHasItsOwnETag() throws Exception {
+        TaskDto savedTask = taskService.save(TestDataUtil.createTaskDto1());
+        String jsonETag = mockMvc.perform(
+                MockMvcRequestBuilders.get("/tasks/{id}", savedTask.getId())
+                        .accept(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.header().string(HttpHeaders.VARY, containsString(HttpHeaders.ACCEPT))
+        ).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // The JSON tag must not validate a cached CBOR body, nor the CBOR tag a JSON body
+        String cborETag = mockMvc.perform(
+                MockMvcRequestBuilders.get("/tasks/{id}", savedTask.getId())
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .header(HttpHeaders.IF_NONE_MATCH, jsonETag)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_CBOR)
+        ).andExpect(
+                MockMvcResultMatchers.header().string(HttpHeaders.VARY, containsString(HttpHeaders.ACCEPT))
+        ).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(cborETag).isNotEqualTo(jsonETag);
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/tasks/{id}", savedTask.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, cborETag)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.header().string(HttpHeaders.ETAG, jsonETag)
+        );
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/tasks/{id}", savedTask.getId())
+                        .header(HttpHeaders.ACCEPT, "application/cbor;q=0.5, application/x-jackson-smile")
+                        .header(HttpHeaders.IF_NONE_MATCH, cborETag)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.content().contentType("application/x-jackson-smile")
+        );
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/tasks/{id}", savedTask.getId())
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .header(HttpHeaders.IF_NONE_MATCH, cborETag)
+        ).andExpect(
+                MockMvcResultMatchers.status().isNotModified()
+        );
+
+        // The tag of any representation is the version of the task for If-Match
+        mockMvc.perform(
+                MockMvcRequestBuilders.patch("/tasks/{id}", savedTask.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .header(HttpHeaders.IF_MATCH, cborETag)
+                        .content("{\"name\":\"Renamed task\"}")
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"1-cbor\"")
+        );
+    }
+
+    @Test
+    public void testThatUpdateTaskWithStaleIfMatchReturnsHttp412AndKeepsTheTask() throws Exception {
+        TaskDto savedTask = taskService.save(TestDataUtil.createTaskDto1());
+        taskService.partialUpdate(savedTask.getId(), TaskDto.builder().description("Changed").build(), null);
+        TaskDto update = TestDataUtil.createTaskDto1();
+        update.setName("Overwritten");
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.put("/tasks/{id}", savedTask.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .content(objectMapper.writeValueAsString(update))
+        ).andExpect(
+                MockMvcResultMatchers.status().isPreconditionFailed()
+        );
+        assertThat(taskService.findById(savedTask.getId()).getName()).isEqualTo("Task 1");
+    }
+
+    @Test
+    public void testThatPartialUpdateTaskWithCurrentIfMatchReturnsTheNewETag() throws Exception {
+        TaskDto savedTask = taskService.save(TestDataUtil.createTaskDto1());
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.patch("/tasks/{id}", savedTask.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .content("{\"name\":\"Renamed task\"}")
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"1\"")
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.name").value("Renamed task")
+        );
+    }
+
+    @Test
+    public void testThatPartialUpdateTaskUpdatesTheStateWithoutLoadingTheTaskOrItsUsers() {
+        UserDto savedUser = userService.save(TestDataUtil.createTestUserDtoA());
+        TaskDto savedTask = taskService.save(TestDataUtil.createTaskDto1());
+        userService.addTaskToUser(savedUser.getId(), savedTask.getId());
+        statistics.clear();
+
+        Versioned<TaskDto> updatedTask = taskService.partialUpdate(
+                savedTask.getId(), TaskDto.builder().state(TaskState.COMPLETED).build(), "0");
+
+        assertThat(updatedTask.value().getState()).isEqualTo(TaskState.COMPLETED);
+        assertThat(updatedTask.value().getName()).isEqualTo(savedTask.getName());
+        assertThat(updatedTask.versionTag()).isEqualTo("1");
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getCollectionLoadCount()).isZero();
+        // The updated task and its version are returned by the UPDATE itself, only the users of the task are queried
+        // to evict their cached DTOs
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(taskService.findVersionedById(savedTask.getId()).versionTag()).isEqualTo("1");
+    }
+
+    @Test
+    public void testThatPartialUpdateTaskWithNonNumericIfMatchReturnsHttp412() throws Exception {
+        TaskDto savedTask = taskService.save(TestDataUtil.createTaskDto1());
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.patch("/tasks/{id}", savedTask.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_MATCH, "\"not-a-version\"")
+                        .content("{\"name\":\"Renamed task\"}")
+        ).andExpect(
+                MockMvcResultMatchers.status().isPreconditionFailed()
+        );
+    }
+
+    @Test
+    public void testThatPartialUpdateOfMissingTaskReturnsHttp404() throws Exception {
+        mockMvc.perform(
+                MockMvcRequestBuilders.patch("/tasks/{id}", 99L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .content("{\"name\":\"Renamed task\"}")
+        ).andExpect(
+                MockMvcResultMatchers.status().isNotFound()
+        );
+    }
+
+    @Test
+    public void testDeleteOfMissingTaskReturnsHttp404() throws Exception {
+        mockMvc.perform(
+                MockMvcRequestBuilders.delete("/tasks/{id}", 99L)
+        ).andExpect(
+                MockMvcResultMatchers.status().isNotFound()
+        );
+    }
+
+    @Test
+    public void testDeleteOfAssignedTaskKeepsTheUserAndRemovesTheAssignment() throws Exception {
+        UserDto savedUser = userService.save(TestDataUtil.createTestUserDtoA());
+        TaskDto savedTask = taskService.save(TestDataUtil.createTaskDto1());
+        userService.addTaskToUser(savedUser.getId(), savedTask.getId());
+        assertThat(userService.findById(savedUser.getId()).getTasks()).hasSize(1);
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.delete("/tasks/{id}", savedTask.getId())
+        ).andExpect(
+                MockMvcResultMatchers.status().isNoContent()
+        );
+
+        assertThat(userService.findById(savedUser.getId()).getTasks()).isEmpty();
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/users/{id}", savedUser.getId())
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.tasks", hasSize(0))
+        );
+    }
+
+    @Test
+    public void testBulkDeleteByIdsReturnsTheNumberOfDeletedTasks() throws Exception {
+        TaskDto savedTask1 = taskService.save(TestDataUtil.createTaskDto1());
+        TaskDto savedTask2 = taskService.save(TestDataUtil.createTaskDto1());
+        TaskDto keptTask = taskService.save(TestDataUtil.createTaskDto1());
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.delete("/tasks")
+                        .param("ids", savedTask1.getId() + "," + savedTask2.getId() + ",99")
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.deleted").value(2)
+        );
+        assertThat(taskService.findAll(PageRequest.of(0, 10)).getContent())
+                .extracting(TaskDto::getId)
+                .containsExactly(keptTask.getId());
+    }
+
+    @Test
+    public void testBulkDeleteByStateDeletesOnlyTheTasksWithThatState() throws Exception {
+        UserDto savedUser = userService.save(TestDataUtil.createTestUserDtoA());
+        TaskDto completedTask = taskService.save(TestDataUtil.createTaskDto1());
+        TaskDto availableTask = taskService.save(TestDataUtil.createTaskDto1());
+        userService.addTaskToUser(savedUser.getId(), completedTask.getId());
+        userService.addTaskToUser(savedUser.getId(), availableTask.getId());
+        taskService.partialUpdate(completedTask.getId(), TaskDto.builder().state(TaskState.COMPLETED).build(), null);
+        assertThat(userService.findById(savedUser.getId()).getTasks()).hasSize(2);
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.delete("/tasks")
+                        .param("state", "COMPLETED")
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.deleted").value(1)
+        );
+        assertThat(userService.findById(savedUser.getId()).getTasks())
+                .extracting(TaskDto::getId)
+                .containsExactly(availableTask.getId());
+        assertThat(taskService.findById(availableTask.getId()).getState()).isNotEqualTo(TaskState.COMPLETED);
+    }
+
+    @Test
+    public void testThatExportStreamsAllTasksAsNdjson() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ids.add(taskService.save(TestDataUtil.createTaskDto1()).getId());
+        }
+
+        MvcResult asyncResult = mockMvc.perform(
+                MockMvcRequestBuilders.get("/tasks/export")
+                        .accept(MediaType.APPLICATION_NDJSON)
+        ).andExpect(
+                MockMvcResultMatchers.request().asyncStarted()
+        ).andReturn();
+        String response = mockMvc.perform(
+                MockMvcRequestBuilders.asyncDispatch(asyncResult)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+        ).andReturn().getResponse().getContentAsString();
+
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : response.split("\n")) {
+            lines.add(objectMapper.readTree(line));
+        }
+        assertThat(lines).extracting(line -> line.get("id").asLong()).containsExactlyElementsOf(ids);
+        assertThat(lines.get(0).get("deadLine").asText()).isEqualTo("2023-12-31");
+        assertThat(lines.get(0).get("state").asText()).isEqualTo("IN_PROGRESS");
+    }
+
+    @Test
+    public void testThatExportStreamsAllTasksAsCsvWhenPreferred() throws Exception {
+        TaskDto task = TestDataUtil.createTaskDto1();
+        task.setDescription("Fix \"quotes\", commas");
+        TaskDto savedTask = taskService.save(task);
+
+        MvcResult asyncResult = mockMvc.perform(
+                MockMvcRequestBuilders.get("/tasks/export")
+                        .header(HttpHeaders.ACCEPT, "application/x-ndjson;q=0.5, text/csv")
+        ).andReturn();
+        String response = mockMvc.perform(
+                MockMvcRequestBuilders.asyncDispatch(asyncResult)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.content().contentTypeCompatibleWith("text/csv")
+        ).andReturn().getResponse().getContentAsString();
+
+        assertThat(response.split("\r\n")).containsExactly(
+                "id,name,description,workTimePerWeekPerPerson,type,deadLine,state,weeksNeeded,personsNeeded",
+                savedTask.getId() + ",Task 1,\"Fix \"\"quotes\"\", commas\",10,TESTING,2023-12-31,IN_PROGRESS,2,3");
+    }
+
+    @Test
+    public void testThatKeysetPaginationWalksThroughAllTasks() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            TaskDto task = TestDataUtil.createTaskDto1();
+            task.setDeadLine(LocalDate.of(2023, 12, 5 - i));
+            taskService.save(task);
+        }
+
+        List<String> deadLines = new ArrayList<>();
+        String after = "";
+        do {
+            String response = mockMvc.perform(
+                    MockMvcRequestBuilders.get("/tasks")
+                            .param("after", after)
+                            .param("size", "2")
+                            .param("sort", "deadLine")
+                            .contentType(MediaType.APPLICATION_JSON)
+            ).andExpect(
+                    MockMvcResultMatchers.status().isOk()
+            ).andReturn().getResponse().getContentAsString();
+
+            JsonNode page = objectMapper.readTree(response);
+            page.get("content").forEach(task -> deadLines.add(task.get("deadLine").asText()));
+            after = page.get("next").isNull() ? null : page.get("next").asText();
+        } while (after != null);
+
+        assertThat(deadLines).containsExactly("2023-12-01", "2023-12-02", "2023-12-03", "2023-12-04", "2023-12-05");
+    }
+
+    @Test
+    public void testThatKeysetPaginationOfAvailableTasksSkipsCompletedTasks() throws Exception {
+        taskService.save(TestDataUtil.createTaskDto1());
+        taskService.save(TestDataUtil.createTaskDto2());
+        taskService.save(TestDataUtil.createTaskDto1());
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/tasks/availableTasks")
+                        .param("after", "")
+                        .param("size", "10")
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.content").value(hasSize(2))
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.hasNext").value(false)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.next").doesNotExist()
+        );
+    }
+
+    @Test
+    public void testThatKeysetPaginationWithInvalidCursorReturnsHttp400() throws Exception {
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/tasks/taskType/{taskType}", TaskType.TESTING)
+                        .param("after", "not-a-cursor")
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.status().isBadRequest()
+        );
+    }
 
+    @Test
+    public void testThatListingTasksIssuesTheSameNumberOfStatementsForAnyPageSize() throws Exception {
+        long statementsForSmallPage = countStatementsForTaskPageWithAssignedTasks(2);
+        long statementsForLargePage = countStatementsForTaskPageWithAssignedTasks(20);
+
+        assertThat(statementsForLargePage).isEqualTo(statementsForSmallPage);
+        assertThat(statementsForLargePage).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    public void testThatTasksAreListedWithOnlyTheRequestedFieldsWithoutLoadingThem() throws Exception {
+        taskService.save(TestDataUtil.createTaskDto1());
+        TaskDto secondTask = taskService.save(TestDataUtil.createTaskDto2());
+        statistics.clear();
+
+        MvcResult result = mockMvc.perform(
+                MockMvcRequestBuilders.get("/tasks")
+                        .param("fields", "state,name,id")
+                        .param("sort", "name,desc")
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.totalElements").value(2)
+        ).andReturn();
+
+        JsonNode tasks = objectMapper.readTree(result.getResponse().getContentAsString()).get("content");
+        assertThat(tasks).hasSize(2);
+        assertThat(tasks.get(0).fieldNames()).toIterable().containsExactly("state", "name", "id");
+        assertThat(tasks.get(0).get("id").asLong()).isEqualTo(secondTask.getId());
+        assertThat(tasks.get(0).get("state").asText()).isEqualTo("COMPLETED");
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testThatTaskFieldsAreReadByIdAndUnknownFieldsAreRejected() throws Exception {
+        TaskDto savedTask = taskService.save(TestDataUtil.createTaskDto1());
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/tasks/" + savedTask.getId()).param("fields", "deadLine,personsNeeded")
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.deadLine").value("2023-12-31")
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.personsNeeded").value(3)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.name").doesNotExist()
+        );
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/tasks/" + savedTask.getId()).param("fields", "name,users")
+        ).andExpect(
+                MockMvcResultMatchers.status().isBadRequest()
+        );
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/tasks").param("fields", "name").param("sort", "version")
+        ).andExpect(
+                MockMvcResultMatchers.status().isBadRequest()
+        );
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/tasks/12345").param("fields", "name")
+        ).andExpect(
+                MockMvcResultMatchers.status().isNotFound()
+        );
+    }
+
+    @Test
+    public void testThatFieldsCombinedWithTheCursorReturnHttp400() throws Exception {
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/tasks").param("fields", "name").param("after", "")
+        ).andExpect(
+                MockMvcResultMatchers.status().isBadRequest()
+        );
+    }
+
+    @Test
+    public void testThatFieldsOnTheFilteredListsReturnHttp400() throws Exception {
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/tasks/availableTasks").param("fields", "name")
+        ).andExpect(
+                MockMvcResultMatchers.status().isBadRequest()
+        );
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/tasks/availableTasks").param("fields", "name").param("after", "")
+        ).andExpect(
+                MockMvcResultMatchers.status().isBadRequest()
+        );
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/tasks/taskType/TESTING").param("fields", "name")
+        ).andExpect(
+                MockMvcResultMatchers.status().isBadRequest()
+        );
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/tasks/taskType/TESTING").param("fields", "name").param("after", "")
+        ).andExpect(
+                MockMvcResultMatchers.status().isBadRequest()
+        );
+    }
+
+    private long countStatementsForTaskPageWithAssignedTasks(int numberOfTasks) throws Exception {
+        for (int i = 0; i < numberOfTasks; i++) {
+            UserDto savedUser = userService.save(TestDataUtil.createTestUserDtoA());
+            TaskDto savedTask = taskService.save(TestDataUtil.createTaskDto1());
+            userService.addTaskToUser(savedUser.getId(), savedTask.getId());
+        }
+        statistics.clear();
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/tasks")
+                        .param("page", "0")
+                        .param("size", "100")
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        );
+        return statistics.getPrepareStatementCount();
+    }
+
+    @Test
+    public void testThatTasksAreCreatedAndReadAsCbor() throws Exception {
+        CBORMapper cborMapper = new CBORMapper();
+        TaskDto testTask = TestDataUtil.createTaskDto1();
+
+        MvcResult created = mockMvc.perform(
+                MockMvcRequestBuilders.post("/tasks")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(cborMapper.writeValueAsBytes(testTask))
+        ).andExpect(
+                MockMvcResultMatchers.status().isCreated()
+        ).andExpect(
+                MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_CBOR)
+        ).andReturn();
+        TaskDto createdTask = cborMapper.readValue(created.getResponse().getContentAsByteArray(), TaskDto.class);
+        assertThat(createdTask.getDeadLine()).isEqualTo(testTask.getDeadLine());
+
+        MvcResult read = mockMvc.perform(
+                MockMvcRequestBuilders.get("/tasks/" + createdTask.getId())
+                        .accept(MediaType.APPLICATION_CBOR)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andReturn();
+        assertThat(cborMapper.readValue(read.getResponse().getContentAsByteArray(), TaskDto.class))
+                .isEqualTo(createdTask);
+        // The date is written by the LocalDateSerializer of the DTO, as in JSON
+        assertThat(cborMapper.readTree(read.getResponse().getContentAsByteArray()).get("deadLine").asText())
+                .isEqualTo("2023-12-31");
+    }
+
+    @Test
+    public void testThatJsonStaysTheDefaultWhenAnyTypeIsAccepted() throws Exception {
+        TaskDto savedTask = taskService.save(TestDataUtil.createTaskDto1());
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/tasks/" + savedTask.getId())
+                        .accept(MediaType.ALL)
+        ).andExpect(
+                MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_JSON)
+        );
+    }
+}
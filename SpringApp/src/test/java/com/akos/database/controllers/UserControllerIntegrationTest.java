@@ -1,23 +1,39 @@
 package com.akos.database.controllers;
 
 import com.akos.database.TestDataUtil;
+import com.akos.database.dtos.TaskAssignmentDto;
 import com.akos.database.dtos.TaskDto;
 import com.akos.database.dtos.UserDto;
+import com.akos.database.entities.TaskState;
+import com.akos.database.entities.UserRank;
 import com.akos.database.services.TaskService;
 import com.akos.database.services.UserService;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasSize;
 
 @SpringBootTest
@@ -26,16 +42,21 @@ import static org.hamcrest.Matchers.hasSize;
 @AutoConfigureMockMvc
 public class UserControllerIntegrationTest {
 
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
     private final MockMvc mockMvc;
     private final ObjectMapper objectMapper;
     private final UserService userService;
     private final TaskService taskService;
+    private final Statistics statistics;
 
     @Autowired
-    public UserControllerIntegrationTest(MockMvc mockMvc, UserService userService, TaskService taskService) {
+    public UserControllerIntegrationTest(MockMvc mockMvc, UserService userService, TaskService taskService,
+                                         EntityManagerFactory entityManagerFactory) {
         this.mockMvc = mockMvc;
         this.userService = userService;
         this.taskService = taskService;
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
         this.objectMapper = new ObjectMapper();
     }
 
@@ -152,6 +173,51 @@ public class UserControllerIntegrationTest {
         );
     }
 
+    @Test
+    public void testThatUpdateUserWithTasksLinksTheExistingTasks() throws Exception {
+        UserDto savedUser = userService.save(TestDataUtil.createTestUserDtoA());
+        TaskDto keptTask = taskService.save(TestDataUtil.createTaskDto1());
+        TaskDto removedTask = taskService.save(TestDataUtil.createTaskDto1());
+        TaskDto addedTask = taskService.save(TestDataUtil.createTaskDto2());
+        userService.addTaskToUser(savedUser.getId(), keptTask.getId());
+        userService.addTaskToUser(savedUser.getId(), removedTask.getId());
+
+        UserDto updatedUserDto = TestDataUtil.createTestUserDtoA();
+        updatedUserDto.setTasks(Set.of(keptTask, addedTask));
+        mockMvc.perform(
+                MockMvcRequestBuilders.put("/users/{id}", savedUser.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updatedUserDto))
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.tasks").value(hasSize(2))
+        );
+
+        assertThat(taskService.findAll(PageRequest.of(0, 10)).getTotalElements()).isEqualTo(3);
+        assertThat(userService.findById(savedUser.getId()).getTasks())
+                .extracting(TaskDto::getId)
+                .containsExactlyInAnyOrder(keptTask.getId(), addedTask.getId());
+    }
+
+    @Test
+    public void testThatUpdateUserWithUnknownTaskReturnsHttp400() throws Exception {
+        UserDto savedUser = userService.save(TestDataUtil.createTestUserDtoA());
+        TaskDto unsavedTask = TestDataUtil.createTaskDto1();
+        unsavedTask.setId(12345L);
+
+        UserDto updatedUserDto = TestDataUtil.createTestUserDtoA();
+        updatedUserDto.setTasks(Set.of(unsavedTask));
+        mockMvc.perform(
+                MockMvcRequestBuilders.put("/users/{id}", savedUser.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updatedUserDto))
+        ).andExpect(
+                MockMvcResultMatchers.status().isBadRequest()
+        );
+        assertThat(taskService.findAll(PageRequest.of(0, 10)).getTotalElements()).isZero();
+    }
+
     @Test
     public void testPartialUpdateUserSuccessfullyReturnsHttp200() throws Exception {
         UserDto testUser = TestDataUtil.createTestUserDtoA();
@@ -192,6 +258,126 @@ public class UserControllerIntegrationTest {
         );
     }
 
+    @Test
+    public void testAddingCompletedTaskToUserReturnsHttp400() throws Exception {
+        UserDto savedUser = userService.save(TestDataUtil.createTestUserDtoA());
+        TaskDto completedTask = TestDataUtil.createTaskDto1();
+        completedTask.setState(TaskState.COMPLETED);
+        TaskDto savedTask = taskService.save(completedTask);
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.patch("/users/{userId}/addNewTask/{taskId}", savedUser.getId(), savedTask.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.status().isBadRequest()
+        );
+        assertThat(userService.findById(savedUser.getId()).getTasks()).isEmpty();
+    }
+
+    @Test
+    public void testAddingTaskToUserOnlyInsertsIntoTheJoinTable() {
+        UserDto savedUser = userService.save(TestDataUtil.createTestUserDtoA());
+        TaskDto savedTask = taskService.save(TestDataUtil.createTaskDto1());
+        statistics.clear();
+
+        UserDto updatedUser = userService.addTaskToUser(savedUser.getId(), savedTask.getId());
+        userService.addTaskToUser(savedUser.getId(), savedTask.getId());
+
+        assertThat(updatedUser.getTasks()).extracting(TaskDto::getId).containsExactly(savedTask.getId());
+        assertThat(statistics.getEntityUpdateCount()).isZero();
+        assertThat(statistics.getEntityInsertCount()).isZero();
+        assertThat(statistics.getCollectionUpdateCount()).isZero();
+    }
+
+    @Test
+    public void testBulkAssignmentAssignsTasksAndReportsTheSkippedAssignments() throws Exception {
+        UserDto savedUser = userService.save(TestDataUtil.createTestUserDtoA());
+        TaskDto savedTask1 = taskService.save(TestDataUtil.createTaskDto1());
+        TaskDto savedTask2 = taskService.save(TestDataUtil.createTaskDto1());
+        TaskDto completedTask = TestDataUtil.createTaskDto1();
+        completedTask.setState(TaskState.COMPLETED);
+        TaskDto savedCompletedTask = taskService.save(completedTask);
+        userService.findById(savedUser.getId());
+        List<TaskAssignmentDto> assignments = List.of(
+                new TaskAssignmentDto(savedUser.getId(), savedTask1.getId()),
+                new TaskAssignmentDto(savedUser.getId(), savedTask2.getId()),
+                new TaskAssignmentDto(savedUser.getId(), savedTask1.getId()),
+                new TaskAssignmentDto(savedUser.getId(), savedCompletedTask.getId()),
+                new TaskAssignmentDto(99L, savedTask1.getId()));
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.patch("/users/assignments")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(assignments))
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.assigned").value(2)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.notAssigned", hasSize(3))
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.notAssigned[1].taskId").value(savedCompletedTask.getId())
+        );
+        assertThat(userService.findById(savedUser.getId()).getTasks())
+                .extracting(TaskDto::getId)
+                .containsExactlyInAnyOrder(savedTask1.getId(), savedTask2.getId());
+    }
+
+    @Test
+    public void testBulkAssignmentWithoutTaskIdReturnsHttp400() throws Exception {
+        mockMvc.perform(
+                MockMvcRequestBuilders.patch("/users/assignments")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"userId\":1}]")
+        ).andExpect(
+                MockMvcResultMatchers.status().isBadRequest()
+        );
+    }
+
+    @Test
+    public void testDeleteOfUserKeepsItsTasks() throws Exception {
+        UserDto savedUser = userService.save(TestDataUtil.createTestUserDtoA());
+        TaskDto savedTask = taskService.save(TestDataUtil.createTaskDto1());
+        userService.addTaskToUser(savedUser.getId(), savedTask.getId());
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.delete("/users/{id}", savedUser.getId())
+        ).andExpect(
+                MockMvcResultMatchers.status().isNoContent()
+        );
+
+        assertThat(taskService.findById(savedTask.getId()).getName()).isEqualTo("Task 1");
+        mockMvc.perform(
+                MockMvcRequestBuilders.delete("/users/{id}", savedUser.getId())
+        ).andExpect(
+                MockMvcResultMatchers.status().isNotFound()
+        );
+    }
+
+    @Test
+    public void testThatExportStreamsAllUsersWithoutTheirTasks() throws Exception {
+        UserDto savedUser = userService.save(TestDataUtil.createTestUserDtoA());
+        TaskDto savedTask = taskService.save(TestDataUtil.createTaskDto1());
+        userService.addTaskToUser(savedUser.getId(), savedTask.getId());
+
+        MvcResult asyncResult = mockMvc.perform(
+                MockMvcRequestBuilders.get("/users/export")
+        ).andExpect(
+                MockMvcResultMatchers.request().asyncStarted()
+        ).andReturn();
+        mockMvc.perform(
+                MockMvcRequestBuilders.asyncDispatch(asyncResult)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.id").value(savedUser.getId())
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.tasks").doesNotExist()
+        );
+    }
+
     @Test
     void getAllAvailableUsers() throws Exception {
         UserDto userDtoA = TestDataUtil.createTestUserDtoA();
@@ -267,5 +453,502 @@ public class UserControllerIntegrationTest {
         );
     }
 
-}
+    @Test
+    void testThatImportUsersSavesValidLinesAndReportsInvalidOnes() throws Exception {
+        UserDto userWithoutName = TestDataUtil.createTestUserDtoB();
+        userWithoutName.setFirstName(null);
+        String usersNdjson = String.join("\n",
+                objectMapper.writeValueAsString(TestDataUtil.createTestUserDtoA()),
+                "{not json",
+                objectMapper.writeValueAsString(TestDataUtil.createTestUserDtoB()),
+                objectMapper.writeValueAsString(userWithoutName),
+                "",
+                objectMapper.writeValueAsString(TestDataUtil.createTestUserDtoA()));
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.post("/users/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(usersNdjson)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.imported").value(3)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.failed").value(2)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.errors[0].line").value(2)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.errors[1].line").value(4)
+        );
+        assertThat(userService.findAll(PageRequest.of(0, 10)).getTotalElements()).isEqualTo(3);
+    }
+
+    @Test
+    void testThatAvailableUsersWithoutTotalAreReturnedAsSlice() throws Exception {
+        userService.save(TestDataUtil.createTestUserDtoA());
+        userService.save(TestDataUtil.createTestUserDtoB());
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/users/availableUsers")
+                        .param("page", "0")
+                        .param("size", "10")
+                        .param("withTotal", "false")
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.content").value(hasSize(1))
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.last").value(true)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.totalElements").doesNotExist()
+        );
+    }
+
+    @Test
+    void testThatKeysetPaginationOfUsersWithRankReturnsNextPage() throws Exception {
+        UserDto savedUser1 = userService.save(TestDataUtil.createTestUserDtoA());
+        userService.save(TestDataUtil.createTestUserDtoB());
+        UserDto savedUser2 = userService.save(TestDataUtil.createTestUserDtoA());
+
+        String response = mockMvc.perform(
+                MockMvcRequestBuilders.get("/users/usersRank/{rank}", UserRank.BOSS)
+                        .param("after", "")
+                        .param("size", "1")
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.content[0].id").value(savedUser1.getId())
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.hasNext").value(true)
+        ).andReturn().getResponse().getContentAsString();
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/users/usersRank/{rank}", UserRank.BOSS)
+                        .param("after", objectMapper.readTree(response).get("next").asText())
+                        .param("size", "1")
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.content[0].id").value(savedUser2.getId())
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.hasNext").value(false)
+        );
+    }
+
+    @Test
+    void testThatListingUsersIssuesTheSameNumberOfStatementsForAnyPageSize() throws Exception {
+        long statementsForSmallPage = countStatementsForUserPageWithAssignedTasks(2);
+        long statementsForLargePage = countStatementsForUserPageWithAssignedTasks(20);
+
+        assertThat(statementsForLargePage).isEqualTo(statementsForSmallPage);
+        assertThat(statementsForLargePage).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void testThatGettingUserByIdIsServedFromTheSecondLevelCache() throws Exception {
+        UserDto savedUser = userService.save(TestDataUtil.createTestUserDtoA());
+        TaskDto savedTask1 = taskService.save(TestDataUtil.createTaskDto1());
+        TaskDto savedTask2 = taskService.save(TestDataUtil.createTaskDto1());
+        userService.addTaskToUser(savedUser.getId(), savedTask1.getId());
+        userService.addTaskToUser(savedUser.getId(), savedTask2.getId());
+        userService.findAll(PageRequest.of(0, 10));
+        statistics.clear();
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/users/{id}", savedUser.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.tasks").value(hasSize(2))
+        );
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getSecondLevelCacheHitCount()).isGreaterThanOrEqualTo(4);
+    }
+
+    @Test
+    void testThatAddingTaskToCachedUserIsVisibleInTheNextGet() throws Exception {
+        UserDto savedUser = userService.save(TestDataUtil.createTestUserDtoA());
+        TaskDto savedTask = taskService.save(TestDataUtil.createTaskDto1());
+        assertThat(userService.findById(savedUser.getId()).getTasks()).isEmpty();
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.patch("/users/{userId}/addNewTask/{taskId}", savedUser.getId(), savedTask.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        );
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/users/{id}", savedUser.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.tasks").value(hasSize(1))
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.tasks[0].id").value(savedTask.getId())
+        );
+    }
+
+    @Test
+    void testThatRepeatedGetOfUserIsServedFromTheDtoCache() throws Exception {
+        UserDto savedUser = userService.save(TestDataUtil.createTestUserDtoA());
+        userService.findById(savedUser.getId());
+        statistics.clear();
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/users/{id}", savedUser.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.firstName").value("Akos")
+        );
+        // The ETag is cached together with the DTO, so neither the user nor its tasks are looked up
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getSecondLevelCacheHitCount()).isZero();
+    }
+
+    @Test
+    void testThatUpdatingTaskEvictsTheCachedUsersWhoHaveIt() throws Exception {
+        UserDto savedUser = userService.save(TestDataUtil.createTestUserDtoA());
+        TaskDto savedTask = taskService.save(TestDataUtil.createTaskDto1());
+        userService.addTaskToUser(savedUser.getId(), savedTask.getId());
+        assertThat(userService.findById(savedUser.getId()).getTasks())
+                .extracting(TaskDto::getName)
+                .containsExactly("Task 1");
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.patch("/tasks/{id}", savedTask.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Renamed task\"}")
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        );
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/users/{id}", savedUser.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.tasks[0].name").value("Renamed task")
+        );
+    }
+
+    @Test
+    void testThatPartialUpdateOfCachedUserIsVisibleInTheNextGet() throws Exception {
+        UserDto savedUser = userService.save(TestDataUtil.createTestUserDtoA());
+        userService.findById(savedUser.getId());
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.patch("/users/{id}", savedUser.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"rank\":\"BOSS\"}")
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        );
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/users/{id}", savedUser.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.rank").value("BOSS")
+        );
+    }
+
+    @Test
+    void testThatTheJsonAndSmileRepresentationsOfAUserHaveTheirOwnETags() throws Exception {
+        UserDto savedUser = userService.save(TestDataUtil.createTestUserDtoA());
+        String jsonETag = mockMvc.perform(
+                MockMvcRequestBuilders.get("/users/{id}", savedUser.getId())
+        ).andExpect(
+                MockMvcResultMatchers.header().string(HttpHeaders.VARY, containsString(HttpHeaders.ACCEPT))
+        ).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        String smileETag = mockMvc.perform(
+                MockMvcRequestBuilders.get("/users/{id}", savedUser.getId())
+                        .header(HttpHeaders.ACCEPT, "application/x-jackson-smile")
+                        .header(HttpHeaders.IF_NONE_MATCH, jsonETag)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.content().contentType("application/x-jackson-smile")
+        ).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(smileETag).isNotEqualTo(jsonETag);
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/users/{id}", savedUser.getId())
+                        .header(HttpHeaders.ACCEPT, "application/x-jackson-smile")
+                        .header(HttpHeaders.IF_NONE_MATCH, smileETag)
+        ).andExpect(
+                MockMvcResultMatchers.status().isNotModified()
+        ).andExpect(
+                MockMvcResultMatchers.header().string(HttpHeaders.VARY, containsString(HttpHeaders.ACCEPT))
+        );
+    }
+
+    @Test
+    void testThatETagOfUserChangesWhenOneOfTheirTasksIsUpdated() throws Exception {
+        UserDto savedUser = userService.save(TestDataUtil.createTestUserDtoA());
+        TaskDto savedTask = taskService.save(TestDataUtil.createTaskDto1());
+        userService.addTaskToUser(savedUser.getId(), savedTask.getId());
+        String eTag = mockMvc.perform(
+                MockMvcRequestBuilders.get("/users/{id}", savedUser.getId())
+        ).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/users/{id}", savedUser.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag)
+        ).andExpect(
+                MockMvcResultMatchers.status().isNotModified()
+        );
+
+        taskService.partialUpdate(savedTask.getId(), TaskDto.builder().name("Renamed task").build(), null);
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/users/{id}", savedUser.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.tasks[0].name").value("Renamed task")
+        );
+    }
+
+    @Test
+    void testThatPartialUpdateUserWithStaleIfMatchReturnsHttp412() throws Exception {
+        UserDto savedUser = userService.save(TestDataUtil.createTestUserDtoA());
+        String eTag = mockMvc.perform(
+                MockMvcRequestBuilders.get("/users/{id}", savedUser.getId())
+        ).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        userService.partialUpdate(savedUser.getId(), UserDto.builder().rank(UserRank.WORKER).build(), null);
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.patch("/users/{id}", savedUser.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_MATCH, eTag)
+                        .content("{\"workHoursPerWeek\":10}")
+        ).andExpect(
+                MockMvcResultMatchers.status().isPreconditionFailed()
+        );
+        assertThat(userService.findById(savedUser.getId()).getWorkHoursPerWeek()).isEqualTo(30L);
+    }
+
+    @Test
+    void testThatPartialUpdateUserWithCurrentIfMatchKeepsItsTasksAndReturnsTheNewETag() throws Exception {
+        UserDto savedUser = userService.save(TestDataUtil.createTestUserDtoA());
+        TaskDto savedTask = taskService.save(TestDataUtil.createTaskDto1());
+        userService.addTaskToUser(savedUser.getId(), savedTask.getId());
+        String eTag = mockMvc.perform(
+                MockMvcRequestBuilders.get("/users/{id}", savedUser.getId())
+        ).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        String newETag = mockMvc.perform(
+                MockMvcRequestBuilders.patch("/users/{id}", savedUser.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_MATCH, eTag)
+                        .content("{\"workHoursPerWeek\":10}")
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.workHoursPerWeek").value(10)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.tasks", hasSize(1))
+        ).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertThat(newETag).isNotEqualTo(eTag);
+        assertThat(userService.findById(savedUser.getId()).getWorkHoursPerWeek()).isEqualTo(10L);
+    }
+
+    @Test
+    void testThatUpdateUserReturnsTheETagOfTheUserItReturns() throws Exception {
+        UserDto savedUser = userService.save(TestDataUtil.createTestUserDtoA());
+        UserDto update = TestDataUtil.createTestUserDtoA();
+        update.setFamilyName("Renamed");
+
+        String eTag = mockMvc.perform(
+                MockMvcRequestBuilders.put("/users/{id}", savedUser.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(update))
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.familyName").value("Renamed")
+        ).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/users/{id}", savedUser.getId())
+        ).andExpect(
+                MockMvcResultMatchers.header().string(HttpHeaders.ETAG, eTag)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.familyName").value("Renamed")
+        );
+    }
 
+    @Test
+    public void testThatUsersAreListedWithOnlyTheRequestedFieldsWithoutLoadingThemOrTheirTasks() throws Exception {
+        UserDto savedUser = userService.save(TestDataUtil.createTestUserDtoA());
+        userService.addTaskToUser(savedUser.getId(), taskService.save(TestDataUtil.createTaskDto1()).getId());
+        userService.save(TestDataUtil.createTestUserDtoB());
+        statistics.clear();
+
+        MvcResult result = mockMvc.perform(
+                MockMvcRequestBuilders.get("/users")
+                        .param("fields", "firstName,birthDate")
+                        .param("size", "1")
+                        .param("withTotal", "false")
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.last").value(false)
+        ).andReturn();
+
+        JsonNode users = objectMapper.readTree(result.getResponse().getContentAsString()).get("content");
+        assertThat(users).hasSize(1);
+        assertThat(users.get(0).fieldNames()).toIterable().containsExactly("firstName", "birthDate");
+        assertThat(users.get(0).get("birthDate").asText()).isEqualTo("2003-07-11");
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getCollectionLoadCount()).isZero();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testThatUserFieldsAreReadByIdAndTheTasksCannotBeSelected() throws Exception {
+        UserDto savedUser = userService.save(TestDataUtil.createTestUserDtoA());
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/users/" + savedUser.getId()).param("fields", "rank,workingStatus")
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.rank").value("BOSS")
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.workingStatus").value("ACTIVE")
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.firstName").doesNotExist()
+        );
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/users").param("fields", "firstName,tasks")
+        ).andExpect(
+                MockMvcResultMatchers.status().isBadRequest()
+        );
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/users/12345").param("fields", "firstName")
+        ).andExpect(
+                MockMvcResultMatchers.status().isNotFound()
+        );
+    }
+
+    @Test
+    public void testThatFieldsCombinedWithTheCursorReturnHttp400() throws Exception {
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/users").param("fields", "firstName").param("after", "")
+        ).andExpect(
+                MockMvcResultMatchers.status().isBadRequest()
+        );
+    }
+
+    @Test
+    public void testThatFieldsOnTheFilteredListsReturnHttp400() throws Exception {
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/users/availableUsers").param("fields", "firstName")
+        ).andExpect(
+                MockMvcResultMatchers.status().isBadRequest()
+        );
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/users/availableUsers").param("fields", "firstName").param("after", "")
+        ).andExpect(
+                MockMvcResultMatchers.status().isBadRequest()
+        );
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/users/usersRank/WORKER").param("fields", "firstName")
+        ).andExpect(
+                MockMvcResultMatchers.status().isBadRequest()
+        );
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/users/usersRank/WORKER").param("fields", "firstName").param("after", "")
+        ).andExpect(
+                MockMvcResultMatchers.status().isBadRequest()
+        );
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/users/workingLessThan/40").param("fields", "firstName")
+        ).andExpect(
+                MockMvcResultMatchers.status().isBadRequest()
+        );
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/users/workingLessThan/40").param("fields", "firstName").param("after", "")
+        ).andExpect(
+                MockMvcResultMatchers.status().isBadRequest()
+        );
+    }
+
+    @Test
+    public void testThatKeysetPaginationSortedByANullableColumnReturnsHttp400() throws Exception {
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/users").param("after", "").param("sort", "workHoursPerWeek")
+        ).andExpect(
+                MockMvcResultMatchers.status().isBadRequest()
+        );
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/users/availableUsers").param("after", "").param("sort", "workingStatus")
+        ).andExpect(
+                MockMvcResultMatchers.status().isBadRequest()
+        );
+    }
+
+    private long countStatementsForUserPageWithAssignedTasks(int numberOfUsers) throws Exception {
+        for (int i = 0; i < numberOfUsers; i++) {
+            UserDto savedUser = userService.save(TestDataUtil.createTestUserDtoA());
+            TaskDto savedTask = taskService.save(TestDataUtil.createTaskDto1());
+            userService.addTaskToUser(savedUser.getId(), savedTask.getId());
+        }
+        statistics.clear();
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/users")
+                        .param("page", "0")
+                        .param("size", "100")
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        );
+        return statistics.getPrepareStatementCount();
+    }
+
+    @Test
+    public void testThatUsersWithTheirTasksAreListedAsSmile() throws Exception {
+        SmileMapper smileMapper = new SmileMapper();
+        UserDto savedUser = userService.save(TestDataUtil.createTestUserDtoA());
+        TaskDto savedTask = taskService.save(TestDataUtil.createTaskDto1());
+        userService.addTaskToUser(savedUser.getId(), savedTask.getId());
+
+        MvcResult result = mockMvc.perform(
+                MockMvcRequestBuilders.get("/users")
+                        .accept(SMILE)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.content().contentType(SMILE)
+        ).andReturn();
+
+        JsonNode users = smileMapper.readTree(result.getResponse().getContentAsByteArray()).get("content");
+        assertThat(users).hasSize(1);
+        UserDto user = smileMapper.treeToValue(users.get(0), UserDto.class);
+        assertThat(user.getBirthDate()).isEqualTo(savedUser.getBirthDate());
+        assertThat(user.getTasks()).containsExactly(savedTask);
+    }
+
+    @Test
+    public void testThatUserIsCreatedFromSmile() throws Exception {
+        UserDto testUser = TestDataUtil.createTestUserDtoB();
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.post("/users")
+                        .contentType(SMILE)
+                        .content(new SmileMapper().writeValueAsBytes(testUser))
+        ).andExpect(
+                MockMvcResultMatchers.status().isCreated()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.birthDate").value("1995-05-20")
+        );
+    }
+}
@@ -0,0 +1,158 @@
+package com.akos.database.loadtest;
+
+import com.akos.database.TestDataUtil;
+import com.akos.database.dtos.TaskDto;
+import com.akos.database.dtos.UserDto;
+import com.akos.database.services.TaskService;
+import com.akos.database.services.UserImportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives the REST API of the application started on a random port with concurrent clients and reports the latency
+ * percentiles and the throughput of every endpoint. Every client sends its next request as soon as the previous one
+ * is answered, so the numbers describe the capacity of the application, not its latency under a fixed arrival rate.
+ * <p>
+ * Run it with {@code ./gradlew benchmark --tests '*ApiLoadTest'}, the run can be configured with
+ * {@code -Dbenchmark.clients}, {@code -Dbenchmark.warmup} and {@code -Dbenchmark.duration} (seconds),
+ * {@code -Dbenchmark.rows} (seeded tasks and users) and {@code -Dbenchmark.mix}, e.g.
+ * {@code getTask=40,listAvailableTasks=10,getUser=20,createTask=10,patchTask=10,assignTasks=10}.
+ * <p>
+ * With {@code -Dbenchmark.virtual=true} the application serves the requests on virtual threads, which needs Java 21.
+ * Comparing it with the platform-thread pool of Tomcat takes two runs with the same number of clients, e.g.
+ * {@code -Dbenchmark.clients=1000 -Dbenchmark.virtual=true} and {@code -Dbenchmark.virtual=false}.
+ * The report is printed and written as JSON into {@code build/results/loadtest}.
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.jpa.properties.hibernate.generate_statistics=false",
+                "spring.threads.virtual.enabled=${benchmark.virtual:false}"})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+public class ApiLoadTest {
+
+    private static final int CLIENTS = Integer.getInteger("benchmark.clients", 16);
+    private static final Duration WARMUP = Duration.ofSeconds(Integer.getInteger("benchmark.warmup", 10));
+    private static final Duration DURATION = Duration.ofSeconds(Integer.getInteger("benchmark.duration", 30));
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 2000);
+    private static final LoadMix MIX = LoadMix.parse(System.getProperty("benchmark.mix",
+            "getTask=35,listAvailableTasks=10,getUser=20,createTask=10,patchTask=15,assignTasks=10"));
+    private static final Path REPORT_DIRECTORY = Path.of(System.getProperty("benchmark.report.dir",
+            "build/results/loadtest"));
+    private static final long SEED = 42;
+
+    private final TaskService taskService;
+    private final UserImportService userImportService;
+    private final JdbcTemplate jdbcTemplate;
+    private final Environment environment;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    public ApiLoadTest(TaskService taskService, UserImportService userImportService, JdbcTemplate jdbcTemplate,
+                       Environment environment) {
+        this.taskService = taskService;
+        this.userImportService = userImportService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.environment = environment;
+    }
+
+    @Test
+    public void mixedTraffic() throws Exception {
+        LoadTestTarget target = seed();
+        HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+        long warmupEnd = System.nanoTime() + WARMUP.toNanos();
+        long end = warmupEnd + DURATION.toNanos();
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        List<LatencyReport.Recording> recordings = new ArrayList<>(CLIENTS);
+        try {
+            List<Future<LatencyReport.Recording>> runningClients = IntStream.range(0, CLIENTS)
+                    .mapToObj(client -> clients.submit(() ->
+                            runClient(httpClient, target, new Random(SEED + client), warmupEnd, end)))
+                    .toList();
+            for (Future<LatencyReport.Recording> client : runningClients) {
+                recordings.add(client.get());
+            }
+        } finally {
+            clients.shutdownNow();
+        }
+
+        String threads = Threading.VIRTUAL.isActive(environment) ? "virtual" : "platform";
+        LatencyReport report = new LatencyReport(CLIENTS, threads, MIX, DURATION, recordings);
+        System.out.print(report.toText());
+        Path reportFile = REPORT_DIRECTORY.resolve(
+                "loadtest-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json");
+        report.writeJson(reportFile);
+        System.out.println("Report written to " + reportFile.toAbsolutePath());
+
+        assertThat(report.totalRequests()).isPositive();
+    }
+
+    private LatencyReport.Recording runClient(HttpClient httpClient, LoadTestTarget target, Random random,
+                                              long warmupEnd, long end) throws InterruptedException {
+        LatencyReport.Recording recording = new LatencyReport.Recording();
+        long start;
+        while ((start = System.nanoTime()) < end) {
+            LoadTestEndpoint endpoint = MIX.pick(random);
+            HttpRequest request = endpoint.request(target, random);
+            boolean failed;
+            try {
+                failed = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() >= 400;
+            } catch (IOException e) {
+                failed = true;
+            }
+            long elapsed = System.nanoTime() - start;
+            if (start >= warmupEnd) {
+                recording.record(endpoint, elapsed, failed);
+            }
+        }
+        return recording;
+    }
+
+    private LoadTestTarget seed() throws IOException {
+        TaskDto[] taskTemplates = {TestDataUtil.createTaskDto1(), TestDataUtil.createTaskDto2()};
+        List<Long> taskIds = taskService.saveAll(IntStream.range(0, ROWS)
+                .mapToObj(i -> taskTemplates[i % taskTemplates.length]).iterator());
+
+        UserDto[] userTemplates = {TestDataUtil.createTestUserDtoA(), TestDataUtil.createTestUserDtoB()};
+        StringBuilder usersNdjson = new StringBuilder();
+        for (int i = 0; i < ROWS; i++) {
+            usersNdjson.append(objectMapper.writeValueAsString(userTemplates[i % userTemplates.length])).append('\n');
+        }
+        userImportService.importUsers(new ByteArrayInputStream(usersNdjson.toString().getBytes(StandardCharsets.UTF_8)));
+        List<Long> userIds = jdbcTemplate.queryForList("SELECT id FROM users", Long.class);
+
+        return new LoadTestTarget(URI.create("http://localhost:" + port), taskIds, userIds);
+    }
+}
@@ -0,0 +1,136 @@
+package com.akos.database.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency percentiles and throughput per endpoint of a load test run, printable as a text table or as JSON.
+ * Latencies are recorded in microseconds into HdrHistograms with three significant digits.
+ */
+final class LatencyReport {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final String TOTAL = "total";
+
+    private final int clients;
+    private final String threads;
+    private final LoadMix mix;
+    private final Duration measured;
+    private final Map<LoadTestEndpoint, Histogram> latencies = new EnumMap<>(LoadTestEndpoint.class);
+    private final Map<LoadTestEndpoint, Long> errors = new EnumMap<>(LoadTestEndpoint.class);
+    private final Histogram totalLatencies = new Histogram(SIGNIFICANT_DIGITS);
+
+    /**
+     * @param clients    The number of concurrent clients.
+     * @param threads    The threads serving the requests, {@code virtual} or {@code platform}.
+     * @param mix        The traffic mix of the run.
+     * @param measured   The length of the measured part of the run, without warmup.
+     * @param recordings The recordings of the clients.
+     */
+    LatencyReport(int clients, String threads, LoadMix mix, Duration measured, List<Recording> recordings) {
+        this.clients = clients;
+        this.threads = threads;
+        this.mix = mix;
+        this.measured = measured;
+        for (Recording recording : recordings) {
+            recording.latencies.forEach((endpoint, histogram) -> {
+                latencies.computeIfAbsent(endpoint, e -> new Histogram(SIGNIFICANT_DIGITS)).add(histogram);
+                totalLatencies.add(histogram);
+            });
+            recording.errors.forEach((endpoint, count) -> errors.merge(endpoint, count, Long::sum));
+        }
+    }
+
+    long totalRequests() {
+        return totalLatencies.getTotalCount();
+    }
+
+    long totalErrors() {
+        return errors.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    String toText() {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format("%d clients, %s threads, %.1f s measured, mix %s%n",
+                clients, threads, seconds(), mix));
+        text.append(String.format("%-28s %9s %7s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms"));
+        for (Map<String, Object> row : rows()) {
+            text.append(String.format("%-28s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n", row.get("endpoint"),
+                    row.get("requests"), row.get("errors"), row.get("throughput"), row.get("p50Ms"),
+                    row.get("p95Ms"), row.get("p99Ms"), row.get("maxMs")));
+        }
+        return text.toString();
+    }
+
+    void writeJson(Path file) throws IOException {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("clients", clients);
+        json.put("threads", threads);
+        json.put("mix", mix.toString());
+        json.put("measuredSeconds", seconds());
+        json.put("endpoints", rows());
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(file.toFile(), json);
+    }
+
+    private List<Map<String, Object>> rows() {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        latencies.forEach((endpoint, histogram) ->
+                rows.add(row(endpoint.label(), histogram, errors.getOrDefault(endpoint, 0L))));
+        rows.add(row(TOTAL, totalLatencies, totalErrors()));
+        return rows;
+    }
+
+    private Map<String, Object> row(String endpoint, Histogram histogram, long errorCount) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("endpoint", endpoint);
+        row.put("requests", histogram.getTotalCount());
+        row.put("errors", errorCount);
+        row.put("throughput", histogram.getTotalCount() / seconds());
+        row.put("p50Ms", millis(histogram.getValueAtPercentile(50)));
+        row.put("p95Ms", millis(histogram.getValueAtPercentile(95)));
+        row.put("p99Ms", millis(histogram.getValueAtPercentile(99)));
+        row.put("maxMs", millis(histogram.getMaxValue()));
+        return row;
+    }
+
+    private double seconds() {
+        return measured.toNanos() / 1e9;
+    }
+
+    private static double millis(long micros) {
+        return micros / 1_000.0;
+    }
+
+    /**
+     * The latencies and errors recorded by one client. Not thread-safe, every client owns its recording.
+     */
+    static final class Recording {
+
+        private final Map<LoadTestEndpoint, Histogram> latencies = new EnumMap<>(LoadTestEndpoint.class);
+        private final Map<LoadTestEndpoint, Long> errors = new EnumMap<>(LoadTestEndpoint.class);
+
+        /**
+         * Records one completed request. Failed requests count as errors besides their latency.
+         */
+        void record(LoadTestEndpoint endpoint, long nanos, boolean failed) {
+            latencies.computeIfAbsent(endpoint, e -> new Histogram(SIGNIFICANT_DIGITS))
+                    .recordValue(TimeUnit.NANOSECONDS.toMicros(nanos));
+            if (failed) {
+                errors.merge(endpoint, 1L, Long::sum);
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.akos.database.loadtest;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Weighted mix of endpoints, parsed from a definition like {@code getTask=40,patchTask=10}.
+ */
+final class LoadMix {
+
+    private final Map<LoadTestEndpoint, Integer> weights;
+    private final List<LoadTestEndpoint> endpoints = new ArrayList<>();
+    private final int[] cumulativeWeights;
+
+    private LoadMix(Map<LoadTestEndpoint, Integer> weights) {
+        this.weights = weights;
+        this.cumulativeWeights = new int[weights.size()];
+        int sum = 0;
+        for (Map.Entry<LoadTestEndpoint, Integer> weight : weights.entrySet()) {
+            sum += weight.getValue();
+            cumulativeWeights[endpoints.size()] = sum;
+            endpoints.add(weight.getKey());
+        }
+    }
+
+    /**
+     * Parses a comma separated list of {@code endpoint=weight} pairs.
+     *
+     * @param definition The mix definition.
+     * @return The parsed mix.
+     * @throws IllegalArgumentException If an endpoint is unknown, a weight is not a positive number or the mix
+     *                                  is empty.
+     */
+    static LoadMix parse(String definition) {
+        Map<LoadTestEndpoint, Integer> weights = new LinkedHashMap<>();
+        for (String part : definition.split(",")) {
+            if (part.isBlank()) {
+                continue;
+            }
+            String[] keyAndWeight = part.split("=", 2);
+            if (keyAndWeight.length != 2) {
+                throw new IllegalArgumentException("Expected endpoint=weight in the traffic mix: " + part);
+            }
+            int weight = Integer.parseInt(keyAndWeight[1].trim());
+            if (weight <= 0) {
+                throw new IllegalArgumentException("Weights of the traffic mix must be positive: " + part);
+            }
+            weights.merge(LoadTestEndpoint.ofKey(keyAndWeight[0].trim()), weight, Integer::sum);
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("The traffic mix is empty");
+        }
+        return new LoadMix(weights);
+    }
+
+    /**
+     * Picks an endpoint with a probability proportional to its weight.
+     */
+    LoadTestEndpoint pick(Random random) {
+        int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (value < cumulativeWeights[i]) {
+                return endpoints.get(i);
+            }
+        }
+        throw new IllegalStateException("Unreachable");
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder definition = new StringBuilder();
+        weights.forEach((endpoint, weight) -> {
+            if (!definition.isEmpty()) {
+                definition.append(',');
+            }
+            definition.append(endpoint.key()).append('=').append(weight);
+        });
+        return definition.toString();
+    }
+}
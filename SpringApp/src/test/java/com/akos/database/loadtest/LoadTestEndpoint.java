@@ -0,0 +1,102 @@
+package com.akos.database.loadtest;
+
+import com.akos.database.dtos.TaskAssignmentDto;
+import com.akos.database.dtos.TaskDto;
+import com.akos.database.entities.TaskState;
+
+import java.net.http.HttpRequest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The REST calls the load test can issue, each one builds a request against randomly picked seeded rows.
+ */
+enum LoadTestEndpoint {
+
+    GET_TASK("getTask", "GET /tasks/{id}") {
+        @Override
+        HttpRequest request(LoadTestTarget target, Random random) {
+            return target.get("/tasks/" + target.randomTaskId(random));
+        }
+    },
+    LIST_AVAILABLE_TASKS("listAvailableTasks", "GET /tasks/availableTasks") {
+        @Override
+        HttpRequest request(LoadTestTarget target, Random random) {
+            return target.get("/tasks/availableTasks?page=" + random.nextInt(LIST_PAGES) + "&size=" + PAGE_SIZE);
+        }
+    },
+    GET_USER("getUser", "GET /users/{id}") {
+        @Override
+        HttpRequest request(LoadTestTarget target, Random random) {
+            return target.get("/users/" + target.randomUserId(random));
+        }
+    },
+    CREATE_TASK("createTask", "POST /tasks") {
+        @Override
+        HttpRequest request(LoadTestTarget target, Random random) {
+            return target.post("/tasks", target.newTask(random));
+        }
+    },
+    PATCH_TASK("patchTask", "PATCH /tasks/{id}") {
+        @Override
+        HttpRequest request(LoadTestTarget target, Random random) {
+            TaskState state = random.nextBoolean() ? TaskState.IN_PROGRESS : TaskState.NOT_STARTED;
+            return target.patch("/tasks/" + target.randomTaskId(random), TaskDto.builder().state(state).build());
+        }
+    },
+    ASSIGN_TASKS("assignTasks", "PATCH /users/assignments") {
+        @Override
+        HttpRequest request(LoadTestTarget target, Random random) {
+            List<TaskAssignmentDto> assignments = new ArrayList<>(ASSIGNMENTS_PER_REQUEST);
+            for (int i = 0; i < ASSIGNMENTS_PER_REQUEST; i++) {
+                assignments.add(new TaskAssignmentDto(target.randomUserId(random), target.randomTaskId(random)));
+            }
+            return target.patch("/users/assignments", assignments);
+        }
+    };
+
+    private static final int LIST_PAGES = 10;
+    private static final int PAGE_SIZE = 20;
+    private static final int ASSIGNMENTS_PER_REQUEST = 5;
+
+    private final String key;
+    private final String label;
+
+    LoadTestEndpoint(String key, String label) {
+        this.key = key;
+        this.label = label;
+    }
+
+    /**
+     * Builds the next request of this endpoint.
+     *
+     * @param target The application under load with the ids of the seeded rows.
+     * @param random The random source of the calling client.
+     * @return The request to send.
+     */
+    abstract HttpRequest request(LoadTestTarget target, Random random);
+
+    /**
+     * @return The name of the endpoint in the traffic mix, e.g. {@code getTask}.
+     */
+    String key() {
+        return key;
+    }
+
+    /**
+     * @return The method and path template of the endpoint used in the reports.
+     */
+    String label() {
+        return label;
+    }
+
+    static LoadTestEndpoint ofKey(String key) {
+        for (LoadTestEndpoint endpoint : values()) {
+            if (endpoint.key.equals(key)) {
+                return endpoint;
+            }
+        }
+        throw new IllegalArgumentException("Unknown endpoint in the traffic mix: " + key);
+    }
+}
@@ -0,0 +1,82 @@
+package com.akos.database.loadtest;
+
+import com.akos.database.dtos.TaskDto;
+import com.akos.database.entities.TaskState;
+import com.akos.database.entities.TaskType;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The running application under load together with the ids of the rows seeded before the run.
+ */
+final class LoadTestTarget {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final TaskType[] TASK_TYPES = TaskType.values();
+
+    private final URI baseUri;
+    private final long[] taskIds;
+    private final long[] userIds;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    LoadTestTarget(URI baseUri, List<Long> taskIds, List<Long> userIds) {
+        this.baseUri = baseUri;
+        this.taskIds = taskIds.stream().mapToLong(Long::longValue).toArray();
+        this.userIds = userIds.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    long randomTaskId(Random random) {
+        return taskIds[random.nextInt(taskIds.length)];
+    }
+
+    long randomUserId(Random random) {
+        return userIds[random.nextInt(userIds.length)];
+    }
+
+    TaskDto newTask(Random random) {
+        return TaskDto.builder()
+                .name("Load test task")
+                .description("Created by the load test")
+                .workTimePerWeekPerPerson(1L + random.nextInt(40))
+                .type(TASK_TYPES[random.nextInt(TASK_TYPES.length)])
+                .deadLine(LocalDate.of(2030, 1, 1).plusDays(random.nextInt(365)))
+                .state(TaskState.NOT_STARTED)
+                .weeksNeeded(1L + random.nextInt(10))
+                .personsNeeded(1L + random.nextInt(5))
+                .build();
+    }
+
+    HttpRequest get(String path) {
+        return request(path).GET().build();
+    }
+
+    HttpRequest post(String path, Object body) {
+        return request(path).header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json(body))).build();
+    }
+
+    HttpRequest patch(String path, Object body) {
+        return request(path).header("Content-Type", "application/json")
+                .method("PATCH", HttpRequest.BodyPublishers.ofString(json(body))).build();
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(baseUri.resolve(path)).timeout(REQUEST_TIMEOUT).header("Accept", "application/json");
+    }
+
+    private String json(Object body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
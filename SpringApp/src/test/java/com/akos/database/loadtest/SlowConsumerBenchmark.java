@@ -0,0 +1,259 @@
+package com.akos.database.loadtest;
+
+import com.akos.database.TestDataUtil;
+import com.akos.database.configuration.ReactiveReadServer;
+import com.akos.database.dtos.TaskDto;
+import com.akos.database.services.TaskService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the memory and the threads used by the blocking and the reactive list endpoints while many slow clients
+ * read the same list of tasks at the same time. A slow client reads the response at a fixed bandwidth, asking for the
+ * next chunk only after the time the previous one took at that rate, so the server has to either wait for it or hold
+ * the rest of the response.
+ * <p>
+ * The blocking list is read as a single page from {@code GET /tasks?size=rows&withTotal=false} of the Tomcat server,
+ * the reactive list from {@code GET /tasks?limit=rows} of the reactive server. While the clients are reading,
+ * the heap used above the baseline, the live threads and the busy Tomcat workers are sampled, the peaks are reported
+ * for both.
+ * <p>
+ * Run it with {@code ./gradlew benchmark --tests '*SlowConsumerBenchmark'}, the run can be configured with
+ * {@code -Dbenchmark.consumers}, {@code -Dbenchmark.rows} (at most 1000, the largest page of the blocking list)
+ * and {@code -Dbenchmark.rate} (kilobytes per second read by a client).
+ * The report is printed and written as JSON into {@code build/results/loadtest}.
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.jpa.properties.hibernate.generate_statistics=false")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+public class SlowConsumerBenchmark {
+
+    private static final int CONSUMERS = Integer.getInteger("benchmark.consumers", 500);
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 1000);
+    private static final long RATE_KILOBYTES = Long.getLong("benchmark.rate", 64);
+    private static final Path REPORT_DIRECTORY = Path.of(System.getProperty("benchmark.report.dir",
+            "build/results/loadtest"));
+    private static final long SAMPLE_MILLIS = 20;
+    private static final List<String> THREAD_GROUPS = List.of("http-nio-", "reactor-http-", "HttpClient-");
+    private static final String TOMCAT_WORKER = "-exec-";
+    private static final String IDLE_TOMCAT_WORKER_FRAME = "org.apache.tomcat.util.threads.TaskQueue";
+
+    private final TaskService taskService;
+    private final ReactiveReadServer reactiveReadServer;
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    public SlowConsumerBenchmark(TaskService taskService, ReactiveReadServer reactiveReadServer) {
+        this.taskService = taskService;
+        this.reactiveReadServer = reactiveReadServer;
+    }
+
+    @Test
+    public void slowConsumers() throws Exception {
+        TaskDto[] templates = {TestDataUtil.createTaskDto1(), TestDataUtil.createTaskDto2()};
+        taskService.saveAll(IntStream.range(0, ROWS).mapToObj(i -> templates[i % templates.length]).iterator());
+
+        URI blocking = URI.create("http://localhost:" + port + "/tasks?size=" + ROWS + "&withTotal=false");
+        URI reactive = URI.create("http://localhost:" + reactiveReadServer.getPort() + "/tasks?limit=" + ROWS);
+        // Warms both paths up, so the first measured run does not pay for class loading and JIT compilation
+        run(blocking, Math.min(CONSUMERS, 20));
+        run(reactive, Math.min(CONSUMERS, 20));
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("consumers", CONSUMERS);
+        report.put("rows", ROWS);
+        report.put("rateKilobytes", RATE_KILOBYTES);
+        report.put("blocking", run(blocking, CONSUMERS));
+        report.put("reactive", run(reactive, CONSUMERS));
+
+        System.out.printf("%d slow consumers, %d rows, %d KB/s per consumer%n", CONSUMERS, ROWS, RATE_KILOBYTES);
+        System.out.printf("%-10s %10s %12s %14s %14s %14s%s%n", "endpoint", "seconds", "MB received",
+                "peak heap MB", "peak threads", "busy workers", THREAD_GROUPS.stream()
+                        .map(group -> String.format(" %14s", group)).reduce("", String::concat));
+        for (String mode : List.of("blocking", "reactive")) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> result = (Map<String, Object>) report.get(mode);
+            @SuppressWarnings("unchecked")
+            Map<String, Integer> groups = (Map<String, Integer>) result.get("peakThreadsByGroup");
+            System.out.printf("%-10s %10.2f %12.1f %14.1f %14d %14d%s%n", mode, result.get("seconds"),
+                    result.get("receivedMegabytes"), result.get("peakHeapAboveBaselineMegabytes"),
+                    result.get("peakThreads"), result.get("peakBusyTomcatWorkers"), THREAD_GROUPS.stream()
+                            .map(group -> String.format(" %14d", groups.get(group))).reduce("", String::concat));
+        }
+        Path reportFile = REPORT_DIRECTORY.resolve("slow-consumers-"
+                + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json");
+        Files.createDirectories(reportFile.toAbsolutePath().getParent());
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(reportFile.toFile(), report);
+        System.out.println("Report written to " + reportFile.toAbsolutePath());
+    }
+
+    private Map<String, Object> run(URI uri, int consumers) throws Exception {
+        System.gc();
+        long baselineHeap = memory.getHeapMemoryUsage().getUsed();
+        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+        HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        Sampler sampler = new Sampler(baselineHeap);
+        Thread samplerThread = new Thread(sampler, "slow-consumer-sampler");
+        samplerThread.start();
+        long start = System.nanoTime();
+        try {
+            List<CompletableFuture<Long>> received = new ArrayList<>(consumers);
+            for (int i = 0; i < consumers; i++) {
+                received.add(httpClient.sendAsync(HttpRequest.newBuilder(uri).GET().build(), response -> {
+                    assertThat(response.statusCode()).isEqualTo(200);
+                    return new SlowSubscriber(scheduler);
+                }).thenApply(HttpResponse::body));
+            }
+            long receivedBytes = 0;
+            for (CompletableFuture<Long> consumer : received) {
+                receivedBytes += consumer.get(10, TimeUnit.MINUTES);
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("seconds", seconds);
+            result.put("receivedMegabytes", receivedBytes / 1048576.0);
+            result.put("peakHeapAboveBaselineMegabytes", sampler.peakHeapAboveBaseline / 1048576.0);
+            result.put("peakThreads", sampler.peakThreads);
+            result.put("peakBusyTomcatWorkers", sampler.peakBusyTomcatWorkers);
+            result.put("peakThreadsByGroup", sampler.peakThreadsByGroup);
+            return result;
+        } finally {
+            sampler.stopped.set(true);
+            samplerThread.join();
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Samples the heap used and the live threads of the JVM until it is stopped, keeping the peaks.
+     * A Tomcat worker is busy unless it is waiting for the next request in the queue of the pool.
+     */
+    private final class Sampler implements Runnable {
+
+        private final long baselineHeap;
+        private final AtomicBoolean stopped = new AtomicBoolean();
+        private final Map<String, Integer> peakThreadsByGroup = new LinkedHashMap<>();
+        private volatile long peakHeapAboveBaseline;
+        private volatile int peakThreads;
+        private volatile int peakBusyTomcatWorkers;
+
+        private Sampler(long baselineHeap) {
+            this.baselineHeap = baselineHeap;
+            THREAD_GROUPS.forEach(group -> peakThreadsByGroup.put(group, 0));
+        }
+
+        @Override
+        public void run() {
+            while (!stopped.get()) {
+                peakHeapAboveBaseline = Math.max(peakHeapAboveBaseline,
+                        memory.getHeapMemoryUsage().getUsed() - baselineHeap);
+                Map<Thread, StackTraceElement[]> threads = Thread.getAllStackTraces();
+                List<String> names = threads.keySet().stream().map(Thread::getName).toList();
+                peakThreads = Math.max(peakThreads, names.size());
+                int busyTomcatWorkers = (int) threads.entrySet().stream()
+                        .filter(thread -> thread.getKey().getName().startsWith(THREAD_GROUPS.get(0))
+                                && thread.getKey().getName().contains(TOMCAT_WORKER))
+                        .filter(thread -> Arrays.stream(thread.getValue())
+                                .noneMatch(frame -> frame.getClassName().equals(IDLE_TOMCAT_WORKER_FRAME)))
+                        .count();
+                peakBusyTomcatWorkers = Math.max(peakBusyTomcatWorkers, busyTomcatWorkers);
+                for (String group : THREAD_GROUPS) {
+                    int count = (int) names.stream().filter(name -> name.startsWith(group)).count();
+                    peakThreadsByGroup.merge(group, count, Math::max);
+                }
+                try {
+                    Thread.sleep(SAMPLE_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the response body one chunk at a time, asking for the next chunk only after the time the chunk takes
+     * at the rate of the client.
+     * The HTTP client stops reading the connection while no chunk is asked for, so the server sees a slow reader.
+     */
+    private static final class SlowSubscriber implements HttpResponse.BodySubscriber<Long> {
+
+        private final ScheduledExecutorService scheduler;
+        private final CompletableFuture<Long> received = new CompletableFuture<>();
+        private Flow.Subscription subscription;
+        private long bytes;
+
+        private SlowSubscriber(ScheduledExecutorService scheduler) {
+            this.scheduler = scheduler;
+        }
+
+        @Override
+        public CompletionStage<Long> getBody() {
+            return received;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> chunk) {
+            long chunkBytes = 0;
+            for (ByteBuffer buffer : chunk) {
+                chunkBytes += buffer.remaining();
+            }
+            bytes += chunkBytes;
+            scheduler.schedule(() -> subscription.request(1), chunkBytes * 1_000_000 / (RATE_KILOBYTES * 1024),
+                    TimeUnit.MICROSECONDS);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            received.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            received.complete(bytes);
+        }
+    }
+}
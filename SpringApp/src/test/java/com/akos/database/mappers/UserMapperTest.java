@@ -0,0 +1,62 @@
+package com.akos.database.mappers;
+
+import com.akos.database.TestDataUtil;
+import com.akos.database.dtos.TaskDto;
+import com.akos.database.dtos.UserDto;
+import com.akos.database.entities.TaskEntity;
+import com.akos.database.entities.TaskState;
+import com.akos.database.entities.UserEntity;
+import com.akos.database.entities.UserRank;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class UserMapperTest {
+
+    private final TaskMapper taskMapper = new TaskMapperImpl();
+    private final UserMapper userMapper = new UserMapperImpl(taskMapper);
+
+    @Test
+    public void testThatUpdateEntitySkipsTheNullFields() {
+        UserEntity userEntity = userMapper.toEntity(TestDataUtil.createTestUserDtoA());
+        userEntity.setVersion(3L);
+        userEntity.setTasks(new HashSet<>(Set.of(taskMapper.toEntity(TestDataUtil.createTaskDto1()))));
+
+        userMapper.updateEntity(UserDto.builder().rank(UserRank.WORKER).build(), userEntity);
+
+        assertThat(userEntity.getRank()).isEqualTo(UserRank.WORKER);
+        assertThat(userEntity.getFirstName()).isEqualTo(TestDataUtil.createTestUserDtoA().getFirstName());
+        assertThat(userEntity.getVersion()).isEqualTo(3L);
+        assertThat(userEntity.getTasks()).hasSize(1);
+    }
+
+    @Test
+    public void testThatTheTasksAreNeverTakenFromTheDto() {
+        TaskEntity task = taskMapper.toEntity(TestDataUtil.createTaskDto1());
+        UserEntity userEntity = userMapper.toEntity(TestDataUtil.createTestUserDtoA());
+        userEntity.setTasks(new HashSet<>(Set.of(task)));
+        TaskDto newTask = TestDataUtil.createTaskDto1();
+        newTask.setState(TaskState.NOT_STARTED);
+        UserDto userDtoWithTasks = UserDto.builder().firstName("Renamed").tasks(Set.of(newTask)).build();
+
+        userMapper.updateEntity(userDtoWithTasks, userEntity);
+
+        assertThat(userEntity.getFirstName()).isEqualTo("Renamed");
+        assertThat(userEntity.getTasks()).containsExactly(task);
+        assertThat(userMapper.toEntity(userDtoWithTasks).getTasks()).isNull();
+    }
+
+    @Test
+    public void testThatToDtoMapsTheTasks() {
+        UserEntity userEntity = userMapper.toEntity(TestDataUtil.createTestUserDtoA());
+        userEntity.setTasks(Set.of(taskMapper.toEntity(TestDataUtil.createTaskDto1())));
+
+        UserDto userDto = userMapper.toDto(userEntity);
+
+        assertThat(userDto.getFirstName()).isEqualTo(userEntity.getFirstName());
+        assertThat(userDto.getTasks()).extracting(TaskDto::getName).containsExactly("Task 1");
+    }
+}
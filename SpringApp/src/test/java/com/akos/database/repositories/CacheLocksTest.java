@@ -0,0 +1,166 @@
+package com.akos.database.repositories;
+
+import com.akos.database.TestDataUtil;
+import com.akos.database.dtos.TaskDto;
+import com.akos.database.entities.TaskEntity;
+import com.akos.database.entities.TaskState;
+import com.akos.database.services.TaskService;
+import com.akos.database.services.UserService;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs against a replica that is a separate in-memory database which never catches up with the primary,
+ * so a read-only transaction on another thread always reads the old state of a changed row.
+ */
+@SpringBootTest(properties = "app.datasource.replica.url="
+        + "jdbc:h2:mem:lockreplicadb;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class CacheLocksTest {
+
+    private final TaskService taskService;
+    private final UserService userService;
+    private final TaskRepository taskRepository;
+    private final UserRepository userRepository;
+    private final DataSource replicaDataSource;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    @Autowired
+    public CacheLocksTest(TaskService taskService, UserService userService, TaskRepository taskRepository,
+                          UserRepository userRepository, @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                          PlatformTransactionManager transactionManager) {
+        this.taskService = taskService;
+        this.userService = userService;
+        this.taskRepository = taskRepository;
+        this.userRepository = userRepository;
+        this.replicaDataSource = replicaDataSource;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+    }
+
+    @BeforeEach
+    public void setUpReplica() {
+        Flyway flyway = Flyway.configure().dataSource(replicaDataSource).cleanDisabled(false).load();
+        flyway.clean();
+        flyway.migrate();
+    }
+
+    @Test
+    public void testThatATaskLoadedBeforeTheCommitOfItsUpdateIsNotCached() {
+        Long id = saveTaskOnBothDatabases();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            taskRepository.updateNonNullFields(id, TaskDto.builder().state(TaskState.COMPLETED).build(), null);
+            // A concurrent transaction on the primary still reads the committed, old state
+            assertThat(CompletableFuture.supplyAsync(() -> stateOf(id, transactionTemplate)).join())
+                    .isEqualTo(TaskState.IN_PROGRESS);
+        });
+
+        assertThat(stateOf(id, transactionTemplate)).isEqualTo(TaskState.COMPLETED);
+    }
+
+    @Test
+    public void testThatAnUpdatedTaskReadFromALaggingReplicaIsNotCached() {
+        Long id = saveTaskOnBothDatabases();
+
+        taskService.partialUpdate(id, TaskDto.builder().state(TaskState.COMPLETED).build(), null);
+        assertThat(CompletableFuture.supplyAsync(() -> stateOf(id, readOnlyTransactionTemplate)).join())
+                .isEqualTo(TaskState.IN_PROGRESS);
+
+        assertThat(stateOf(id, transactionTemplate)).isEqualTo(TaskState.COMPLETED);
+    }
+
+    @Test
+    public void testThatADeletedTaskReadFromALaggingReplicaIsNotCached() {
+        Long id = saveTaskOnBothDatabases();
+
+        taskService.deleteById(id);
+        assertThat(CompletableFuture.supplyAsync(() -> stateOf(id, readOnlyTransactionTemplate)).join())
+                .isEqualTo(TaskState.IN_PROGRESS);
+
+        assertThat(stateOf(id, transactionTemplate)).isNull();
+    }
+
+    @Test
+    public void testThatADeletedUserReadFromALaggingReplicaIsNotCached() {
+        Long userId = saveUserOnBothDatabases();
+
+        userService.deleteById(userId);
+        assertThat(CompletableFuture.supplyAsync(() -> userExists(userId, readOnlyTransactionTemplate)).join())
+                .isTrue();
+
+        assertThat(userExists(userId, transactionTemplate)).isFalse();
+    }
+
+    @Test
+    public void testThatTheTasksOfAUserReadFromALaggingReplicaAfterAnAssignmentAreNotCached() {
+        Long userId = saveUserOnBothDatabases();
+        Long taskId = taskService.save(TestDataUtil.createTaskDto1()).getId();
+
+        userService.addTaskToUser(userId, taskId);
+        assertThat(CompletableFuture.supplyAsync(() -> taskCountOf(userId, readOnlyTransactionTemplate)).join())
+                .isZero();
+
+        assertThat(taskCountOf(userId, transactionTemplate)).isEqualTo(1);
+    }
+
+    /**
+     * Saves a task on the primary, and the same row on the replica as if it had been replicated.
+     */
+    private Long saveTaskOnBothDatabases() {
+        TaskDto task = taskService.save(TestDataUtil.createTaskDto1());
+        new JdbcTemplate(replicaDataSource).update(
+                "INSERT INTO tasks (id, name, description, worktime_in_hours_per_week_per_person, type, deadline, "
+                        + "state, weeks_needed, persons_need, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 0)",
+                task.getId(), task.getName(), task.getDescription(), task.getWorkTimePerWeekPerPerson(),
+                task.getType().name(), task.getDeadLine(), task.getState().name(), task.getWeeksNeeded(),
+                task.getPersonsNeeded());
+        return task.getId();
+    }
+
+    /**
+     * Saves a user on the primary, and a row of the user on the replica as if it had been replicated.
+     */
+    private Long saveUserOnBothDatabases() {
+        Long userId = userService.save(TestDataUtil.createTestUserDtoA()).getId();
+        new JdbcTemplate(replicaDataSource).update("INSERT INTO users (id, first_name, family_name, rank, birthdate, "
+                + "version) VALUES (?, 'Replica', 'User', 'WORKER', DATE '1990-01-01', 0)", userId);
+        return userId;
+    }
+
+    /**
+     * Reads the state of a task through the second-level cache, the database is only read on a miss.
+     */
+    private TaskState stateOf(Long id, TransactionTemplate template) {
+        return template.execute(status -> taskRepository.findById(id).map(TaskEntity::getState).orElse(null));
+    }
+
+    /**
+     * Tells whether a user is found through the second-level cache.
+     */
+    private Boolean userExists(Long userId, TransactionTemplate template) {
+        return template.execute(status -> userRepository.findById(userId).isPresent());
+    }
+
+    /**
+     * Counts the tasks of a user through the second-level cache.
+     */
+    private Integer taskCountOf(Long userId, TransactionTemplate template) {
+        return template.execute(status -> userRepository.findById(userId).orElseThrow().getTasks().size());
+    }
+}
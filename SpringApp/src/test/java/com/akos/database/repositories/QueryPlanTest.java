@@ -0,0 +1,221 @@
+package com.akos.database.repositories;
+
+import com.akos.database.TestDataUtil;
+import com.akos.database.dtos.CursorPageDto;
+import com.akos.database.dtos.TaskDto;
+import com.akos.database.entities.TaskState;
+import com.akos.database.entities.TaskType;
+import com.akos.database.entities.UserRank;
+import com.akos.database.services.TaskService;
+import com.akos.database.services.UserService;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks with H2 EXPLAIN that the statements Hibernate generates for the filtered list endpoints use the indexes of
+ * the migrations. The statements are recorded with their parameters by a proxy of the DataSource while the services
+ * run, and those recorded statements are explained.
+ * <p>
+ * The indexes of the filter columns are composite (column, id) indexes: they give the matching rows in ID order but
+ * do not cover the entity queries, which read every column. Only the ID lookups are answered from them alone.
+ */
+@SpringBootTest
+public class QueryPlanTest {
+
+    private static final StatementRecorder RECORDER = new StatementRecorder();
+
+    private final TaskService taskService;
+    private final UserService userService;
+    private final TaskRepository taskRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public QueryPlanTest(TaskService taskService, UserService userService, TaskRepository taskRepository,
+                         JdbcTemplate jdbcTemplate) {
+        this.taskService = taskService;
+        this.userService = userService;
+        this.taskRepository = taskRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Test
+    public void testThatAvailableTasksUseTheStateIndex() {
+        assertThat(plansFiltering(() -> taskService.findAvailableTasks(PageRequest.of(0, 10)), "tasks", "state"))
+                .isNotEmpty()
+                .allSatisfy(plan -> assertThat(plan).contains("idx_tasks_state_id"));
+    }
+
+    @Test
+    public void testThatTasksOfTypeUseTheTypeIndex() {
+        assertThat(plansFiltering(() -> taskService.findTaskType(PageRequest.of(0, 10), TaskType.TESTING),
+                "tasks", "type"))
+                .isNotEmpty()
+                .allSatisfy(plan -> assertThat(plan).contains("idx_tasks_type_id"));
+    }
+
+    @Test
+    public void testThatKeysetPageOfTasksOfTypeSeeksToTheCursorInTheTypeIndex() {
+        for (int i = 0; i < 3; i++) {
+            taskService.save(TestDataUtil.createTaskDto1());
+        }
+        CursorPageDto<TaskDto> firstPage = taskService.findTaskType(null, PageRequest.of(0, 2), TaskType.TESTING);
+
+        assertThat(plansFiltering(() -> taskService.findTaskType(firstPage.getNext(), PageRequest.of(0, 2),
+                TaskType.TESTING), "tasks", "type"))
+                .singleElement()
+                .satisfies(plan -> assertThat(plan).containsPattern("idx_tasks_type_id: type = \\?1\\s+and id > \\?2"));
+    }
+
+    @Test
+    public void testThatIdsOfTasksInAStateAreReadFromTheStateIndex() {
+        assertThat(plansFiltering(() -> taskRepository.findIdsByState(TaskState.COMPLETED, Limit.of(10)),
+                "tasks", "state"))
+                .singleElement()
+                .satisfies(plan -> assertThat(plan).contains("idx_tasks_state_id"));
+    }
+
+    @Test
+    public void testThatAvailableUsersUseTheWorkingStatusIndex() {
+        assertThat(plansFiltering(() -> userService.findAvailableUsers(PageRequest.of(0, 10)), "users",
+                "working_status"))
+                .isNotEmpty()
+                .allSatisfy(plan -> assertThat(plan).contains("idx_users_working_status_id"));
+    }
+
+    @Test
+    public void testThatUsersWithRankUseTheRankIndex() {
+        assertThat(plansFiltering(() -> userService.findUsersWithRank(PageRequest.of(0, 10), UserRank.WORKER),
+                "users", "rank"))
+                .isNotEmpty()
+                .allSatisfy(plan -> assertThat(plan).contains("idx_users_rank_id"));
+    }
+
+    @Test
+    public void testThatUsersWithLessWeeklyWorkHoursUseTheWorkHoursIndex() {
+        assertThat(plansFiltering(() -> userService.findUsersWithLessWeeklyWorkHours(PageRequest.of(0, 10), 20L),
+                "users", "workhours_per_week"))
+                .isNotEmpty()
+                .allSatisfy(plan -> assertThat(plan).contains("idx_users_workhours_per_week_id"));
+    }
+
+    @Test
+    public void testThatUsersOfTaskUseTheTaskIndexOfTheJoinTable() {
+        assertThat(plansFiltering(() -> taskRepository.findUserIdsByTaskIdIn(List.of(1L)), "users_tasks", "task_id"))
+                .singleElement()
+                .satisfies(plan -> assertThat(plan).contains("idx_users_tasks_task_id"));
+    }
+
+    /**
+     * Runs an action and explains the statements it sent which read the table and filter on the column.
+     */
+    private List<String> plansFiltering(Runnable action, String table, String column) {
+        RECORDER.clear();
+        action.run();
+        List<RecordedStatement> statements = RECORDER.statements();
+        return statements.stream()
+                .filter(statement -> statement.reads(table) && statement.filters(column))
+                .map(this::explain)
+                .toList();
+    }
+
+    private String explain(RecordedStatement statement) {
+        return jdbcTemplate.query("EXPLAIN " + statement.sql(), preparedStatement -> {
+            for (int i = 0; i < statement.parameters().size(); i++) {
+                preparedStatement.setObject(i + 1, statement.parameters().get(i));
+            }
+        }, resultSet -> resultSet.next() ? resultSet.getString(1) : "").toLowerCase();
+    }
+
+    @TestConfiguration
+    static class StatementRecorderConfig {
+
+        @Bean
+        static BeanPostProcessor statementRecordingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof DataSource dataSource) || !"dataSource".equals(beanName)) {
+                        return bean;
+                    }
+                    return ProxyDataSourceBuilder.create(dataSource).listener(RECORDER).build();
+                }
+            };
+        }
+    }
+
+    /**
+     * A statement sent to the database, with the values of its parameters in order.
+     */
+    record RecordedStatement(String sql, List<Object> parameters) {
+
+        boolean reads(String table) {
+            return sql.toLowerCase().matches("(?s)select .*\\b(from|join) " + table + "\\b.*");
+        }
+
+        boolean filters(String column) {
+            String lowerCaseSql = sql.toLowerCase();
+            int where = lowerCaseSql.indexOf(" where ");
+            return where >= 0 && lowerCaseSql.substring(where).matches("(?s).*\\." + column + "\\b.*");
+        }
+    }
+
+    /**
+     * Records the statements executed through the DataSource, except the EXPLAIN statements of the test itself.
+     */
+    static class StatementRecorder implements QueryExecutionListener {
+
+        private final List<RecordedStatement> statements = new CopyOnWriteArrayList<>();
+
+        void clear() {
+            statements.clear();
+        }
+
+        List<RecordedStatement> statements() {
+            return List.copyOf(statements);
+        }
+
+        @Override
+        public void beforeQuery(ExecutionInfo executionInfo, List<QueryInfo> queryInfoList) {
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo executionInfo, List<QueryInfo> queryInfoList) {
+            for (QueryInfo queryInfo : queryInfoList) {
+                if (queryInfo.getQuery().startsWith("EXPLAIN")) {
+                    continue;
+                }
+                if (queryInfo.getParametersList().isEmpty()) {
+                    statements.add(new RecordedStatement(queryInfo.getQuery(), List.of()));
+                }
+                for (List<ParameterSetOperation> operations : queryInfo.getParametersList()) {
+                    List<Object> parameters = new ArrayList<>();
+                    operations.stream()
+                            .sorted(Comparator.comparingInt(operation -> (Integer) operation.getArgs()[0]))
+                            .forEach(operation -> parameters.add(
+                                    "setNull".equals(operation.getMethod().getName()) ? null : operation.getArgs()[1]));
+                    statements.add(new RecordedStatement(queryInfo.getQuery(), parameters));
+                }
+            }
+        }
+    }
+}
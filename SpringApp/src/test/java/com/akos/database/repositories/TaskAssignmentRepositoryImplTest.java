@@ -0,0 +1,95 @@
+package com.akos.database.repositories;
+
+import com.akos.database.TestDataUtil;
+import com.akos.database.dtos.TaskAssignmentDto;
+import com.akos.database.dtos.TaskDto;
+import com.akos.database.entities.TaskState;
+import com.akos.database.services.TaskService;
+import com.akos.database.services.UserService;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.annotation.DirtiesContext;
+
+import javax.sql.DataSource;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class TaskAssignmentRepositoryImplTest {
+
+    private final UserService userService;
+    private final TaskService taskService;
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    public TaskAssignmentRepositoryImplTest(UserService userService, TaskService taskService,
+                                            JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.userService = userService;
+        this.taskService = taskService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Test
+    public void testThatAssigningATaskIncrementsTheVersionOfTheUserOnce() {
+        Long userId = userService.save(TestDataUtil.createTestUserDtoA()).getId();
+        Long taskId = taskService.save(TestDataUtil.createTaskDto1()).getId();
+
+        userService.addTaskToUser(userId, taskId);
+        assertThat(versionOf(userId)).isEqualTo(1L);
+
+        userService.addTaskToUser(userId, taskId);
+        assertThat(versionOf(userId)).isEqualTo(1L);
+    }
+
+    @Test
+    public void testThatBatchesWithoutCountsAreCountedByTheTasksTheUsersHave() {
+        Long userId = userService.save(TestDataUtil.createTestUserDtoA()).getId();
+        Long taskId = taskService.save(TestDataUtil.createTaskDto1()).getId();
+        TaskDto completedTask = TestDataUtil.createTaskDto1();
+        completedTask.setState(TaskState.COMPLETED);
+        Long completedTaskId = taskService.save(completedTask).getId();
+        TaskAssignmentRepositoryImpl repository = new TaskAssignmentRepositoryImpl(
+                new NoInfoJdbcTemplate(jdbcTemplate.getDataSource()), entityManagerFactory);
+
+        int[] assigned = repository.assignTasks(List.of(
+                new TaskAssignmentDto(userId, taskId),
+                new TaskAssignmentDto(userId, taskId),
+                new TaskAssignmentDto(userId, completedTaskId)), 2);
+
+        assertThat(assigned).containsExactly(1, 0, 0);
+        assertThat(versionOf(userId)).isEqualTo(1L);
+    }
+
+    private Long versionOf(Long userId) {
+        return jdbcTemplate.queryForObject("SELECT version FROM users WHERE id = ?", Long.class, userId);
+    }
+
+    /**
+     * JdbcTemplate reporting no count for any batched statement, like some drivers do.
+     */
+    private static class NoInfoJdbcTemplate extends JdbcTemplate {
+
+        NoInfoJdbcTemplate(DataSource dataSource) {
+            super(dataSource);
+        }
+
+        @Override
+        public <T> int[][] batchUpdate(String sql, Collection<T> batchArgs, int batchSize,
+                                       ParameterizedPreparedStatementSetter<T> pss) {
+            int[][] batches = super.batchUpdate(sql, batchArgs, batchSize, pss);
+            Arrays.stream(batches).forEach(counts -> Arrays.fill(counts, Statement.SUCCESS_NO_INFO));
+            return batches;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.akos.database.services;
+
+import com.akos.database.TestDataUtil;
+import com.akos.database.configuration.DtoCacheConfig;
+import com.akos.database.configuration.DtoCacheProperties;
+import com.akos.database.configuration.ReadYourWrites;
+import com.akos.database.dtos.TaskDto;
+import com.akos.database.dtos.UserDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DtoCacheTest {
+
+    private static final Long ID = 1L;
+
+    private final DtoCache dtoCache = new DtoCache(new DtoCacheConfig().cacheManager(new DtoCacheProperties()),
+            new DefaultListableBeanFactory().getBeanProvider(ReadYourWrites.class));
+
+    @Test
+    public void testThatTheCachedUserIsNotChangedThroughTheCopiesHandedOut() {
+        UserDto loadedUser = TestDataUtil.createTestUserDtoA();
+        loadedUser.setTasks(Set.of(TestDataUtil.createTaskDto1()));
+        Versioned<UserDto> loaded = dtoCache.getUser(ID, () -> new Versioned<>(loadedUser, "0"));
+        loaded.value().setFamilyName("Changed by the loader");
+
+        UserDto cachedUser = dtoCache.getUser(ID, this::failToLoad).value();
+        assertThat(cachedUser.getFamilyName()).isEqualTo("Albert");
+        cachedUser.getTasks().iterator().next().setName("Changed by a reader");
+
+        assertThat(dtoCache.getUser(ID, this::failToLoad).value().getTasks())
+                .extracting(TaskDto::getName)
+                .containsExactly("Task 1");
+    }
+
+    @Test
+    public void testThatATaskLoadedBeforeItsEvictionIsNotCached() {
+        AtomicInteger loads = new AtomicInteger();
+        Versioned<TaskDto> stale = dtoCache.getTask(ID, () -> {
+            loads.incrementAndGet();
+            TaskDto task = TestDataUtil.createTaskDto1();
+            // A concurrent write commits and evicts the task while its old state is being loaded
+            dtoCache.evictTask(ID);
+            return new Versioned<>(task, "0");
+        });
+        assertThat(stale.versionTag()).isEqualTo("0");
+
+        Versioned<TaskDto> reloaded = dtoCache.getTask(ID, () -> {
+            loads.incrementAndGet();
+            return new Versioned<>(TestDataUtil.createTaskDto1(), "1");
+        });
+        assertThat(reloaded.versionTag()).isEqualTo("1");
+        assertThat(dtoCache.getTask(ID, this::failToLoad).versionTag()).isEqualTo("1");
+        assertThat(loads).hasValue(2);
+    }
+
+    private <T> Versioned<T> failToLoad() {
+        throw new AssertionError("The DTO should have been served by the cache");
+    }
+}
@@ -0,0 +1,29 @@
+package com.akos.database.services;
+
+import com.akos.database.entities.JobError;
+import org.junit.jupiter.api.Test;
+
+import java.io.UncheckedIOException;
+import java.nio.file.NoSuchFileException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class JobServiceTest {
+
+    @Test
+    public void testThatTheErrorMessageIsCutToTheLengthOfItsColumn() {
+        JobError error = JobService.errorOf(1L, "x".repeat(JobError.MAX_MESSAGE_LENGTH + 1));
+
+        assertThat(error.getItem()).isEqualTo(1L);
+        assertThat(error.getMessage()).hasSize(JobError.MAX_MESSAGE_LENGTH);
+    }
+
+    @Test
+    public void testThatAMissingErrorMessageIsDefaulted() {
+        assertThat(JobService.errorOf(null, null).getMessage()).isEqualTo(JobService.UNKNOWN_ERROR);
+        assertThat(JobService.messageOf(new IllegalStateException("outer", new NullPointerException())))
+                .isEqualTo(NullPointerException.class.getName());
+        assertThat(JobService.messageOf(new UncheckedIOException(new NoSuchFileException("missing.ndjson"))))
+                .isEqualTo("missing.ndjson");
+    }
+}